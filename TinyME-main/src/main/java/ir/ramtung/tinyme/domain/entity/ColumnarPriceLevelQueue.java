@@ -0,0 +1,412 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+import static ir.ramtung.tinyme.domain.entity.OrderSlotIndex.NONE;
+
+public class ColumnarPriceLevelQueue extends AbstractList<Order> implements RestingOrderQueue {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final byte LIMIT = 0;
+    private static final byte ICEBERG = 1;
+    private static final byte RETAINED = 2;
+
+    private static class Level {
+        int head = NONE;
+        int tail = NONE;
+    }
+
+    private final Side side;
+    private final DepthCurve depthCurve;
+    private final TreeMap<Integer, Level> levels;
+    private final OrderSlotIndex slotByOrderId;
+    private final ReferenceTable<Broker> brokers;
+    private final ReferenceTable<Shareholder> shareholders;
+    private int[] quantityByShareholderRef;
+    private Security security;
+
+    private long[] orderIds;
+    private int[] prices;
+    private int[] quantities;
+    private int[] displayedQuantities;
+    private int[] peakSizes;
+    private int[] minimumExpectedQuantities;
+    private long[] entrySequences;
+    private long[] entryTimestamps;
+    private int[] brokerOf;
+    private int[] shareholderOf;
+    private byte[] kinds;
+    private int[] next;
+    private int[] prev;
+    private Order[] views;
+    private int allocatedSlots;
+    private int freeSlot;
+    private int size;
+
+    public ColumnarPriceLevelQueue(Side side) {
+        this(side, new DepthCurve());
+    }
+
+    public ColumnarPriceLevelQueue(Side side, DepthCurve depthCurve) {
+        this.side = side;
+        this.depthCurve = depthCurve;
+        Comparator<Integer> priceOrder = side == Side.BUY ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        levels = new TreeMap<>(priceOrder);
+        slotByOrderId = new OrderSlotIndex(INITIAL_CAPACITY);
+        brokers = new ReferenceTable<>();
+        shareholders = new ReferenceTable<>();
+        quantityByShareholderRef = new int[shareholders.capacity()];
+        allocateColumns(INITIAL_CAPACITY);
+        allocatedSlots = 0;
+        freeSlot = NONE;
+        size = 0;
+    }
+
+    private void allocateColumns(int capacity) {
+        orderIds = new long[capacity];
+        prices = new int[capacity];
+        quantities = new int[capacity];
+        displayedQuantities = new int[capacity];
+        peakSizes = new int[capacity];
+        minimumExpectedQuantities = new int[capacity];
+        entrySequences = new long[capacity];
+        entryTimestamps = new long[capacity];
+        brokerOf = new int[capacity];
+        shareholderOf = new int[capacity];
+        kinds = new byte[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        views = new Order[capacity];
+    }
+
+    private void growColumns() {
+        int capacity = orderIds.length * 2;
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        displayedQuantities = Arrays.copyOf(displayedQuantities, capacity);
+        peakSizes = Arrays.copyOf(peakSizes, capacity);
+        minimumExpectedQuantities = Arrays.copyOf(minimumExpectedQuantities, capacity);
+        entrySequences = Arrays.copyOf(entrySequences, capacity);
+        entryTimestamps = Arrays.copyOf(entryTimestamps, capacity);
+        brokerOf = Arrays.copyOf(brokerOf, capacity);
+        shareholderOf = Arrays.copyOf(shareholderOf, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        views = Arrays.copyOf(views, capacity);
+    }
+
+    private int allocateSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (allocatedSlots == orderIds.length)
+            growColumns();
+        return allocatedSlots++;
+    }
+
+    private void releaseSlot(int slot) {
+        views[slot] = null;
+        brokers.release(brokerOf[slot]);
+        shareholders.release(shareholderOf[slot]);
+        next[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private int shareholderRef(Shareholder shareholder) {
+        int ref = shareholders.acquire(shareholder);
+        if (shareholders.capacity() > quantityByShareholderRef.length)
+            quantityByShareholderRef = Arrays.copyOf(quantityByShareholderRef, shareholders.capacity());
+        return ref;
+    }
+
+    private void writeQuantities(int slot, Order order) {
+        quantities[slot] = order.getTotalQuantity();
+        minimumExpectedQuantities[slot] = order.getMinimumExpectedQuantity();
+        if (order instanceof IcebergOrder icebergOrder) {
+            displayedQuantities[slot] = icebergOrder.getDisplayedQuantity();
+            peakSizes[slot] = icebergOrder.getPeakSize();
+        }
+    }
+
+    private int store(Order order) {
+        if (security == null)
+            security = order.getSecurity();
+        int slot = allocateSlot();
+        orderIds[slot] = order.getOrderId();
+        prices[slot] = order.getPrice();
+        entrySequences[slot] = order.getEntrySequence();
+        entryTimestamps[slot] = order.getEntryTimestamp();
+        brokerOf[slot] = brokers.acquire(order.getBroker());
+        shareholderOf[slot] = shareholderRef(order.getShareholder());
+        displayedQuantities[slot] = 0;
+        peakSizes[slot] = 0;
+        writeQuantities(slot, order);
+        if (order.getClass() == Order.class) {
+            kinds[slot] = LIMIT;
+        } else if (order.getClass() == IcebergOrder.class) {
+            kinds[slot] = ICEBERG;
+        } else {
+            kinds[slot] = RETAINED;
+            views[slot] = order;
+        }
+        return slot;
+    }
+
+    // Orders handed out by getFirst and findByOrderId are kept per slot until the slot is
+    // freed, so an order is materialized at most once while it rests and callers see the
+    // same object the matcher mutates and refreshes.
+    private Order view(int slot) {
+        Order order = views[slot];
+        if (order == null) {
+            order = materialize(slot);
+            views[slot] = order;
+        }
+        return order;
+    }
+
+    private Order peek(int slot) {
+        Order order = views[slot];
+        return order != null ? order : materialize(slot);
+    }
+
+    private Order materialize(int slot) {
+        Broker broker = brokers.get(brokerOf[slot]);
+        Shareholder shareholder = shareholders.get(shareholderOf[slot]);
+        if (kinds[slot] == ICEBERG)
+            return new IcebergOrder(orderIds[slot], security, side, quantities[slot], prices[slot], broker, shareholder,
+                    entrySequences[slot], entryTimestamps[slot], peakSizes[slot], displayedQuantities[slot], OrderStatus.QUEUED, minimumExpectedQuantities[slot]);
+        return new Order(orderIds[slot], security, side, quantities[slot], prices[slot], broker, shareholder,
+                entrySequences[slot], entryTimestamps[slot], OrderStatus.QUEUED, minimumExpectedQuantities[slot]);
+    }
+
+    private void index(int slot) {
+        slotByOrderId.put(orderIds[slot], slot);
+        quantityByShareholderRef[shareholderOf[slot]] += quantities[slot];
+        depthCurve.add(side, prices[slot], quantities[slot]);
+        size++;
+    }
+
+    private void unindex(int slot) {
+        slotByOrderId.remove(orderIds[slot]);
+        quantityByShareholderRef[shareholderOf[slot]] -= quantities[slot];
+        depthCurve.add(side, prices[slot], -quantities[slot]);
+        size--;
+    }
+
+    private Level levelOf(int price) {
+        return levels.computeIfAbsent(price, p -> new Level());
+    }
+
+    private void unlink(int slot) {
+        Level level = levels.get(prices[slot]);
+        if (prev[slot] == NONE)
+            level.head = next[slot];
+        else
+            next[prev[slot]] = next[slot];
+        if (next[slot] == NONE)
+            level.tail = prev[slot];
+        else
+            prev[next[slot]] = prev[slot];
+        if (level.head == NONE)
+            levels.remove(prices[slot]);
+    }
+
+    private Order detach(int slot) {
+        Order order = peek(slot);
+        unlink(slot);
+        unindex(slot);
+        releaseSlot(slot);
+        return order;
+    }
+
+    @Override
+    public void addLast(Order order) {
+        int slot = store(order);
+        Level level = levelOf(prices[slot]);
+        prev[slot] = level.tail;
+        next[slot] = NONE;
+        if (level.tail == NONE)
+            level.head = slot;
+        else
+            next[level.tail] = slot;
+        level.tail = slot;
+        index(slot);
+    }
+
+    @Override
+    public void addFirst(Order order) {
+        int slot = store(order);
+        Level level = levelOf(prices[slot]);
+        prev[slot] = NONE;
+        next[slot] = level.head;
+        if (level.head == NONE)
+            level.tail = slot;
+        else
+            prev[level.head] = slot;
+        level.head = slot;
+        index(slot);
+    }
+
+    private int firstSlot() {
+        if (levels.isEmpty())
+            throw new NoSuchElementException();
+        return levels.firstEntry().getValue().head;
+    }
+
+    @Override
+    public Order getFirst() {
+        return view(firstSlot());
+    }
+
+    @Override
+    public Order removeFirst() {
+        return detach(firstSlot());
+    }
+
+    @Override
+    public void refresh(Order order) {
+        int slot = slotByOrderId.get(order.getOrderId());
+        if (slot == NONE)
+            return;
+        if (views[slot] != order && kinds[slot] != RETAINED)
+            views[slot] = null;
+        int delta = order.getTotalQuantity() - quantities[slot];
+        quantityByShareholderRef[shareholderOf[slot]] += delta;
+        depthCurve.add(side, prices[slot], delta);
+        writeQuantities(slot, order);
+    }
+
+    @Override
+    public int totalQuantityByShareholder(Shareholder shareholder) {
+        int ref = shareholders.find(shareholder);
+        return ref == ReferenceTable.NONE ? 0 : quantityByShareholderRef[ref];
+    }
+
+    @Override
+    public boolean reachesOrderOfBroker(Order incoming) {
+        int broker = brokers.find(incoming.getBroker());
+        if (broker == ReferenceTable.NONE)
+            return false;
+        long unreached = incoming.getQuantity();
+        for (Level level : levels.values()) {
+            if (!crosses(incoming, prices[level.head]))
+                return false;
+            for (int slot = level.head; slot != NONE; slot = next[slot]) {
+                if (brokerOf[slot] == broker)
+                    return true;
+                unreached -= kinds[slot] == ICEBERG ? displayedQuantities[slot] : quantities[slot];
+                if (unreached <= 0)
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean crosses(Order incoming, int price) {
+        return side == Side.SELL ? incoming.getPrice() >= price : incoming.getPrice() <= price;
+    }
+
+    @Override
+    public Order findByOrderId(long orderId) {
+        int slot = slotByOrderId.get(orderId);
+        return slot == NONE ? null : view(slot);
+    }
+
+    @Override
+    public boolean containsOrderId(long orderId) {
+        return slotByOrderId.get(orderId) != NONE;
+    }
+
+    @Override
+    public int indexedOrderCount() {
+        return slotByOrderId.size();
+    }
+
+    @Override
+    public Order removeByOrderId(long orderId) {
+        int slot = slotByOrderId.get(orderId);
+        return slot == NONE ? null : detach(slot);
+    }
+
+    @Override
+    public int levelCount() {
+        return levels.size();
+    }
+
+    public int referencedBrokerCount() {
+        return brokers.size();
+    }
+
+    public int referencedShareholderCount() {
+        return shareholders.size();
+    }
+
+    @Override
+    public Order get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+        for (Level level : levels.values()) {
+            for (int slot = level.head; slot != NONE; slot = next[slot]) {
+                if (index == 0)
+                    return peek(slot);
+                index--;
+            }
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Iterator<Order> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Level> levelIt = levels.values().iterator();
+            private int nextSlot = NONE;
+            private int lastReturned = NONE;
+
+            @Override
+            public boolean hasNext() {
+                return nextSlot != NONE || levelIt.hasNext();
+            }
+
+            @Override
+            public Order next() {
+                if (nextSlot == NONE)
+                    nextSlot = levelIt.next().head;
+                lastReturned = nextSlot;
+                nextSlot = ColumnarPriceLevelQueue.this.next[nextSlot];
+                return peek(lastReturned);
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == NONE)
+                    throw new IllegalStateException();
+                Level level = levels.get(prices[lastReturned]);
+                if (level.head == lastReturned && level.tail == lastReturned)
+                    levelIt.remove();
+                else
+                    unlink(lastReturned);
+                unindex(lastReturned);
+                releaseSlot(lastReturned);
+                lastReturned = NONE;
+            }
+        };
+    }
+}
@@ -0,0 +1,270 @@
+package ir.ramtung.tinyme.domain.entity;
+
+public class DepthCurve {
+    private static class Node {
+        final int price;
+        final int priority;
+        int sellQuantity;
+        int buyQuantity;
+        long subtreeSellQuantity;
+        long subtreeBuyQuantity;
+        long subtreeSellValue;
+        Node left;
+        Node right;
+
+        Node(int price) {
+            this.price = price;
+            this.priority = mix(price);
+        }
+
+        void update() {
+            subtreeSellQuantity = sellQuantity + sellOf(left) + sellOf(right);
+            subtreeBuyQuantity = buyQuantity + buyOf(left) + buyOf(right);
+            subtreeSellValue = (long) price * sellQuantity + sellValueOf(left) + sellValueOf(right);
+        }
+    }
+
+    private Node root;
+
+    private static int mix(int price) {
+        int h = price * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long sellOf(Node node) {
+        return node == null ? 0 : node.subtreeSellQuantity;
+    }
+
+    private static long buyOf(Node node) {
+        return node == null ? 0 : node.subtreeBuyQuantity;
+    }
+
+    private static long sellValueOf(Node node) {
+        return node == null ? 0 : node.subtreeSellValue;
+    }
+
+    public void add(Side side, int price, int quantity) {
+        if (quantity != 0)
+            root = apply(root, price, side == Side.SELL ? quantity : 0, side == Side.BUY ? quantity : 0);
+    }
+
+    private Node apply(Node node, int price, int sellDelta, int buyDelta) {
+        if (node == null) {
+            node = new Node(price);
+            node.sellQuantity = sellDelta;
+            node.buyQuantity = buyDelta;
+        } else if (price < node.price) {
+            node.left = apply(node.left, price, sellDelta, buyDelta);
+            if (node.left != null && node.left.priority > node.priority)
+                node = rotateRight(node);
+        } else if (price > node.price) {
+            node.right = apply(node.right, price, sellDelta, buyDelta);
+            if (node.right != null && node.right.priority > node.priority)
+                node = rotateLeft(node);
+        } else {
+            node.sellQuantity += sellDelta;
+            node.buyQuantity += buyDelta;
+            if (node.sellQuantity == 0 && node.buyQuantity == 0)
+                return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        node.update();
+        left.right = node;
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        node.update();
+        right.left = node;
+        right.update();
+        return right;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public long totalSellQuantity() {
+        return sellOf(root);
+    }
+
+    public long totalBuyQuantity() {
+        return buyOf(root);
+    }
+
+    private long sellQuantityAtOrBelow(int price) {
+        long quantity = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.price <= price) {
+                quantity += sellOf(node.left) + node.sellQuantity;
+                node = node.right;
+            } else
+                node = node.left;
+        }
+        return quantity;
+    }
+
+    private long buyQuantityBelow(int price) {
+        long quantity = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.price < price) {
+                quantity += buyOf(node.left) + node.buyQuantity;
+                node = node.right;
+            } else
+                node = node.left;
+        }
+        return quantity;
+    }
+
+    public long quantityMatchableBy(Side side, int price) {
+        if (side == Side.BUY)
+            return sellQuantityAtOrBelow(price);
+        return totalBuyQuantity() - buyQuantityBelow(price);
+    }
+
+    public long costOfCheapestSells(long quantity) {
+        long cost = 0;
+        Node node = root;
+        while (node != null && quantity > 0) {
+            long leftQuantity = sellOf(node.left);
+            if (quantity <= leftQuantity) {
+                node = node.left;
+                continue;
+            }
+            cost += sellValueOf(node.left);
+            quantity -= leftQuantity;
+            long here = Math.min(quantity, node.sellQuantity);
+            cost += here * node.price;
+            quantity -= here;
+            node = node.right;
+        }
+        return cost;
+    }
+
+    private long tradableQuantity(int price) {
+        return Math.min(sellQuantityAtOrBelow(price), totalBuyQuantity() - buyQuantityBelow(price));
+    }
+
+    public int tradableQuantityAt(int price) {
+        return (int) tradableQuantity(price);
+    }
+
+    private Node firstLevelWhereSupplyMeetsDemand() {
+        long totalBuy = totalBuyQuantity();
+        long sellBefore = 0;
+        long buyBefore = 0;
+        Node found = null;
+        Node node = root;
+        while (node != null) {
+            long supply = sellBefore + sellOf(node.left) + node.sellQuantity;
+            long demand = totalBuy - (buyBefore + buyOf(node.left));
+            if (supply >= demand) {
+                found = node;
+                node = node.left;
+            } else {
+                sellBefore += sellOf(node.left) + node.sellQuantity;
+                buyBefore += buyOf(node.left) + node.buyQuantity;
+                node = node.right;
+            }
+        }
+        return found;
+    }
+
+    private Node lastLevelBefore(Node level) {
+        Node found = null;
+        Node node = root;
+        while (node != null) {
+            if (level == null || node.price < level.price) {
+                found = node;
+                node = node.right;
+            } else
+                node = node.left;
+        }
+        return found;
+    }
+
+    private Node firstLevelWithSupplyOf(long quantity) {
+        long sellBefore = 0;
+        Node found = null;
+        Node node = root;
+        while (node != null) {
+            long supply = sellBefore + sellOf(node.left) + node.sellQuantity;
+            if (supply >= quantity) {
+                found = node;
+                node = node.left;
+            } else {
+                sellBefore = supply;
+                node = node.right;
+            }
+        }
+        return found;
+    }
+
+    private Node lastLevelWithDemandOf(long quantity) {
+        long maxBuyBelow = totalBuyQuantity() - quantity;
+        long buyBefore = 0;
+        Node found = null;
+        Node node = root;
+        while (node != null) {
+            long buyBelow = buyBefore + buyOf(node.left);
+            if (buyBelow <= maxBuyBelow) {
+                found = node;
+                buyBefore = buyBelow + node.buyQuantity;
+                node = node.right;
+            } else
+                node = node.left;
+        }
+        return found;
+    }
+
+    public int maxTradableQuantity() {
+        Node crossing = firstLevelWhereSupplyMeetsDemand();
+        Node beforeCrossing = lastLevelBefore(crossing);
+        long quantity = 0;
+        if (crossing != null)
+            quantity = tradableQuantity(crossing.price);
+        if (beforeCrossing != null)
+            quantity = Math.max(quantity, tradableQuantity(beforeCrossing.price));
+        return (int) quantity;
+    }
+
+    public int openingPrice(int lastTradedPrice) {
+        int quantity = maxTradableQuantity();
+        if (quantity == 0)
+            return lastTradedPrice;
+        int lowest = firstLevelWithSupplyOf(quantity).price;
+        int highest = lastLevelWithDemandOf(quantity).price;
+        if (lastTradedPrice < lowest)
+            return lowest;
+        if (lastTradedPrice > highest)
+            return highest;
+        return lastTradedPrice;
+    }
+}
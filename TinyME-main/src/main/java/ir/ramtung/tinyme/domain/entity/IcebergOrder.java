@@ -1,5 +1,6 @@
 package ir.ramtung.tinyme.domain.entity;
 
+import ir.ramtung.tinyme.domain.service.EngineClock;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -15,6 +16,12 @@ public class IcebergOrder extends Order {
     int displayedQuantity;
 
 
+    public IcebergOrder(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, long entrySequence, long entryTimestamp, int peakSize, int displayedQuantity, OrderStatus status, int minimumExecutionQuantity) {
+        super(orderId, security, side, quantity, price, broker, shareholder, entrySequence, entryTimestamp, status, minimumExecutionQuantity);
+        this.peakSize = peakSize;
+        this.displayedQuantity = displayedQuantity;
+    }
+
     public IcebergOrder(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, LocalDateTime entryTime, int peakSize, OrderStatus status, int minimumExecutionQuantity) {
         super(orderId, security, side, quantity, price, broker, shareholder, entryTime, status);
         this.peakSize = peakSize;
@@ -35,19 +42,21 @@ public class IcebergOrder extends Order {
     }
 
     public IcebergOrder(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, int peakSize) {
-        super(orderId, security, side, quantity, price, broker, shareholder);
-        this.peakSize = peakSize;
-        this.displayedQuantity = Math.min(peakSize, quantity);
+        this(orderId, security, side, quantity, price, broker, shareholder, 0, EngineClock.NO_TIME, peakSize, Math.min(peakSize, quantity), OrderStatus.NEW, 0);
+    }
+
+    public IcebergOrder(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, long entrySequence, long entryTimestamp, int peakSize, OrderStatus status, int minimumExecutionQuantity) {
+        this(orderId, security, side, quantity, price, broker, shareholder, entrySequence, entryTimestamp, peakSize, 0, status, minimumExecutionQuantity);
     }
 
     @Override
     public Order snapshot() {
-        return new IcebergOrder(orderId, security, side, quantity, price, broker, shareholder, entryTime, peakSize, OrderStatus.SNAPSHOT);
+        return new IcebergOrder(orderId, security, side, quantity, price, broker, shareholder, entrySequence, entryTimestamp, peakSize, Math.min(peakSize, quantity), OrderStatus.SNAPSHOT, 0);
     }
 
     @Override
     public Order snapshotWithQuantity(int newQuantity) {
-        return new IcebergOrder(orderId, security, side, newQuantity, price, broker, shareholder, entryTime, peakSize, OrderStatus.SNAPSHOT);
+        return new IcebergOrder(orderId, security, side, newQuantity, price, broker, shareholder, entrySequence, entryTimestamp, peakSize, Math.min(peakSize, newQuantity), OrderStatus.SNAPSHOT, 0);
     }
 
     @Override
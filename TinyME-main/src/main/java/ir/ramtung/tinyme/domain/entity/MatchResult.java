@@ -1,45 +1,86 @@
 package ir.ramtung.tinyme.domain.entity;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 public final class MatchResult {
-    private final MatchingOutcome outcome;
-    private final Order remainder;
-    private final LinkedList<Trade> trades;
+    private static final MatchResult NOT_ENOUGH_CREDIT = new MatchResult(MatchingOutcome.NOT_ENOUGH_CREDIT, null, List.of());
+    private static final MatchResult NOT_ENOUGH_POSITIONS = new MatchResult(MatchingOutcome.NOT_ENOUGH_POSITIONS, null, List.of());
+    private static final MatchResult MINIMUM_QUANTITY_INSUFFICIENT = new MatchResult(MatchingOutcome.MINIMUM_QUANTITY_INSUFFICIENT, null, List.of());
+    private static final MatchResult CANT_UPDATE_MIN_QUANTITY = new MatchResult(MatchingOutcome.CANT_UPDATE_MIN_QUANTITY, null, List.of());
+    private static final MatchResult INACTIVE_ORDER_ENQUEUED = new MatchResult(MatchingOutcome.INACTIVE_ORDER_ENQUEUED, null, List.of());
+    private static final MatchResult OPENING_PRICE_ANNOUNCEMENT = new MatchResult(MatchingOutcome.OPENING_PRICE_ANNOUNCEMENT, null, List.of());
+
+    private MatchingOutcome outcome;
+    private Order remainder;
+    private List<Trade> trades;
+    private int tradesGeneration;
+    private final boolean reusable;
 
     public static MatchResult executed(Order remainder, List<Trade> trades) {
-        return new MatchResult(MatchingOutcome.EXECUTED, remainder, new LinkedList<>(trades));
+        return new MatchResult(MatchingOutcome.EXECUTED, remainder, trades);
     }
 
     public static MatchResult notEnoughCredit() {
-        return new MatchResult(MatchingOutcome.NOT_ENOUGH_CREDIT, null, new LinkedList<>());
+        return NOT_ENOUGH_CREDIT;
     }
     public static MatchResult notEnoughPositions() {
-        return new MatchResult(MatchingOutcome.NOT_ENOUGH_POSITIONS, null, new LinkedList<>());
+        return NOT_ENOUGH_POSITIONS;
     }
     public static MatchResult minimumQuantityInsufficient() {
-        return new MatchResult(MatchingOutcome.MINIMUM_QUANTITY_INSUFFICIENT, null, new LinkedList<>());
+        return MINIMUM_QUANTITY_INSUFFICIENT;
     }
     public static MatchResult cantUpdateMinQuantity() {
-        return new MatchResult(MatchingOutcome.CANT_UPDATE_MIN_QUANTITY, null, new LinkedList<>());
+        return CANT_UPDATE_MIN_QUANTITY;
     }
     public static MatchResult inActiveOrderEnqueued() {
-        return new MatchResult(MatchingOutcome.INACTIVE_ORDER_ENQUEUED, null, new LinkedList<>());
+        return INACTIVE_ORDER_ENQUEUED;
     }
 
     public static MatchResult openingPriceAnnouncement() {
-        return new MatchResult(MatchingOutcome.OPENING_PRICE_ANNOUNCEMENT, null, new LinkedList<>());
+        return OPENING_PRICE_ANNOUNCEMENT;
     }
 
     public static MatchResult auctionMatchCompleted(List<Trade> trades){
-        return new MatchResult(MatchingOutcome.AUCTION_MATCH_COMPLETED, null, new LinkedList<>(trades));
+        return new MatchResult(MatchingOutcome.AUCTION_MATCH_COMPLETED, null, trades);
+    }
+
+    public static MatchResult reusable() {
+        return new MatchResult(null, null, List.of(), true);
+    }
+
+    public MatchResult recordExecuted(Order remainder, List<Trade> trades) {
+        return record(MatchingOutcome.EXECUTED, remainder, trades);
+    }
+
+    public MatchResult recordAuctionMatchCompleted(List<Trade> trades) {
+        return record(MatchingOutcome.AUCTION_MATCH_COMPLETED, null, trades);
+    }
+
+    private MatchResult record(MatchingOutcome outcome, Order remainder, List<Trade> trades) {
+        if (!reusable)
+            throw new IllegalStateException("match result is not reusable");
+        this.outcome = outcome;
+        this.remainder = remainder;
+        this.trades = trades;
+        this.tradesGeneration = generationOf(trades);
+        return this;
     }
-    private MatchResult(MatchingOutcome outcome, Order remainder, LinkedList<Trade> trades) {
+
+    private MatchResult(MatchingOutcome outcome, Order remainder, List<Trade> trades) {
+        this(outcome, remainder, trades, false);
+    }
+    private MatchResult(MatchingOutcome outcome, Order remainder, List<Trade> trades, boolean reusable) {
         this.outcome = outcome;
         this.remainder = remainder;
         this.trades = trades;
+        this.tradesGeneration = generationOf(trades);
+        this.reusable = reusable;
+    }
+
+    private static int generationOf(List<Trade> trades) {
+        return trades instanceof TradeBuffer buffer ? buffer.generation() : 0;
     }
     public MatchingOutcome outcome() {
         return outcome;
@@ -47,9 +88,26 @@ public final class MatchResult {
     public Order remainder() {
         return remainder;
     }
-    public LinkedList<Trade> trades() {
+    /**
+     * Trades of an executed or auction match. For matches run by the engine these are
+     * the security's pooled {@link TradeBuffer} slots, valid only until the next match
+     * on that security; use {@link #copyTrades()} for what must outlive it.
+     *
+     * @throws IllegalStateException if a later match has already reused the trades
+     */
+    public List<Trade> trades() {
+        if (trades instanceof TradeBuffer buffer && buffer.generation() != tradesGeneration)
+            throw new IllegalStateException("trades of this match were reused by a later match");
         return trades;
     }
+
+    public List<Trade> copyTrades() {
+        List<Trade> source = trades();
+        List<Trade> copies = new ArrayList<>(source.size());
+        for (Trade trade : source)
+            copies.add(trade.copy());
+        return copies;
+    }
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
@@ -70,10 +128,4 @@ public final class MatchResult {
                 "remainder=" + remainder + ", " +
                 "trades=" + trades + ']';
     }
-
-
-
-
-
-
 }
@@ -1,5 +1,6 @@
 package ir.ramtung.tinyme.domain.entity;
 
+import ir.ramtung.tinyme.domain.service.EngineClock;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -20,42 +21,39 @@ public class Order {
     protected int price;
     protected Broker broker;
     protected Shareholder shareholder;
+    protected long entrySequence;
     @Builder.Default
-    protected LocalDateTime entryTime = LocalDateTime.now();
+    protected long entryTimestamp = EngineClock.NO_TIME;
     @Builder.Default
     protected OrderStatus status = OrderStatus.NEW;
     protected int minimumExpectedQuantity;
 
 
-    public Order(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, LocalDateTime entryTime, OrderStatus status, int minimumExpectedQuantity) {
+    public Order(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, long entrySequence, long entryTimestamp, OrderStatus status, int minimumExpectedQuantity) {
         this.orderId = orderId;
         this.security = security;
         this.side = side;
         this.quantity = quantity;
         this.price = price;
-        this.entryTime = entryTime;
+        this.entrySequence = entrySequence;
+        this.entryTimestamp = entryTimestamp;
         this.broker = broker;
         this.shareholder = shareholder;
         this.status = status;
         this.minimumExpectedQuantity = minimumExpectedQuantity;
     }
 
+    public Order(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, LocalDateTime entryTime, OrderStatus status, int minimumExpectedQuantity) {
+        this(orderId, security, side, quantity, price, broker, shareholder, 0, EngineClock.toTimestamp(entryTime), status, minimumExpectedQuantity);
+    }
+
     public Order(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, LocalDateTime entryTime) {
-        this.orderId = orderId;
-        this.security = security;
-        this.side = side;
-        this.quantity = quantity;
-        this.price = price;
-        this.entryTime = entryTime;
-        this.broker = broker;
-        this.shareholder = shareholder;
-        this.status = OrderStatus.NEW;
-        this.minimumExpectedQuantity = 0;
+        this(orderId, security, side, quantity, price, broker, shareholder, entryTime, OrderStatus.NEW, 0);
     }
 
 
     public Order(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder) {
-        this(orderId, security, side, quantity, price, broker, shareholder, LocalDateTime.now());
+        this(orderId, security, side, quantity, price, broker, shareholder, 0, EngineClock.NO_TIME, OrderStatus.NEW, 0);
     }
 
     public Order(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, LocalDateTime entryTime, OrderStatus status) {
@@ -64,11 +62,11 @@ public class Order {
 
 
     public Order snapshot() {
-        return new Order(orderId, security, side, quantity, price, broker, shareholder, entryTime, OrderStatus.SNAPSHOT, minimumExpectedQuantity);
+        return new Order(orderId, security, side, quantity, price, broker, shareholder, entrySequence, entryTimestamp, OrderStatus.SNAPSHOT, minimumExpectedQuantity);
     }
 
     public Order snapshotWithQuantity(int newQuantity) {
-        return new Order(orderId, security, side, newQuantity, price, broker, shareholder, entryTime, OrderStatus.SNAPSHOT, minimumExpectedQuantity);
+        return new Order(orderId, security, side, newQuantity, price, broker, shareholder, entrySequence, entryTimestamp, OrderStatus.SNAPSHOT, minimumExpectedQuantity);
     }
 
     public boolean matches(Order other) {
@@ -84,6 +82,10 @@ public class Order {
         quantity -= amount;
     }
 
+    void restoreQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
     public void makeQuantityZero() {
         quantity = 0;
     }
@@ -97,7 +99,7 @@ public class Order {
     }
 
     public boolean inActievOrderQueuesBefore(Order order){
-        int entryCompareResult = this.entryTime.compareTo(order.getEntryTime());
+        int entryCompareResult = compareEntry(order);
         if(order.getSide()==Side.BUY){
             if(this.getStopPrice() < order.getStopPrice())
                 return true;
@@ -116,6 +118,16 @@ public class Order {
         }
     }
 
+    public int compareEntry(Order order) {
+        if (entryTimestamp != order.entryTimestamp)
+            return Long.compare(entryTimestamp, order.entryTimestamp);
+        return Long.compare(entrySequence, order.entrySequence);
+    }
+
+    public LocalDateTime getEntryTime() {
+        return EngineClock.toLocalDateTime(entryTimestamp);
+    }
+
     public void queue() {
         status = OrderStatus.QUEUED;
     }
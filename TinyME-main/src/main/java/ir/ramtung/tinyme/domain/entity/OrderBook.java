@@ -1,34 +1,41 @@
 package ir.ramtung.tinyme.domain.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.function.Predicate;
-
-import static org.apache.commons.lang3.math.NumberUtils.min;
 
 @Getter
 public class OrderBook {
-    private final LinkedList<Order> buyQueue;
-    private final LinkedList<Order> sellQueue;
-    private final LinkedList<Order> inactiveBuyQueue;
-    private final LinkedList<Order> inactiveSellQueue;
+    private final RestingOrderQueue buyQueue;
+    private final RestingOrderQueue sellQueue;
+    @Getter(AccessLevel.NONE)
+    private final DepthCurve depthCurve;
+    private final StopTriggerQueue inactiveBuyQueue;
+    private final StopTriggerQueue inactiveSellQueue;
 
     public OrderBook() {
-        buyQueue = new LinkedList<>();
-        sellQueue = new LinkedList<>();
-        inactiveBuyQueue = new LinkedList<>();
-        inactiveSellQueue = new LinkedList<>();
+        this(OrderStorage.OBJECTS);
+    }
+
+    public OrderBook(OrderStorage storage) {
+        depthCurve = new DepthCurve();
+        if (storage == OrderStorage.COLUMNAR) {
+            buyQueue = new ColumnarPriceLevelQueue(Side.BUY, depthCurve);
+            sellQueue = new ColumnarPriceLevelQueue(Side.SELL, depthCurve);
+        } else {
+            buyQueue = new PriceLevelQueue(Side.BUY, depthCurve);
+            sellQueue = new PriceLevelQueue(Side.SELL, depthCurve);
+        }
+        inactiveBuyQueue = new StopTriggerQueue(Side.BUY);
+        inactiveSellQueue = new StopTriggerQueue(Side.SELL);
     }
 
-    private LinkedList<Order> getQueue(Side side) {
+    private RestingOrderQueue getQueue(Side side) {
         return side == Side.BUY ? buyQueue : sellQueue;
     }
 
-    private LinkedList<Order> getInactiveQueue(Side side){
+    private StopTriggerQueue getInactiveQueue(Side side){
         return side == Side.BUY ? inactiveBuyQueue : inactiveSellQueue;
     }
 
@@ -41,13 +48,14 @@ public class OrderBook {
     }
 
     public void putBack(Order order) {
-        LinkedList<Order> queue = getQueue(order.getSide());
+        RestingOrderQueue queue = getQueue(order.getSide());
         order.queue();
         queue.addFirst(order);
     }
 
-    public void restoreOrder(Order order) {
+    public void restoreOrder(Order order, int quantity) {
         removeByOrderIdFromActiveQueue(order.getSide(), order.getOrderId());
+        order.restoreQuantity(quantity);
         putBack(order);
     }
 
@@ -59,65 +67,43 @@ public class OrderBook {
         getQueue(side).removeFirst();
     }
 
+    public void refreshQueuedOrder(Order order) {
+        getQueue(order.getSide()).refresh(order);
+    }
+
     public int totalSellQuantityByShareholder(Shareholder shareholder) {
-        return sellQueue.stream()
-                .filter(order -> order.getShareholder().equals(shareholder))
-                .mapToInt(Order::getTotalQuantity)
-                .sum();
-    }
-
-    public void enqueueInGivenQueue(Order order, List<Order> queue, Predicate<Order> condition) {
-        ListIterator<Order> it = queue.listIterator();
-        while (it.hasNext()) {
-            Order nextOrder = it.next();
-            if (condition.test(nextOrder)) {
-                it.previous();
-                break;
-            }
-        }
-        order.queue();
-        it.add(order);
+        return sellQueue.totalQuantityByShareholder(shareholder);
     }
 
     public void enqueueToInactiveQueue(Order order) {
-        List<Order> queue = getInactiveQueue(order.getSide());
-        Predicate<Order> condition = order::inActievOrderQueuesBefore;
-        enqueueInGivenQueue(order, queue, condition);
+        order.queue();
+        getInactiveQueue(order.getSide()).enqueue(order);
     }
 
     public void enqueueToActiveQueue(Order order) {
-        List<Order> queue = getQueue(order.getSide());
-        Predicate<Order> condition = order::queuesBefore;
-        enqueueInGivenQueue(order, queue, condition);
+        order.queue();
+        getQueue(order.getSide()).addLast(order);
     }
 
 
     public Order dequeueFromInactiveQueue(Side side, int lastTradedPrice) {
-        ListIterator<Order> it = getInactiveQueue(side).listIterator();
-        if (it.hasNext()) {
-            Order order = it.next();
-            if(order.canBeActive(lastTradedPrice)) {
-                it.remove();
-                return order;
-            }
-        }
-        return null;
+        return getInactiveQueue(side).pollTriggered(lastTradedPrice);
     }
 
-    public Order findByOrderIdInActiveQueue(Side side, long orderId) {
-        return findByOrderIdInGivenQueue(orderId, getQueue(side));
+    public boolean hasTriggeredOrders(Side side, int lastTradedPrice) {
+        return getInactiveQueue(side).hasTriggered(lastTradedPrice);
     }
 
-    public Order findByOrderIdInInactiveQueue(Side side, long orderId) {
-        return findByOrderIdInGivenQueue(orderId, getInactiveQueue(side));
+    public List<Order> dequeueTriggeredOrders(Side side, int lastTradedPrice) {
+        return getInactiveQueue(side).drainTriggered(lastTradedPrice);
     }
 
-    private Order findByOrderIdInGivenQueue( long orderId, LinkedList<Order> queue) {
-        for (Order order : queue) {
-            if (order.getOrderId() == orderId)
-                return order;
-        }
-        return null;
+    public Order findByOrderIdInActiveQueue(Side side, long orderId) {
+        return getQueue(side).findByOrderId(orderId);
+    }
+
+    public Order findByOrderIdInInactiveQueue(Side side, long orderId) {
+        return getInactiveQueue(side).findByOrderId(orderId);
     }
 
     public Order findOrderInAllQueues(Side side, long orderId){
@@ -126,56 +112,34 @@ public class OrderBook {
             return orderInInActiveQueue;
         return findByOrderIdInActiveQueue(side, orderId);
     }
-    private void removeByOrderIdFromGivenQueue(long orderId, LinkedList<Order> queue){
-        Iterator<Order> it = queue.listIterator();
-        while (it.hasNext()) {
-            if (it.next().getOrderId() == orderId) {
-                it.remove();
-                break;
-            }
-        }
-    }
     public void removeByOrderIdFromActiveQueue(Side side, long orderId) {
-        removeByOrderIdFromGivenQueue(orderId,getQueue(side));
+        getQueue(side).removeByOrderId(orderId);
     }
     public void removeByOrderIdFromInactiveQueue(Side side, long orderId) {
-        removeByOrderIdFromGivenQueue(orderId,getInactiveQueue(side));
+        getInactiveQueue(side).removeByOrderId(orderId);
     }
     public void removeByOrderFromBothQueues(Side side, long orderId){
         removeByOrderIdFromActiveQueue(side, orderId);
         removeByOrderIdFromInactiveQueue(side, orderId);
     }
 
+    public long quantityMatchableBy(Order order) {
+        return depthCurve.quantityMatchableBy(order.getSide(), order.getPrice());
+    }
+
+    public long costOfBuying(long quantity) {
+        return depthCurve.costOfCheapestSells(quantity);
+    }
+
+    public boolean hasMatchableOrderFromBroker(Order order) {
+        return getQueue(order.getSide().opposite()).reachesOrderOfBroker(order);
+    }
+
     public int calculateTradableQuantity(int price){
-        int sellingQuantity = 0;
-        int buyingQuantity = 0;
-        for(Order order : sellQueue){
-            if(order.getPrice() <= price)
-                sellingQuantity += order.getTotalQuantity();
-        }
-        for(Order order : buyQueue){
-            if(order.getPrice() >= price)
-                buyingQuantity += order.getTotalQuantity();
-        }
-        return Math.min(sellingQuantity, buyingQuantity);
+        return depthCurve.tradableQuantityAt(price);
     }
 
     public int calculateOpeningPrice(int lastTradedPrice){
-        LinkedList<Order> combinedQueue = new LinkedList<>();
-        combinedQueue.addAll(sellQueue);
-        combinedQueue.addAll(buyQueue);
-        int priceWithHighestTradableQuantity = lastTradedPrice;
-        for(Order order : combinedQueue) {
-            if (calculateTradableQuantity(order.getPrice()) > calculateTradableQuantity(priceWithHighestTradableQuantity)) {
-                priceWithHighestTradableQuantity = order.getPrice();
-            } else if (calculateTradableQuantity(order.getPrice()) == calculateTradableQuantity(priceWithHighestTradableQuantity)) {
-                if (Math.abs(order.getPrice() - lastTradedPrice) < Math.abs(priceWithHighestTradableQuantity - lastTradedPrice)) {
-                    priceWithHighestTradableQuantity = order.getPrice();
-                } else if (Math.abs(order.getPrice() - lastTradedPrice) == Math.abs(priceWithHighestTradableQuantity - lastTradedPrice)) {
-                    priceWithHighestTradableQuantity = Math.min(order.getPrice(), priceWithHighestTradableQuantity);
-                }
-            }
-        }
-        return priceWithHighestTradableQuantity;
+        return depthCurve.openingPrice(lastTradedPrice);
     }
 }
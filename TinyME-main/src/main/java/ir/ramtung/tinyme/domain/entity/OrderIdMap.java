@@ -0,0 +1,101 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.Arrays;
+
+class OrderIdMap<V> {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    OrderIdMap() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private int home(long orderId) {
+        long h = orderId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long orderId) {
+        for (int i = home(orderId); ; i = (i + 1) & mask) {
+            if (keys[i] == orderId)
+                return (V) values[i];
+            if (keys[i] == EMPTY)
+                return null;
+        }
+    }
+
+    boolean containsKey(long orderId) {
+        return get(orderId) != null;
+    }
+
+    void put(long orderId, V value) {
+        if (orderId == EMPTY)
+            throw new IllegalArgumentException();
+        if ((size + 1) * 2 > keys.length)
+            grow();
+        for (int i = home(orderId); ; i = (i + 1) & mask) {
+            if (keys[i] == orderId) {
+                values[i] = value;
+                return;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = orderId;
+                values[i] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long orderId) {
+        int i = home(orderId);
+        while (keys[i] != orderId) {
+            if (keys[i] == EMPTY)
+                return null;
+            i = (i + 1) & mask;
+        }
+        V value = (V) values[i];
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int h = home(keys[j]);
+            boolean movable = j > gap ? (h <= gap || h > j) : (h <= gap && h > j);
+            if (movable) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(keys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY)
+                put(oldKeys[i], (V) oldValues[i]);
+    }
+}
@@ -0,0 +1,95 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.Arrays;
+
+class OrderSlotIndex {
+    static final int NONE = -1;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] slots;
+    private int mask;
+    private int size;
+
+    OrderSlotIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        slots = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private int home(long orderId) {
+        long h = orderId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    int get(long orderId) {
+        for (int i = home(orderId); ; i = (i + 1) & mask) {
+            if (keys[i] == orderId)
+                return slots[i];
+            if (keys[i] == EMPTY)
+                return NONE;
+        }
+    }
+
+    void put(long orderId, int slot) {
+        if (orderId == EMPTY)
+            throw new IllegalArgumentException();
+        if ((size + 1) * 2 > keys.length)
+            grow();
+        for (int i = home(orderId); ; i = (i + 1) & mask) {
+            if (keys[i] == orderId) {
+                slots[i] = slot;
+                return;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = orderId;
+                slots[i] = slot;
+                size++;
+                return;
+            }
+        }
+    }
+
+    int remove(long orderId) {
+        int i = home(orderId);
+        while (keys[i] != orderId) {
+            if (keys[i] == EMPTY)
+                return NONE;
+            i = (i + 1) & mask;
+        }
+        int slot = slots[i];
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int h = home(keys[j]);
+            boolean movable = j > gap ? (h <= gap || h > j) : (h <= gap && h > j);
+            if (movable) {
+                keys[gap] = keys[j];
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return slot;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        allocate(keys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY)
+                put(oldKeys[i], oldSlots[i]);
+    }
+}
@@ -0,0 +1,6 @@
+package ir.ramtung.tinyme.domain.entity;
+
+public enum OrderStorage {
+    OBJECTS,
+    COLUMNAR
+}
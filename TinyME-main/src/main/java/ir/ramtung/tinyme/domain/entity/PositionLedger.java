@@ -0,0 +1,95 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.Arrays;
+
+public class PositionLedger {
+    private static final int EMPTY = -1;
+
+    @FunctionalInterface
+    public interface PositionConsumer {
+        void accept(int shareholderIndex, long position);
+    }
+
+    private int[] keys;
+    private long[] positions;
+    private int mask;
+    private int size;
+
+    public PositionLedger() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        positions = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private int home(int shareholderIndex) {
+        int h = shareholderIndex * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int slotOf(int shareholderIndex) {
+        for (int i = home(shareholderIndex); ; i = (i + 1) & mask) {
+            if (keys[i] == shareholderIndex || keys[i] == EMPTY)
+                return i;
+        }
+    }
+
+    private int insert(int shareholderIndex) {
+        int slot = slotOf(shareholderIndex);
+        if (keys[slot] == shareholderIndex)
+            return slot;
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            slot = slotOf(shareholderIndex);
+        }
+        keys[slot] = shareholderIndex;
+        size++;
+        return slot;
+    }
+
+    public long positionOf(int shareholderIndex) {
+        int slot = slotOf(shareholderIndex);
+        return keys[slot] == EMPTY ? 0 : positions[slot];
+    }
+
+    public void increase(int shareholderIndex, long amount) {
+        int slot = insert(shareholderIndex);
+        positions[slot] += amount;
+    }
+
+    public void decrease(int shareholderIndex, long amount) {
+        int slot = slotOf(shareholderIndex);
+        long current = keys[slot] == EMPTY ? 0 : positions[slot];
+        if (current < amount)
+            throw new IllegalArgumentException("Amount to be decreased is greater than shareholder's current position");
+        slot = insert(shareholderIndex);
+        positions[slot] = current - amount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(PositionConsumer consumer) {
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != EMPTY)
+                consumer.accept(keys[i], positions[i]);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldPositions = positions;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+public class PriceLevelQueue extends AbstractList<Order> implements RestingOrderQueue {
+    private final TreeMap<Integer, LinkedList<Order>> levels;
+    private final OrderIdMap<Location> locationByOrderId;
+    private final HashMap<Shareholder, ShareholderQuantity> quantityByShareholder;
+    private final HashMap<Broker, BrokerOrders> ordersByBroker;
+    private final Side side;
+    private final DepthCurve depthCurve;
+    private LinkedList<Order> bestLevel;
+    private int size;
+
+    private static final class Location {
+        private final Order order;
+        private final int price;
+        private int quantity;
+
+        Location(Order order, int price, int quantity) {
+            this.order = order;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        Order order() {
+            return order;
+        }
+
+        int price() {
+            return price;
+        }
+
+        int quantity() {
+            return quantity;
+        }
+    }
+
+    private static final class ShareholderQuantity {
+        private int quantity;
+    }
+
+    private static final class BrokerOrders {
+        private int count;
+    }
+
+    public PriceLevelQueue(Side side) {
+        this(side, new DepthCurve());
+    }
+
+    public PriceLevelQueue(Side side, DepthCurve depthCurve) {
+        this.side = side;
+        this.depthCurve = depthCurve;
+        Comparator<Integer> priceOrder = side == Side.BUY ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        levels = new TreeMap<>(priceOrder);
+        locationByOrderId = new OrderIdMap<>();
+        quantityByShareholder = new HashMap<>();
+        ordersByBroker = new HashMap<>();
+        size = 0;
+    }
+
+    private LinkedList<Order> levelOf(int price) {
+        int levelCount = levels.size();
+        LinkedList<Order> level = levels.computeIfAbsent(price, p -> new LinkedList<>());
+        if (levels.size() != levelCount)
+            refreshBestLevel();
+        return level;
+    }
+
+    private void dropLevelIfEmpty(int price, LinkedList<Order> level) {
+        if (level.isEmpty()) {
+            levels.remove(price);
+            refreshBestLevel();
+        }
+    }
+
+    private void refreshBestLevel() {
+        bestLevel = levels.isEmpty() ? null : levels.firstEntry().getValue();
+    }
+
+    @Override
+    public void addLast(Order order) {
+        levelOf(order.getPrice()).addLast(order);
+        index(order);
+        size++;
+    }
+
+    @Override
+    public void addFirst(Order order) {
+        levelOf(order.getPrice()).addFirst(order);
+        index(order);
+        size++;
+    }
+
+    private void index(Order order) {
+        locationByOrderId.put(order.getOrderId(), new Location(order, order.getPrice(), order.getTotalQuantity()));
+        addShareholderQuantity(order.getShareholder(), order.getTotalQuantity());
+        addBrokerOrders(order.getBroker(), 1);
+        depthCurve.add(side, order.getPrice(), order.getTotalQuantity());
+    }
+
+    private void addShareholderQuantity(Shareholder shareholder, int quantity) {
+        if (quantity == 0)
+            return;
+        ShareholderQuantity total = quantityByShareholder.computeIfAbsent(shareholder, s -> new ShareholderQuantity());
+        total.quantity += quantity;
+        if (total.quantity == 0)
+            quantityByShareholder.remove(shareholder);
+    }
+
+    private void addBrokerOrders(Broker broker, int count) {
+        BrokerOrders orders = ordersByBroker.computeIfAbsent(broker, b -> new BrokerOrders());
+        orders.count += count;
+        if (orders.count == 0)
+            ordersByBroker.remove(broker);
+    }
+
+    @Override
+    public Order getFirst() {
+        if (bestLevel == null)
+            throw new NoSuchElementException();
+        return bestLevel.getFirst();
+    }
+
+    @Override
+    public Order removeFirst() {
+        if (bestLevel == null)
+            throw new NoSuchElementException();
+        Order order = bestLevel.removeFirst();
+        dropLevelIfEmpty(levels.firstKey(), bestLevel);
+        unindex(order);
+        size--;
+        return order;
+    }
+
+    private void unindex(Order order) {
+        Location location = locationByOrderId.get(order.getOrderId());
+        if (location != null && location.order() == order) {
+            locationByOrderId.remove(order.getOrderId());
+            addShareholderQuantity(order.getShareholder(), -location.quantity());
+            addBrokerOrders(order.getBroker(), -1);
+            depthCurve.add(side, location.price(), -location.quantity());
+        }
+    }
+
+    @Override
+    public void refresh(Order order) {
+        Location location = locationByOrderId.get(order.getOrderId());
+        if (location == null || location.order() != order)
+            return;
+        addShareholderQuantity(order.getShareholder(), order.getTotalQuantity() - location.quantity());
+        depthCurve.add(side, location.price(), order.getTotalQuantity() - location.quantity());
+        location.quantity = order.getTotalQuantity();
+    }
+
+    @Override
+    public int totalQuantityByShareholder(Shareholder shareholder) {
+        ShareholderQuantity total = quantityByShareholder.get(shareholder);
+        return total == null ? 0 : total.quantity;
+    }
+
+    @Override
+    public boolean reachesOrderOfBroker(Order incoming) {
+        if (!ordersByBroker.containsKey(incoming.getBroker()))
+            return false;
+        long unreached = incoming.getQuantity();
+        for (LinkedList<Order> level : levels.values()) {
+            for (Order resting : level) {
+                if (!incoming.matches(resting))
+                    return false;
+                if (resting.getBroker() == incoming.getBroker())
+                    return true;
+                unreached -= resting.getQuantity();
+                if (unreached <= 0)
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Order findByOrderId(long orderId) {
+        Location location = locationByOrderId.get(orderId);
+        return location == null ? null : location.order();
+    }
+
+    @Override
+    public boolean containsOrderId(long orderId) {
+        return locationByOrderId.containsKey(orderId);
+    }
+
+    @Override
+    public int indexedOrderCount() {
+        return locationByOrderId.size();
+    }
+
+    @Override
+    public Order removeByOrderId(long orderId) {
+        Location location = locationByOrderId.remove(orderId);
+        if (location == null)
+            return null;
+        addShareholderQuantity(location.order().getShareholder(), -location.quantity());
+        addBrokerOrders(location.order().getBroker(), -1);
+        depthCurve.add(side, location.price(), -location.quantity());
+        LinkedList<Order> level = levels.get(location.price());
+        Iterator<Order> it = level.iterator();
+        while (it.hasNext()) {
+            if (it.next() == location.order()) {
+                it.remove();
+                break;
+            }
+        }
+        dropLevelIfEmpty(location.price(), level);
+        size--;
+        return location.order();
+    }
+
+    public Iterable<Map.Entry<Integer, LinkedList<Order>>> levels() {
+        return levels.entrySet();
+    }
+
+    @Override
+    public int levelCount() {
+        return levels.size();
+    }
+
+    @Override
+    public Order get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+        for (LinkedList<Order> level : levels.values()) {
+            if (index < level.size())
+                return level.get(index);
+            index -= level.size();
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Iterator<Order> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Map.Entry<Integer, LinkedList<Order>>> levelIt = levels.entrySet().iterator();
+            private LinkedList<Order> currentLevel = null;
+            private Iterator<Order> orderIt = null;
+            private boolean canRemove = false;
+            private Order lastReturned = null;
+
+            @Override
+            public boolean hasNext() {
+                return (orderIt != null && orderIt.hasNext()) || levelIt.hasNext();
+            }
+
+            @Override
+            public Order next() {
+                if (orderIt == null || !orderIt.hasNext()) {
+                    currentLevel = levelIt.next().getValue();
+                    orderIt = currentLevel.iterator();
+                }
+                canRemove = true;
+                lastReturned = orderIt.next();
+                return lastReturned;
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove)
+                    throw new IllegalStateException();
+                unindex(lastReturned);
+                orderIt.remove();
+                size--;
+                if (currentLevel.isEmpty()) {
+                    levelIt.remove();
+                    refreshBestLevel();
+                }
+                canRemove = false;
+            }
+        };
+    }
+}
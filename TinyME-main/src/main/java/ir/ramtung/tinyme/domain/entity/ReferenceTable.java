@@ -0,0 +1,68 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+class ReferenceTable<T> {
+    static final int NONE = -1;
+
+    private final IdentityHashMap<T, Integer> refs;
+    private Object[] values;
+    private int[] useCounts;
+    private int[] freeRefs;
+    private int freeCount;
+    private int allocated;
+
+    ReferenceTable() {
+        refs = new IdentityHashMap<>();
+        values = new Object[8];
+        useCounts = new int[8];
+        freeRefs = new int[8];
+    }
+
+    int acquire(T value) {
+        Integer ref = refs.get(value);
+        if (ref == null) {
+            ref = freeCount > 0 ? freeRefs[--freeCount] : allocate();
+            values[ref] = value;
+            refs.put(value, ref);
+        }
+        useCounts[ref]++;
+        return ref;
+    }
+
+    private int allocate() {
+        if (allocated == values.length) {
+            values = Arrays.copyOf(values, allocated * 2);
+            useCounts = Arrays.copyOf(useCounts, allocated * 2);
+            freeRefs = Arrays.copyOf(freeRefs, allocated * 2);
+        }
+        return allocated++;
+    }
+
+    void release(int ref) {
+        if (--useCounts[ref] > 0)
+            return;
+        refs.remove(values[ref]);
+        values[ref] = null;
+        freeRefs[freeCount++] = ref;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int ref) {
+        return (T) values[ref];
+    }
+
+    int find(T value) {
+        Integer ref = refs.get(value);
+        return ref == null ? NONE : ref;
+    }
+
+    int capacity() {
+        return values.length;
+    }
+
+    int size() {
+        return refs.size();
+    }
+}
@@ -0,0 +1,29 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.List;
+
+public interface RestingOrderQueue extends List<Order> {
+    void addFirst(Order order);
+
+    void addLast(Order order);
+
+    Order getFirst();
+
+    Order removeFirst();
+
+    void refresh(Order order);
+
+    Order findByOrderId(long orderId);
+
+    boolean containsOrderId(long orderId);
+
+    Order removeByOrderId(long orderId);
+
+    int totalQuantityByShareholder(Shareholder shareholder);
+
+    boolean reachesOrderOfBroker(Order incoming);
+
+    int indexedOrderCount();
+
+    int levelCount();
+}
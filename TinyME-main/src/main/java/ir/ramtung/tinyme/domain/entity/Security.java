@@ -5,6 +5,7 @@ import ir.ramtung.tinyme.messaging.exception.InvalidRequestException;
 import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
 import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.domain.service.EngineClock;
 import ir.ramtung.tinyme.messaging.Message;
 import ir.ramtung.tinyme.messaging.request.MatchingState;
 import lombok.Builder;
@@ -28,6 +29,12 @@ public class Security {
     private int lastTradedPrice = 0;
     @Builder.Default
     private MatchingState matchingState = MatchingState.CONTINUOUS;
+    @Builder.Default
+    private TradeBuffer tradeBuffer = new TradeBuffer();
+    @Builder.Default
+    private MatchResult matchResult = MatchResult.reusable();
+    @Builder.Default
+    private PositionLedger positionLedger = new PositionLedger();
 
 
     private void validateOrderForUpdate(Order order, EnterOrderRq updateOrderRq) throws InvalidRequestException {
@@ -61,8 +68,8 @@ public class Security {
     }
 
     private MatchResult handleInactiveOrder(Order order){
-        if (order.getSide()==Side.BUY)
-            order.getBroker().decreaseCreditBy(order.getValue());
+        if (order.getSide()==Side.BUY && !order.getBroker().tryDecreaseCreditBy(order.getValue()))
+            return MatchResult.notEnoughCredit();
         orderBook.enqueueToInactiveQueue(order);
         return MatchResult.inActiveOrderEnqueued();
     }
@@ -73,6 +80,12 @@ public class Security {
                         orderBook.totalSellQuantityByShareholder(shareholder) + enterOrderRq.getQuantity());
     }
 
+    private static long entryTimestampOf(EnterOrderRq enterOrderRq) {
+        if (enterOrderRq.getEntryTime() == null)
+            return enterOrderRq.getTimestamp();
+        return EngineClock.toTimestamp(enterOrderRq.getEntryTime());
+    }
+
     private MatchResult newOrderInAuctionState(EnterOrderRq enterOrderRq, Broker broker, Shareholder shareholder) throws InvalidRequestException {
         if(enterOrderRq.getStopPrice()>0)
             throw new InvalidRequestException(Message.CANT_ADD_NEW_STOP_LIMIT_ORDER_IN_AUCTION_STATE);
@@ -81,18 +94,14 @@ public class Security {
         Order order;
         if (enterOrderRq.getPeakSize() == 0)
             order = new Order(enterOrderRq.getOrderId(), this, enterOrderRq.getSide(),
-                    enterOrderRq.getQuantity(), enterOrderRq.getPrice(), broker, shareholder, enterOrderRq.getEntryTime(), OrderStatus.NEW, enterOrderRq.getMinimumExecutionQuantity());
+                    enterOrderRq.getQuantity(), enterOrderRq.getPrice(), broker, shareholder, enterOrderRq.getSequence(), entryTimestampOf(enterOrderRq), OrderStatus.NEW, enterOrderRq.getMinimumExecutionQuantity());
         else
             order = new IcebergOrder(enterOrderRq.getOrderId(), this, enterOrderRq.getSide(),
                     enterOrderRq.getQuantity(), enterOrderRq.getPrice(), broker, shareholder,
-                    enterOrderRq.getEntryTime(), enterOrderRq.getPeakSize(), OrderStatus.NEW, enterOrderRq.getMinimumExecutionQuantity());
+                    enterOrderRq.getSequence(), entryTimestampOf(enterOrderRq), enterOrderRq.getPeakSize(), OrderStatus.NEW, enterOrderRq.getMinimumExecutionQuantity());
 
-        if (order.getSide() == Side.BUY) {
-            if (!order.getBroker().hasEnoughCredit(order.getValue())) {
-                return MatchResult.notEnoughCredit();
-            }
-            order.getBroker().decreaseCreditBy(order.getValue());
-        }
+        if (order.getSide() == Side.BUY && !order.getBroker().tryDecreaseCreditBy(order.getValue()))
+            return MatchResult.notEnoughCredit();
         orderBook.enqueueToActiveQueue(order);
 
         return MatchResult.openingPriceAnnouncement();
@@ -104,15 +113,15 @@ public class Security {
         Order order;
         if (enterOrderRq.getPeakSize() == 0 && enterOrderRq.getStopPrice() == 0)
             order = new Order(enterOrderRq.getOrderId(), this, enterOrderRq.getSide(),
-                    enterOrderRq.getQuantity(), enterOrderRq.getPrice(), broker, shareholder, enterOrderRq.getEntryTime(), OrderStatus.NEW, enterOrderRq.getMinimumExecutionQuantity());
+                    enterOrderRq.getQuantity(), enterOrderRq.getPrice(), broker, shareholder, enterOrderRq.getSequence(), entryTimestampOf(enterOrderRq), OrderStatus.NEW, enterOrderRq.getMinimumExecutionQuantity());
         else if(enterOrderRq.getPeakSize() != 0)
             order = new IcebergOrder(enterOrderRq.getOrderId(), this, enterOrderRq.getSide(),
                     enterOrderRq.getQuantity(), enterOrderRq.getPrice(), broker, shareholder,
-                    enterOrderRq.getEntryTime(), enterOrderRq.getPeakSize(), OrderStatus.NEW, enterOrderRq.getMinimumExecutionQuantity());
+                    enterOrderRq.getSequence(), entryTimestampOf(enterOrderRq), enterOrderRq.getPeakSize(), OrderStatus.NEW, enterOrderRq.getMinimumExecutionQuantity());
         else {
             order = new StopLimitOrder(enterOrderRq.getOrderId(), this, enterOrderRq.getSide(),
                     enterOrderRq.getQuantity(), enterOrderRq.getPrice(), broker, shareholder,
-                    enterOrderRq.getStopPrice(),enterOrderRq.getRequestId());
+                    enterOrderRq.getSequence(), entryTimestampOf(enterOrderRq), enterOrderRq.getStopPrice(), enterOrderRq.getRequestId());
             if (!hasDealerEnoughCreditOrSecurity(order)) {
                 return (order.getSide() == Side.BUY) ? MatchResult.notEnoughCredit() : MatchResult.notEnoughPositions();
             }
@@ -206,6 +215,7 @@ public class Security {
         order.updateFromRequest(updateOrderRq);
 
         if (!losesPriority && updateOrderRq.getStopPrice() == 0) {
+            orderBook.refreshQueuedOrder(order);
             handleNoPriorityLoss(order);
             return MatchResult.executed(null, List.of());
         } else {
@@ -235,23 +245,25 @@ public class Security {
             if (!hasEnoughPositionsToUpdate(order, updateOrderRq)) {
                 return MatchResult.notEnoughPositions();
             }
+            requeueUpdatedOrder(order, updateOrderRq);
+            return MatchResult.openingPriceAnnouncement();
         }
-        else{
+
+        synchronized (order.getBroker()) {
             if(!hasEnoughCreditToUpdate(order, updateOrderRq)){
                 return MatchResult.notEnoughCredit();
             }
-        }
-
-        if (updateOrderRq.getSide() == Side.BUY) {
             increaseBrokerCredit(order);
+            requeueUpdatedOrder(order, updateOrderRq);
+            decreaseBrokerCredit(order);
         }
+        return MatchResult.openingPriceAnnouncement();
+    }
+
+    private void requeueUpdatedOrder(Order order, EnterOrderRq updateOrderRq) {
         orderBook.removeByOrderIdFromActiveQueue(order.getSide(),order.getOrderId());
         order.updateFromRequest(updateOrderRq);
-        if (updateOrderRq.getSide() == Side.BUY){
-            decreaseBrokerCredit(order);
-        }
         orderBook.enqueueToActiveQueue(order);
-        return MatchResult.openingPriceAnnouncement();
     }
 
     public MatchResult updateOrder(EnterOrderRq updateOrderRq, ContinuousMatcher continuousMatcher) throws InvalidRequestException {
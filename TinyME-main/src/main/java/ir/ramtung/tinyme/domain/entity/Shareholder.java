@@ -5,35 +5,44 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@Builder
 public class Shareholder {
+    private static final AtomicInteger nextIndex = new AtomicInteger();
+
     @Getter
     @EqualsAndHashCode.Include
     private long shareholderId;
     @Getter
     private String name;
     @Getter
-    @Builder.Default
-    private Map<Security, Integer> positions = new HashMap<>();
+    @ToString.Exclude
+    private final int index;
+
+    @Builder
+    private Shareholder(long shareholderId, String name) {
+        this.shareholderId = shareholderId;
+        this.name = name;
+        this.index = nextIndex.getAndIncrement();
+    }
 
     public void incPosition(Security security, int amount) {
         assert amount >= 0;
-        positions.put(security, positions.getOrDefault(security, 0) + amount);
+        security.getPositionLedger().increase(index, amount);
     }
 
     public void decPosition(Security security, int amount) {
         assert amount >= 0;
-        int currentPositions = positions.getOrDefault(security, 0);
-        if (currentPositions < amount)
-            throw new IllegalArgumentException("Amount to be decreased is greater than shareholder's current position");
-        positions.put(security, currentPositions - amount);
+        security.getPositionLedger().decrease(index, amount);
     }
+
+    public long getPosition(Security security) {
+        return security.getPositionLedger().positionOf(index);
+    }
+
     public boolean hasEnoughPositionsOn(Security security, int position) {
-        return positions.getOrDefault(security, 0) >= position;
+        return getPosition(security) >= position;
     }
 }
@@ -5,8 +5,6 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
-import java.time.LocalDateTime;
-
 
 @Getter
 @EqualsAndHashCode(callSuper = true)
@@ -14,6 +12,12 @@ import java.time.LocalDateTime;
 public class StopLimitOrder extends Order {
     int stopPrice;
     long requestId;
+    public StopLimitOrder(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, long entrySequence, long entryTimestamp, int stopPrice, long requestId) {
+        super(orderId, security, side, quantity, price, broker, shareholder, entrySequence, entryTimestamp, OrderStatus.NEW, 0);
+        this.stopPrice = stopPrice;
+        this.requestId = requestId;
+    }
+
     public StopLimitOrder(long orderId, Security security, Side side, int quantity, int price, Broker broker, Shareholder shareholder, int stopPrice,long requestId) {
         super(orderId, security, side, quantity, price, broker, shareholder);
         this.stopPrice = stopPrice;
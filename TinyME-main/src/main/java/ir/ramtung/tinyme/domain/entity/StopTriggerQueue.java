@@ -0,0 +1,131 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class StopTriggerQueue extends AbstractList<Order> {
+    private final TreeMap<Integer, LinkedList<Order>> levels;
+    private final HashMap<Long, Location> locationByOrderId;
+    private int size;
+
+    private record Location(Order order, int stopPrice) {}
+
+    public StopTriggerQueue(Side side) {
+        Comparator<Integer> triggerOrder = side == Side.BUY ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        levels = new TreeMap<>(triggerOrder);
+        locationByOrderId = new HashMap<>();
+        size = 0;
+    }
+
+    public void enqueue(Order order) {
+        LinkedList<Order> level = levels.computeIfAbsent(order.getStopPrice(), p -> new LinkedList<>());
+        ListIterator<Order> it = level.listIterator(level.size());
+        while (it.hasPrevious()) {
+            if (order.compareEntry(it.previous()) >= 0) {
+                it.next();
+                break;
+            }
+        }
+        it.add(order);
+        locationByOrderId.put(order.getOrderId(), new Location(order, order.getStopPrice()));
+        size++;
+    }
+
+    private NavigableMap<Integer, LinkedList<Order>> triggeredLevels(int lastTradedPrice) {
+        return levels.headMap(lastTradedPrice, true);
+    }
+
+    public boolean hasTriggered(int lastTradedPrice) {
+        return !levels.isEmpty() && levels.comparator().compare(levels.firstKey(), lastTradedPrice) <= 0;
+    }
+
+    public Order pollTriggered(int lastTradedPrice) {
+        if (!hasTriggered(lastTradedPrice))
+            return null;
+        Map.Entry<Integer, LinkedList<Order>> first = levels.firstEntry();
+        Order order = first.getValue().removeFirst();
+        if (first.getValue().isEmpty())
+            levels.remove(first.getKey());
+        locationByOrderId.remove(order.getOrderId());
+        size--;
+        return order;
+    }
+
+    public List<Order> drainTriggered(int lastTradedPrice) {
+        NavigableMap<Integer, LinkedList<Order>> triggered = triggeredLevels(lastTradedPrice);
+        if (triggered.isEmpty())
+            return Collections.emptyList();
+        LinkedList<Order> orders = new LinkedList<>();
+        for (LinkedList<Order> level : triggered.values()) {
+            for (Order order : level)
+                locationByOrderId.remove(order.getOrderId());
+            orders.addAll(level);
+        }
+        size -= orders.size();
+        triggered.clear();
+        return orders;
+    }
+
+    public Order findByOrderId(long orderId) {
+        Location location = locationByOrderId.get(orderId);
+        return location == null ? null : location.order();
+    }
+
+    public Order removeByOrderId(long orderId) {
+        Location location = locationByOrderId.remove(orderId);
+        if (location == null)
+            return null;
+        LinkedList<Order> level = levels.get(location.stopPrice());
+        Iterator<Order> it = level.iterator();
+        while (it.hasNext()) {
+            if (it.next() == location.order()) {
+                it.remove();
+                break;
+            }
+        }
+        if (level.isEmpty())
+            levels.remove(location.stopPrice());
+        size--;
+        return location.order();
+    }
+
+    public int levelCount() {
+        return levels.size();
+    }
+
+    @Override
+    public Order get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+        for (LinkedList<Order> level : levels.values()) {
+            if (index < level.size())
+                return level.get(index);
+            index -= level.size();
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Iterator<Order> iterator() {
+        return levels.values().stream().flatMap(List::stream).iterator();
+    }
+}
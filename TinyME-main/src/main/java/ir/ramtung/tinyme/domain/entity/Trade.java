@@ -1,34 +1,72 @@
 package ir.ramtung.tinyme.domain.entity;
 
-import lombok.Builder;
-import lombok.EqualsAndHashCode;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.ToString;
 
-@Builder
 @Getter
-@EqualsAndHashCode
 @ToString
 public class Trade {
-    Security security;
+    private Security security;
     private int price;
     private int quantity;
-    private Order buy;
-    private Order sell;
+    private long buyOrderId;
+    private long sellOrderId;
+    private Broker buyBroker;
+    private Broker sellBroker;
+    private Shareholder buyShareholder;
+    private Shareholder sellShareholder;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private Order restingOrder;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int restingQuantityBeforeTrade;
+
+    Trade() {
+    }
 
     public Trade(Security security, int price, int quantity, Order order1, Order order2) {
+        set(security, price, quantity, order1, order2);
+    }
+
+    void set(Security security, int price, int quantity, Order incoming, Order resting) {
         this.security = security;
         this.price = price;
         this.quantity = quantity;
-        Order snapshot1 = order1.snapshot();
-        Order snapshot2 = order2.snapshot();
-        if (order1.getSide() == Side.BUY) {
-            this.buy = snapshot1;
-            this.sell = snapshot2;
-        } else {
-            this.buy = snapshot2;
-            this.sell = snapshot1;
-        }
+        Order buy = incoming.getSide() == Side.BUY ? incoming : resting;
+        Order sell = incoming.getSide() == Side.BUY ? resting : incoming;
+        this.buyOrderId = buy.getOrderId();
+        this.sellOrderId = sell.getOrderId();
+        this.buyBroker = buy.getBroker();
+        this.sellBroker = sell.getBroker();
+        this.buyShareholder = buy.getShareholder();
+        this.sellShareholder = sell.getShareholder();
+        this.restingOrder = resting;
+        this.restingQuantityBeforeTrade = resting.getTotalQuantity();
+    }
+
+    Trade copy() {
+        Trade copy = new Trade();
+        copy.security = security;
+        copy.price = price;
+        copy.quantity = quantity;
+        copy.buyOrderId = buyOrderId;
+        copy.sellOrderId = sellOrderId;
+        copy.buyBroker = buyBroker;
+        copy.sellBroker = sellBroker;
+        copy.buyShareholder = buyShareholder;
+        copy.sellShareholder = sellShareholder;
+        return copy;
+    }
+
+    void release() {
+        security = null;
+        buyBroker = null;
+        sellBroker = null;
+        buyShareholder = null;
+        sellShareholder = null;
+        restingOrder = null;
     }
 
     public long getTradedValue() {
@@ -36,15 +74,27 @@ public class Trade {
     }
 
     public void increaseSellersCredit() {
-        sell.getBroker().increaseCreditBy(getTradedValue());
+        sellBroker.increaseCreditBy(getTradedValue());
     }
 
     public void decreaseBuyersCredit() {
-        buy.getBroker().decreaseCreditBy(getTradedValue());
+        buyBroker.decreaseCreditBy(getTradedValue());
+    }
+
+    public boolean tryDecreaseBuyersCredit() {
+        return buyBroker.tryDecreaseCreditBy(getTradedValue());
     }
 
     public boolean buyerHasEnoughCredit() {
-        return buy.getBroker().hasEnoughCredit(getTradedValue());
+        return buyBroker.hasEnoughCredit(getTradedValue());
     }
 
+    public void updatePositions() {
+        buyShareholder.incPosition(security, quantity);
+        sellShareholder.decPosition(security, quantity);
+    }
+
+    public void undoOn(OrderBook orderBook) {
+        orderBook.restoreOrder(restingOrder, restingQuantityBeforeTrade);
+    }
 }
@@ -0,0 +1,55 @@
+package ir.ramtung.tinyme.domain.entity;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+public class TradeBuffer extends AbstractList<Trade> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Trade[] trades;
+    private int size;
+    private int generation;
+
+    public TradeBuffer() {
+        trades = new Trade[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    public Trade append(Security security, int price, int quantity, Order incoming, Order resting) {
+        if (size == trades.length)
+            trades = Arrays.copyOf(trades, size * 2);
+        if (trades[size] == null)
+            trades[size] = new Trade();
+        Trade trade = trades[size++];
+        trade.set(security, price, quantity, incoming, resting);
+        return trade;
+    }
+
+    public Trade getLast() {
+        return get(size - 1);
+    }
+
+    @Override
+    public Trade get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return trades[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            trades[i].release();
+        size = 0;
+        generation++;
+    }
+
+    int generation() {
+        return generation;
+    }
+}
@@ -0,0 +1,138 @@
+package ir.ramtung.tinyme.domain.service;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.messaging.EventSink;
+import ir.ramtung.tinyme.messaging.TradeDTO;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.OrderActivatedEvent;
+import ir.ramtung.tinyme.messaging.event.OrderExecutedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+@Service
+public class ActivationCascade {
+    public record Stats(int rounds, int activatedOrders, long elapsedNanos, boolean truncated) {}
+
+    private final Logger log = Logger.getLogger(this.getClass().getName());
+    private final ContinuousMatcher continuousMatcher;
+    private final int maxRounds;
+    private final LongAdder cascadeCount = new LongAdder();
+    private final LongAdder activatedOrderCount = new LongAdder();
+    private final LongAdder truncatedCascadeCount = new LongAdder();
+    private final AtomicInteger deepestCascade = new AtomicInteger();
+    private final AtomicLong longestCascadeNanos = new AtomicLong();
+    private final Set<Security> truncatedSecurities = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ActivationCascade(ContinuousMatcher continuousMatcher, @Value("${stopCascade.maxRounds:0}") int maxRounds) {
+        this.continuousMatcher = continuousMatcher;
+        this.maxRounds = maxRounds;
+    }
+
+    public ActivationCascade(ContinuousMatcher continuousMatcher) {
+        this(continuousMatcher, 0);
+    }
+
+    public Stats run(Security security, List<Side> sides, long timestamp, EventSink sink) {
+        long start = System.nanoTime();
+        OrderBook orderBook = security.getOrderBook();
+        List<Event> events = new ArrayList<>();
+        int rounds = 0;
+        int activated = 0;
+        while (maxRounds == 0 || rounds < maxRounds) {
+            List<Order> triggered = new ArrayList<>();
+            for (Side side : sides)
+                triggered.addAll(orderBook.dequeueTriggeredOrders(side, security.getLastTradedPrice()));
+            if (triggered.isEmpty())
+                break;
+            rounds++;
+            activated += triggered.size();
+            for (Order order : triggered)
+                execute(order, timestamp, events);
+        }
+        boolean truncated = rounds == maxRounds && hasTriggeredOrders(security, sides);
+        if (truncated)
+            truncatedSecurities.add(security);
+        else if (!truncatedSecurities.isEmpty() && sides.size() == Side.values().length)
+            truncatedSecurities.remove(security);
+        events.forEach(sink::publish);
+        Stats stats = new Stats(rounds, activated, System.nanoTime() - start, truncated);
+        record(security, stats);
+        return stats;
+    }
+
+    /**
+     * Continues a cascade that an earlier request left at the round cap, on both sides, so
+     * that stop orders whose price was already crossed do not wait for a same-side request.
+     */
+    public void resume(Security security, long timestamp, EventSink sink) {
+        if (!truncatedSecurities.isEmpty() && truncatedSecurities.contains(security))
+            run(security, List.of(Side.values()), timestamp, sink);
+    }
+
+    private boolean hasTriggeredOrders(Security security, List<Side> sides) {
+        for (Side side : sides)
+            if (security.getOrderBook().hasTriggeredOrders(side, security.getLastTradedPrice()))
+                return true;
+        return false;
+    }
+
+    private void execute(Order order, long timestamp, List<Event> events) {
+        if (order.getSide() == Side.BUY)
+            order.getBroker().increaseCreditBy(order.getValue());
+        MatchResult matchResult = continuousMatcher.execute(order);
+        long requestId = ((StopLimitOrder) order).getRequestId();
+        if (matchResult.outcome() != MatchingOutcome.INACTIVE_ORDER_ENQUEUED)
+            events.add(stamped(new OrderActivatedEvent(requestId, order.getOrderId()), timestamp));
+        if (!matchResult.trades().isEmpty())
+            events.add(stamped(new OrderExecutedEvent(requestId, order.getOrderId(), TradeDTO.listOf(matchResult.trades())), timestamp));
+    }
+
+    private static Event stamped(Event event, long timestamp) {
+        event.setTimestamp(timestamp);
+        return event;
+    }
+
+    private void record(Security security, Stats stats) {
+        if (stats.rounds() == 0)
+            return;
+        cascadeCount.increment();
+        activatedOrderCount.add(stats.activatedOrders());
+        deepestCascade.accumulateAndGet(stats.rounds(), Math::max);
+        longestCascadeNanos.accumulateAndGet(stats.elapsedNanos(), Math::max);
+        if (stats.truncated()) {
+            truncatedCascadeCount.increment();
+            log.warning("Stop-order cascade on " + security.getIsin() + " stopped after " + stats.rounds() + " rounds");
+        }
+    }
+
+    public long getCascadeCount() {
+        return cascadeCount.sum();
+    }
+
+    public long getActivatedOrderCount() {
+        return activatedOrderCount.sum();
+    }
+
+    public long getTruncatedCascadeCount() {
+        return truncatedCascadeCount.sum();
+    }
+
+    public int getDeepestCascade() {
+        return deepestCascade.get();
+    }
+
+    public long getLongestCascadeNanos() {
+        return longestCascadeNanos.get();
+    }
+}
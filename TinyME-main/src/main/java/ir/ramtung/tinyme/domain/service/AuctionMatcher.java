@@ -3,27 +3,27 @@ package ir.ramtung.tinyme.domain.service;
 import ir.ramtung.tinyme.domain.entity.*;
 import org.springframework.stereotype.Service;
 
-import java.util.LinkedList;
-
 @Service
 public class AuctionMatcher{
-    public LinkedList<Trade> match(Order newOrder, int openingPrice)  {
+    public int match(Order newOrder, int openingPrice)  {
         OrderBook orderBook = newOrder.getSecurity().getOrderBook();
-        LinkedList<Trade> trades = new LinkedList<>();
+        TradeBuffer trades = newOrder.getSecurity().getTradeBuffer();
+        int tradeCount = 0;
         while (!orderBook.getSellQueue().isEmpty() && newOrder.getQuantity() > 0) {
             Order matchingOrder = orderBook.getSellQueue().getFirst();
             if (matchingOrder.getPrice()>openingPrice)
                 break;
 
-            Trade trade = new Trade(newOrder.getSecurity(), openingPrice, Math.min(newOrder.getQuantity(), matchingOrder.getQuantity()), newOrder, matchingOrder);
+            Trade trade = trades.append(newOrder.getSecurity(), openingPrice, Math.min(newOrder.getQuantity(), matchingOrder.getQuantity()), newOrder, matchingOrder);
             if (newOrder.getSide() == Side.BUY)
                 newOrder.getBroker().increaseCreditBy((long) trade.getQuantity() * (newOrder.getPrice() - openingPrice));
 
             trade.increaseSellersCredit();
-            trades.add(trade);
+            tradeCount++;
 
             if (newOrder.getQuantity() >= matchingOrder.getQuantity()) {
                 newOrder.decreaseQuantity(matchingOrder.getQuantity());
+                orderBook.refreshQueuedOrder(newOrder);
                 orderBook.removeFirst(Side.SELL);
                 if (matchingOrder instanceof IcebergOrder icebergOrder) {
                     icebergOrder.decreaseQuantity(matchingOrder.getQuantity());
@@ -34,46 +34,45 @@ public class AuctionMatcher{
             }
             else {
                 matchingOrder.decreaseQuantity(newOrder.getQuantity());
+                orderBook.refreshQueuedOrder(matchingOrder);
+                newOrder.decreaseQuantity(newOrder.getQuantity());
+            }
+            if (newOrder.getQuantity() == 0) {
                 orderBook.removeFirst(Side.BUY);
                 if (newOrder instanceof IcebergOrder icebergOrder) {
-                    icebergOrder.decreaseQuantity(newOrder.getQuantity());
                     icebergOrder.replenish();
                     if (icebergOrder.getQuantity() > 0)
                         orderBook.enqueueToActiveQueue(icebergOrder);
                 }
-                else
-                    newOrder.makeQuantityZero();
+                break;
             }
         }
-        return trades;
+        return tradeCount;
     }
 
-    public LinkedList<Trade> executeForOneOrder(Order order, int openingPrice) {
-        LinkedList<Trade> trades = match(order, openingPrice);
-        if(!trades.isEmpty()){
+    public int executeForOneOrder(Order order, int openingPrice) {
+        TradeBuffer trades = order.getSecurity().getTradeBuffer();
+        int tradeCount = match(order, openingPrice);
+        if(tradeCount > 0){
             order.getSecurity().setLastTradedPrice(trades.getLast().getPrice());
         }
-        for (Trade trade : trades) {
-            trade.getBuy().getShareholder().incPosition(trade.getSecurity(), trade.getQuantity());
-            trade.getSell().getShareholder().decPosition(trade.getSecurity(), trade.getQuantity());
-        }
-        return trades;
+        for (int i = trades.size() - tradeCount; i < trades.size(); i++)
+            trades.get(i).updatePositions();
+        return tradeCount;
     }
     public MatchResult execute(Security security) {
-        LinkedList<Trade> allTrades = new LinkedList<>();
+        TradeBuffer allTrades = security.getTradeBuffer();
+        allTrades.clear();
         int openingPrice = security.calculateOpeningPrice();
         while(!security.getOrderBook().getBuyQueue().isEmpty()){
             Order buyOrder = security.getOrderBook().getBuyQueue().getFirst();
             if(buyOrder.getPrice()>=openingPrice){
-                LinkedList<Trade> trades = executeForOneOrder(buyOrder, openingPrice);
-                if(trades.isEmpty())
+                if(executeForOneOrder(buyOrder, openingPrice) == 0)
                     break;
-                else
-                    allTrades.addAll(trades);
             }
             else
                 break;
         }
-        return MatchResult.auctionMatchCompleted(allTrades);
+        return security.getMatchResult().recordAuctionMatchCompleted(allTrades);
     }
 }
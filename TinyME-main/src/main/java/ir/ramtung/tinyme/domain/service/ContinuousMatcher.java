@@ -3,31 +3,59 @@ package ir.ramtung.tinyme.domain.service;
 import ir.ramtung.tinyme.domain.entity.*;
 import org.springframework.stereotype.Service;
 
-import java.util.LinkedList;
-import java.util.ListIterator;
+import java.util.List;
 
 @Service
 public class ContinuousMatcher {
-    public MatchResult match(Order newOrder)  {
+    public MatchResult match(Order newOrder) {
+        return match(newOrder, newOrder.getSecurity().getMatchResult());
+    }
+
+    public MatchResult match(Order newOrder, MatchResult result) {
+        MatchResult rejection = rejectionBeforeMatching(newOrder, false);
+        if (rejection != null)
+            return rejection;
+        return matchAgainstBook(newOrder, result);
+    }
+
+    private MatchResult rejectionBeforeMatching(Order newOrder, boolean withRemainder) {
+        OrderBook orderBook = newOrder.getSecurity().getOrderBook();
+        long executable = Math.min(newOrder.getQuantity(), orderBook.quantityMatchableBy(newOrder));
+        boolean belowMinimum = executable < newOrder.getMinimumExpectedQuantity() && newOrder.getStatus() != OrderStatus.UPDATING;
+        if (newOrder.getSide() == Side.SELL)
+            return belowMinimum ? MatchResult.minimumQuantityInsufficient() : null;
+
+        long credit = newOrder.getBroker().getCredit();
+        long tradesCost = orderBook.costOfBuying(executable);
+        if (tradesCost <= credit) {
+            if (belowMinimum)
+                return MatchResult.minimumQuantityInsufficient();
+            if (!withRemainder || tradesCost + (long) newOrder.getPrice() * (newOrder.getQuantity() - executable) <= credit)
+                return null;
+        }
+        if (orderBook.hasMatchableOrderFromBroker(newOrder))
+            return null;
+        return MatchResult.notEnoughCredit();
+    }
+
+    private MatchResult matchAgainstBook(Order newOrder, MatchResult result) {
         OrderBook orderBook = newOrder.getSecurity().getOrderBook();
-        LinkedList<Trade> trades = new LinkedList<>();
+        TradeBuffer trades = newOrder.getSecurity().getTradeBuffer();
+        trades.clear();
         int saveInitNewOrderQuantity = newOrder.getQuantity();
         while (orderBook.hasOrderOfType(newOrder.getSide().opposite()) && newOrder.getQuantity() > 0) {
             Order matchingOrder = orderBook.matchWithFirst(newOrder);
             if (matchingOrder == null)
                 break;
 
-            Trade trade = new Trade(newOrder.getSecurity(), matchingOrder.getPrice(), Math.min(newOrder.getQuantity(), matchingOrder.getQuantity()), newOrder, matchingOrder);
+            Trade trade = trades.append(newOrder.getSecurity(), matchingOrder.getPrice(), Math.min(newOrder.getQuantity(), matchingOrder.getQuantity()), newOrder, matchingOrder);
             if (newOrder.getSide() == Side.BUY) {
-                if (trade.buyerHasEnoughCredit())
-                    trade.decreaseBuyersCredit();
-                else {
-                    rollbackTrades(newOrder, trades);
+                if (!trade.tryDecreaseBuyersCredit()) {
+                    rollbackTrades(newOrder, trades.subList(0, trades.size() - 1));
                     return MatchResult.notEnoughCredit();
                 }
             }
             trade.increaseSellersCredit();
-            trades.add(trade);
 
             if (newOrder.getQuantity() >= matchingOrder.getQuantity()) {
                 newOrder.decreaseQuantity(matchingOrder.getQuantity());
@@ -40,6 +68,7 @@ public class ContinuousMatcher {
                 }
             } else {
                 matchingOrder.decreaseQuantity(newOrder.getQuantity());
+                orderBook.refreshQueuedOrder(matchingOrder);
                 newOrder.makeQuantityZero();
             }
         }
@@ -47,28 +76,33 @@ public class ContinuousMatcher {
             rollbackTrades(newOrder, trades);
             return MatchResult.minimumQuantityInsufficient();
         }
-        return MatchResult.executed(newOrder, trades);
+        return result.recordExecuted(newOrder, trades);
     }
 
-    private void rollbackTradesForBuyOrder(Order newOrder, LinkedList<Trade> trades) {
-        newOrder.getBroker().increaseCreditBy(trades.stream().mapToLong(Trade::getTradedValue).sum());
-        trades.forEach(trade -> trade.getSell().getBroker().decreaseCreditBy(trade.getTradedValue()));
-
-        ListIterator<Trade> it = trades.listIterator(trades.size());
-        while (it.hasPrevious()) {
-            newOrder.getSecurity().getOrderBook().restoreOrder(it.previous().getSell());
-        }
+    private void rollbackTradesForBuyOrder(Order newOrder, List<Trade> trades) {
+        newOrder.getBroker().increaseCreditBy(totalTradedValue(trades));
+        for (Trade trade : trades)
+            trade.getSellBroker().decreaseCreditBy(trade.getTradedValue());
+        undoTrades(newOrder, trades);
     }
-    private void rollbackTradesForSellOrder(Order newOrder, LinkedList<Trade> trades) {
-        newOrder.getBroker().decreaseCreditBy(trades.stream().mapToLong(Trade::getTradedValue).sum());
-        trades.forEach(trade -> trade.getBuy().getBroker().increaseCreditBy(trade.getTradedValue()));
-
-        ListIterator<Trade> it = trades.listIterator(trades.size());
-        while (it.hasPrevious()) {
-            newOrder.getSecurity().getOrderBook().restoreOrder(it.previous().getBuy());
-        }
+    private void rollbackTradesForSellOrder(Order newOrder, List<Trade> trades) {
+        newOrder.getBroker().decreaseCreditBy(totalTradedValue(trades));
+        for (Trade trade : trades)
+            trade.getBuyBroker().increaseCreditBy(trade.getTradedValue());
+        undoTrades(newOrder, trades);
     }
-    private void rollbackTrades(Order newOrder, LinkedList<Trade> trades) {
+    private long totalTradedValue(List<Trade> trades) {
+        long total = 0;
+        for (Trade trade : trades)
+            total += trade.getTradedValue();
+        return total;
+    }
+    private void undoTrades(Order newOrder, List<Trade> trades) {
+        OrderBook orderBook = newOrder.getSecurity().getOrderBook();
+        for (int i = trades.size() - 1; i >= 0; i--)
+            trades.get(i).undoOn(orderBook);
+    }
+    private void rollbackTrades(Order newOrder, List<Trade> trades) {
         if(newOrder.getSide()==Side.SELL){
             rollbackTradesForSellOrder(newOrder, trades);
         }
@@ -78,29 +112,34 @@ public class ContinuousMatcher {
     }
 
     public MatchResult execute(Order order) {
-        MatchResult result = match(order);
+        return execute(order, order.getSecurity().getMatchResult());
+    }
+
+    public MatchResult execute(Order order, MatchResult reusableResult) {
+        MatchResult rejection = rejectionBeforeMatching(order, true);
+        if (rejection != null)
+            return rejection;
+        MatchResult result = matchAgainstBook(order, reusableResult);
         if (result.outcome() == MatchingOutcome.NOT_ENOUGH_CREDIT || result.outcome() == MatchingOutcome.MINIMUM_QUANTITY_INSUFFICIENT)
             return result;
 
         if (result.remainder().getQuantity() > 0) {
             if (order.getSide() == Side.BUY) {
-                if (!order.getBroker().hasEnoughCredit(order.getValue())) {
+                if (!order.getBroker().tryDecreaseCreditBy(order.getValue())) {
                     rollbackTrades(order, result.trades());
                     return MatchResult.notEnoughCredit();
                 }
-                order.getBroker().decreaseCreditBy(order.getValue());
             }
             order.getSecurity().getOrderBook().enqueueToActiveQueue(result.remainder());
         }
 
         if(!result.trades().isEmpty()){
-            order.getSecurity().setLastTradedPrice(result.trades().getLast().getPrice());
+            order.getSecurity().setLastTradedPrice(result.trades().get(result.trades().size() - 1).getPrice());
         }
 
-        for (Trade trade : result.trades()) {
-            trade.getBuy().getShareholder().incPosition(trade.getSecurity(), trade.getQuantity());
-            trade.getSell().getShareholder().decPosition(trade.getSecurity(), trade.getQuantity());
-        }
+        List<Trade> trades = result.trades();
+        for (int i = 0; i < trades.size(); i++)
+            trades.get(i).updatePositions();
         return result;
     }
 
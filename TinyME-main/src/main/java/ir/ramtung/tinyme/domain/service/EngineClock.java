@@ -0,0 +1,109 @@
+package ir.ramtung.tinyme.domain.service;
+
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class EngineClock {
+    public static final long NO_TIME = Long.MIN_VALUE;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final ThreadLocal<Stamp> current = ThreadLocal.withInitial(Stamp::new);
+
+    private static final class Stamp {
+        long sequence;
+        long timestamp = NO_TIME;
+        boolean replayed;
+    }
+
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final AtomicLong lastTimestamp = new AtomicLong(NO_TIME);
+    private final long originEpochNanos;
+    private final long originNanoTime;
+
+    public EngineClock() {
+        Instant origin = Instant.now();
+        originNanoTime = System.nanoTime();
+        originEpochNanos = origin.getEpochSecond() * NANOS_PER_SECOND + origin.getNano();
+    }
+
+    public long nextSequence() {
+        return lastSequence.incrementAndGet();
+    }
+
+    public long nextTimestamp() {
+        long now = originEpochNanos + (System.nanoTime() - originNanoTime);
+        return lastTimestamp.accumulateAndGet(now, (last, next) -> Math.max(last + 1, next));
+    }
+
+    private void advanceTo(long sequence, long timestamp) {
+        lastSequence.accumulateAndGet(sequence, Math::max);
+        lastTimestamp.accumulateAndGet(timestamp, Math::max);
+    }
+
+    private Stamp next() {
+        Stamp stamp = current.get();
+        if (stamp.replayed) {
+            stamp.replayed = false;
+            advanceTo(stamp.sequence, stamp.timestamp);
+        } else {
+            stamp.sequence = nextSequence();
+            stamp.timestamp = nextTimestamp();
+        }
+        return stamp;
+    }
+
+    public void stamp(EnterOrderRq enterOrderRq) {
+        Stamp stamp = next();
+        enterOrderRq.setSequence(stamp.sequence);
+        enterOrderRq.setTimestamp(stamp.timestamp);
+    }
+
+    public void stamp(DeleteOrderRq deleteOrderRq) {
+        Stamp stamp = next();
+        deleteOrderRq.setSequence(stamp.sequence);
+        deleteOrderRq.setTimestamp(stamp.timestamp);
+    }
+
+    public void stamp(ChangeMatchingStateRq changeMatchingStateRq) {
+        Stamp stamp = next();
+        changeMatchingStateRq.setSequence(stamp.sequence);
+        changeMatchingStateRq.setTimestamp(stamp.timestamp);
+    }
+
+    /**
+     * Runs the handling of a journaled request so that the request is stamped with the
+     * sequence and timestamp it was originally given instead of fresh ones. Stamps carried
+     * by request objects themselves are never trusted.
+     */
+    public static void replay(long sequence, long timestamp, Runnable handling) {
+        Stamp stamp = current.get();
+        stamp.sequence = sequence;
+        stamp.timestamp = timestamp;
+        stamp.replayed = true;
+        try {
+            handling.run();
+        } finally {
+            stamp.replayed = false;
+        }
+    }
+
+    public static long toTimestamp(LocalDateTime time) {
+        if (time == null)
+            return NO_TIME;
+        return time.atZone(ZONE).toEpochSecond() * NANOS_PER_SECOND + time.getNano();
+    }
+
+    public static LocalDateTime toLocalDateTime(long timestamp) {
+        if (timestamp == NO_TIME)
+            return null;
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(Math.floorDiv(timestamp, NANOS_PER_SECOND), Math.floorMod(timestamp, NANOS_PER_SECOND)), ZONE);
+    }
+}
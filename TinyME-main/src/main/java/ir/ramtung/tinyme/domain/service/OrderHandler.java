@@ -2,219 +2,308 @@ package ir.ramtung.tinyme.domain.service;
 
 import ir.ramtung.tinyme.domain.entity.*;
 import ir.ramtung.tinyme.messaging.Message;
+import ir.ramtung.tinyme.messaging.RejectionReason;
 import ir.ramtung.tinyme.messaging.exception.InvalidRequestException;
 import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.EventSink;
+import ir.ramtung.tinyme.messaging.RequestLog;
 import ir.ramtung.tinyme.messaging.TradeDTO;
 import ir.ramtung.tinyme.messaging.event.*;
 import ir.ramtung.tinyme.messaging.request.*;
 import ir.ramtung.tinyme.repository.BrokerRepository;
 import ir.ramtung.tinyme.repository.SecurityRepository;
 import ir.ramtung.tinyme.repository.ShareholderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.logging.Logger;
 
 @Service
 public class OrderHandler {
+    private final Logger log = Logger.getLogger(this.getClass().getName());
     SecurityRepository securityRepository;
     BrokerRepository brokerRepository;
     ShareholderRepository shareholderRepository;
     EventPublisher eventPublisher;
     ContinuousMatcher continuousMatcher;
     AuctionMatcher auctionMatcher;
+    ActivationCascade activationCascade;
+    EngineClock engineClock;
+    RequestValidator requestValidator;
+    volatile RequestLog requestLog = RequestLog.NONE;
+    private static final List<Side> BOTH_SIDES = List.of(Side.BUY, Side.SELL);
+    private final Object unknownSecurityLock = new Object();
+    private final Object journalLock = new Object();
+    private final ThreadLocal<RequestContext> contexts = ThreadLocal.withInitial(RequestContext::new);
 
-    public OrderHandler(SecurityRepository securityRepository, BrokerRepository brokerRepository, ShareholderRepository shareholderRepository, EventPublisher eventPublisher, ContinuousMatcher continuousMatcher, AuctionMatcher auctionMatcher) {
+    @Autowired
+    public OrderHandler(SecurityRepository securityRepository, BrokerRepository brokerRepository, ShareholderRepository shareholderRepository, EventPublisher eventPublisher, ContinuousMatcher continuousMatcher, AuctionMatcher auctionMatcher, ActivationCascade activationCascade, EngineClock engineClock) {
         this.securityRepository = securityRepository;
         this.brokerRepository = brokerRepository;
         this.shareholderRepository = shareholderRepository;
         this.eventPublisher = eventPublisher;
         this.continuousMatcher = continuousMatcher;
         this.auctionMatcher = auctionMatcher;
+        this.activationCascade = activationCascade;
+        this.engineClock = engineClock;
+        this.requestValidator = new RequestValidator(securityRepository, brokerRepository, shareholderRepository);
+    }
+
+    public OrderHandler(SecurityRepository securityRepository, BrokerRepository brokerRepository, ShareholderRepository shareholderRepository, EventPublisher eventPublisher, ContinuousMatcher continuousMatcher, AuctionMatcher auctionMatcher) {
+        this(securityRepository, brokerRepository, shareholderRepository, eventPublisher, continuousMatcher, auctionMatcher, new ActivationCascade(continuousMatcher), new EngineClock());
+    }
+
+    public void setRequestLog(RequestLog requestLog) {
+        this.requestLog = requestLog;
+    }
+
+    public boolean isJournaling() {
+        return requestLog != RequestLog.NONE;
+    }
+
+    private static class BatchSink implements EventSink {
+        private final EventSink delegate;
+        private final LinkedHashMap<Security, Long> pendingOpeningPrices = new LinkedHashMap<>();
+
+        BatchSink(EventSink delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void publish(Event event) {
+            delegate.publish(event);
+        }
+    }
+
+    private static void publish(EventSink sink, Event event, long timestamp) {
+        event.setTimestamp(timestamp);
+        sink.publish(event);
+    }
+
+    private void publishOpeningPrice(Security security, long timestamp, EventSink sink){
+        if (sink instanceof BatchSink batch) {
+            batch.pendingOpeningPrices.put(security, timestamp);
+            return;
+        }
+        publishOpeningPriceNow(security, timestamp, sink);
     }
 
-    private void publishOpeningPrice(String securityIsin){
-        int openingPrice = securityRepository.findSecurityByIsin(securityIsin).calculateOpeningPrice();
-        int tradableQuantity = securityRepository.findSecurityByIsin(securityIsin).calculateTradableQuantity(openingPrice);
-        eventPublisher.publish(new OpeningPriceEvent(LocalDateTime.now(),securityIsin,openingPrice,tradableQuantity));
+    private void publishOpeningPriceNow(Security security, long timestamp, EventSink sink){
+        int openingPrice = security.calculateOpeningPrice();
+        int tradableQuantity = security.calculateTradableQuantity(openingPrice);
+        sink.publish(new OpeningPriceEvent(EngineClock.toLocalDateTime(timestamp),security.getIsin(),openingPrice,tradableQuantity));
     }
 
-    private void publishEvent(MatchResult matchResult, EnterOrderRq enterOrderRq){
+    private void publishEvent(MatchResult matchResult, EnterOrderRq enterOrderRq, Security security, EventSink sink){
         if (matchResult.outcome() == MatchingOutcome.NOT_ENOUGH_CREDIT) {
-            eventPublisher.publish(new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), List.of(Message.BUYER_HAS_NOT_ENOUGH_CREDIT)));
+            publish(sink, new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), List.of(Message.BUYER_HAS_NOT_ENOUGH_CREDIT)), enterOrderRq.getTimestamp());
             return;
         }
         if (matchResult.outcome() == MatchingOutcome.NOT_ENOUGH_POSITIONS) {
-            eventPublisher.publish(new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), List.of(Message.SELLER_HAS_NOT_ENOUGH_POSITIONS)));
+            publish(sink, new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), List.of(Message.SELLER_HAS_NOT_ENOUGH_POSITIONS)), enterOrderRq.getTimestamp());
             return;
         }
         if (matchResult.outcome() == MatchingOutcome.MINIMUM_QUANTITY_INSUFFICIENT) {
-            eventPublisher.publish(new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), List.of(Message.MINIMUM_QUANTITY_INSUFFICIENT)));
+            publish(sink, new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), List.of(Message.MINIMUM_QUANTITY_INSUFFICIENT)), enterOrderRq.getTimestamp());
             return;
         }
         if (enterOrderRq.getRequestType() == OrderEntryType.NEW_ORDER)
-            eventPublisher.publish(new OrderAcceptedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId()));
+            publish(sink, new OrderAcceptedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId()), enterOrderRq.getTimestamp());
         else
-            eventPublisher.publish(new OrderUpdatedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId()));
+            publish(sink, new OrderUpdatedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId()), enterOrderRq.getTimestamp());
         if(matchResult.outcome() != MatchingOutcome.INACTIVE_ORDER_ENQUEUED && enterOrderRq.getStopPrice()>0){
-            eventPublisher.publish(new OrderActivatedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId()));
+            publish(sink, new OrderActivatedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId()), enterOrderRq.getTimestamp());
         }
         if(matchResult.outcome()==MatchingOutcome.OPENING_PRICE_ANNOUNCEMENT)
-            publishOpeningPrice(enterOrderRq.getSecurityIsin());
+            publishOpeningPrice(security, enterOrderRq.getTimestamp(), sink);
         if (!matchResult.trades().isEmpty()) {
-            eventPublisher.publish(new OrderExecutedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), matchResult.trades().stream().map(TradeDTO::new).collect(Collectors.toList())));
+            publish(sink, new OrderExecutedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), TradeDTO.listOf(matchResult.trades())), enterOrderRq.getTimestamp());
         }
     }
 
-    private void publishEventForActivatedOrder(MatchResult matchResult, Order order){
-        if(matchResult.outcome() != MatchingOutcome.INACTIVE_ORDER_ENQUEUED && order.getStopPrice()>0){
-            eventPublisher.publish(new OrderActivatedEvent(((StopLimitOrder)order).getRequestId(), order.getOrderId()));
-        }
-        if (!matchResult.trades().isEmpty()) {
-            eventPublisher.publish(new OrderExecutedEvent(((StopLimitOrder)order).getRequestId(), order.getOrderId(), matchResult.trades().stream().map(TradeDTO::new).collect(Collectors.toList())));
-        }
-    }
-
-    private void publishEventForChangeState(MatchResult matchResult,ChangeMatchingStateRq changeMatchingStateRq){
-        eventPublisher.publish(new SecurityStateChangedEvent(LocalDateTime.now(),changeMatchingStateRq.getSecurityIsin(),changeMatchingStateRq.getTargetState()));
+    private void publishEventForChangeState(MatchResult matchResult,ChangeMatchingStateRq changeMatchingStateRq, EventSink sink){
+        LocalDateTime time = EngineClock.toLocalDateTime(changeMatchingStateRq.getTimestamp());
+        sink.publish(new SecurityStateChangedEvent(time,changeMatchingStateRq.getSecurityIsin(),changeMatchingStateRq.getTargetState()));
 
         if (matchResult != null){
             for(Trade trade: matchResult.trades()){
-                eventPublisher.publish(new TradeEvent(LocalDateTime.now(),changeMatchingStateRq.getSecurityIsin(),trade.getPrice(), trade.getQuantity(), trade.getBuy().getOrderId(),trade.getSell().getOrderId()));
+                sink.publish(new TradeEvent(time,changeMatchingStateRq.getSecurityIsin(),trade.getPrice(), trade.getQuantity(), trade.getBuyOrderId(),trade.getSellOrderId()));
             }
         }
     }
-    private void executePossibleInactiveOrders(Security security,Side side) {
-        while (true) {
-            Order orderToBeExecute = security.getOrderBook().dequeueFromInactiveQueue(side, security.getLastTradedPrice());
-            if (orderToBeExecute == null)
-                break;
-            if (orderToBeExecute.getSide() == Side.BUY) {
-                orderToBeExecute.getBroker().increaseCreditBy(orderToBeExecute.getValue());
-            }
-            MatchResult matchResult = continuousMatcher.execute(orderToBeExecute);
-            publishEventForActivatedOrder(matchResult, orderToBeExecute);
+    private void activatePossibleInactiveOrders(Security security, long timestamp, EventSink sink){
+        OrderBook orderBook = security.getOrderBook();
+        Iterator<Order> sellOrders = orderBook.dequeueTriggeredOrders(Side.SELL, security.getLastTradedPrice()).iterator();
+        Iterator<Order> buyOrders = orderBook.dequeueTriggeredOrders(Side.BUY, security.getLastTradedPrice()).iterator();
+        while (sellOrders.hasNext() || buyOrders.hasNext()) {
+            if (sellOrders.hasNext())
+                activateInAuction(orderBook, sellOrders.next(), timestamp, sink);
+            if (buyOrders.hasNext())
+                activateInAuction(orderBook, buyOrders.next(), timestamp, sink);
         }
     }
 
-    private void activatePossibleInactiveOrders(Security security){
-        while(true){
-            Order sellOrderToBeExecute = security.getOrderBook().dequeueFromInactiveQueue(Side.SELL, security.getLastTradedPrice());
-            Order buyOrderToBeExecute = security.getOrderBook().dequeueFromInactiveQueue(Side.BUY, security.getLastTradedPrice());
-            if(sellOrderToBeExecute==null && buyOrderToBeExecute==null)
-                break;
-            if(sellOrderToBeExecute!=null){
-                security.getOrderBook().enqueueToActiveQueue(sellOrderToBeExecute);
-                eventPublisher.publish(new OrderActivatedEvent(((StopLimitOrder)sellOrderToBeExecute).getRequestId(), sellOrderToBeExecute.getOrderId()));
-            }
-            if (buyOrderToBeExecute!=null){
-                security.getOrderBook().enqueueToActiveQueue(buyOrderToBeExecute);
-                eventPublisher.publish(new OrderActivatedEvent(((StopLimitOrder)buyOrderToBeExecute).getRequestId(), buyOrderToBeExecute.getOrderId()));
-            }
-        }
+    private void activateInAuction(OrderBook orderBook, Order order, long timestamp, EventSink sink) {
+        orderBook.enqueueToActiveQueue(order);
+        publish(sink, new OrderActivatedEvent(((StopLimitOrder) order).getRequestId(), order.getOrderId()), timestamp);
     }
 
     public void handleChangeMatchingStateRq(ChangeMatchingStateRq changeMatchingStateRq){
+        handleChangeMatchingStateRq(changeMatchingStateRq, eventPublisher);
+    }
+
+    public void handleChangeMatchingStateRq(ChangeMatchingStateRq changeMatchingStateRq, EventSink sink){
         Security security = securityRepository.findSecurityByIsin(changeMatchingStateRq.getSecurityIsin());
-        MatchResult matchResult = security.changeMatchingState(changeMatchingStateRq.getTargetState(), auctionMatcher);
-        publishEventForChangeState(matchResult,changeMatchingStateRq);
+        if (security == null) {
+            log.warning("Ignored matching state change of unknown security " + changeMatchingStateRq.getSecurityIsin());
+            return;
+        }
+        synchronized (lockOf(security)) {
+            engineClock.stamp(changeMatchingStateRq);
+            requestLog.append(changeMatchingStateRq, changeMatchingStateRq.getSequence(), changeMatchingStateRq.getTimestamp());
+            resumeCascade(security, changeMatchingStateRq.getTimestamp(), sink);
+            MatchResult matchResult = security.changeMatchingState(changeMatchingStateRq.getTargetState(), auctionMatcher);
+            publishEventForChangeState(matchResult, changeMatchingStateRq, sink);
 
-        if(security.getMatchingState()==MatchingState.CONTINUOUS){
-            executePossibleInactiveOrders(security, Side.BUY);
-            executePossibleInactiveOrders(security, Side.SELL);
+            if (security.getMatchingState() == MatchingState.CONTINUOUS) {
+                activationCascade.run(security, BOTH_SIDES, changeMatchingStateRq.getTimestamp(), sink);
+            }
+            else
+                activatePossibleInactiveOrders(security, changeMatchingStateRq.getTimestamp(), sink);
         }
-        else
-            activatePossibleInactiveOrders(security);
     }
-    public void handleEnterOrder(EnterOrderRq enterOrderRq) {
-        try {
-            validateEnterOrderRq(enterOrderRq);
-
-            Security security = securityRepository.findSecurityByIsin(enterOrderRq.getSecurityIsin());
-            Broker broker = brokerRepository.findBrokerById(enterOrderRq.getBrokerId());
-            Shareholder shareholder = shareholderRepository.findShareholderById(enterOrderRq.getShareholderId());
+    public void handleBatch(BatchRq batchRq) {
+        handleBatch(batchRq.getRequests());
+    }
 
-            MatchResult matchResult;
+    public void handleBatch(List<?> requests) {
+        handleBatch(requests, eventPublisher);
+    }
 
-            if (enterOrderRq.getRequestType() == OrderEntryType.NEW_ORDER)
-                matchResult = security.newOrder(enterOrderRq, broker, shareholder, continuousMatcher);
+    public void handleBatch(List<?> requests, EventSink sink) {
+        for (Object request : requests)
+            if (!BatchRq.isSupported(request))
+                throw new IllegalArgumentException("Unsupported request in batch: " + request);
+        BatchSink batch = new BatchSink(sink);
+        for (Object request : requests) {
+            if (request instanceof EnterOrderRq enterOrderRq)
+                handleEnterOrder(enterOrderRq, batch);
+            else if (request instanceof DeleteOrderRq deleteOrderRq)
+                handleDeleteOrder(deleteOrderRq, batch);
             else
-                matchResult = security.updateOrder(enterOrderRq, continuousMatcher);
+                handleChangeMatchingStateRq((ChangeMatchingStateRq) request, batch);
+        }
+        for (Map.Entry<Security, Long> pending : batch.pendingOpeningPrices.entrySet()) {
+            Security security = pending.getKey();
+            synchronized (lockOf(security)) {
+                if (security.getMatchingState() == MatchingState.AUCTION)
+                    publishOpeningPriceNow(security, pending.getValue(), sink);
+            }
+        }
+    }
 
-            publishEvent(matchResult, enterOrderRq);
+    public void handleEnterOrder(EnterOrderRq enterOrderRq) {
+        handleEnterOrder(enterOrderRq, eventPublisher);
+    }
 
-            if(securityRepository.findSecurityByIsin(enterOrderRq.getSecurityIsin()).getMatchingState().equals(MatchingState.CONTINUOUS)) {
-                executePossibleInactiveOrders(security,enterOrderRq.getSide());
-            }
+    public void handleEnterOrder(EnterOrderRq enterOrderRq, EventSink sink) {
+        RequestContext context = contexts.get();
+        try {
+            handleValidatedEnterOrder(enterOrderRq, context, collectRequestErrors(enterOrderRq, context), sink);
+        } finally {
+            context.clear();
+        }
+    }
+
+    public void handleValidatedEnterOrder(EnterOrderRq enterOrderRq, RequestContext context, long requestErrors, EventSink sink) {
+        synchronized (lockOf(context.getSecurity())) {
+            engineClock.stamp(enterOrderRq);
+            requestLog.append(enterOrderRq, enterOrderRq.getSequence(), enterOrderRq.getTimestamp());
+            resumeCascade(context.getSecurity(), enterOrderRq.getTimestamp(), sink);
+            processEnterOrder(enterOrderRq, context, requestErrors | requestValidator.collectMatchingStateErrors(enterOrderRq, context), sink);
+        }
+    }
+
+    private void resumeCascade(Security security, long timestamp, EventSink sink) {
+        if (security != null && security.getMatchingState() == MatchingState.CONTINUOUS)
+            activationCascade.resume(security, timestamp, sink);
+    }
+
+    // Broker credit is shared across securities, so per-security locks would let the journal
+    // order differ from the order credit was spent in; while journaling, requests run one at a time.
+    private Object lockOf(Security security) {
+        if (isJournaling())
+            return journalLock;
+        return security != null ? security : unknownSecurityLock;
+    }
 
+    private void processEnterOrder(EnterOrderRq enterOrderRq, RequestContext context, long errors, EventSink sink) {
+        if (errors != RejectionReason.NONE) {
+            publish(sink, new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), RejectionReason.messagesOf(errors)), enterOrderRq.getTimestamp());
+            return;
+        }
+        try {
+            processValidEnterOrder(enterOrderRq, context, sink);
         }
         catch (InvalidRequestException ex) {
-            eventPublisher.publish(new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), ex.getReasons()));
+            publish(sink, new OrderRejectedEvent(enterOrderRq.getRequestId(), enterOrderRq.getOrderId(), ex.getReasons()), enterOrderRq.getTimestamp());
+        }
+    }
+
+    private void processValidEnterOrder(EnterOrderRq enterOrderRq, RequestContext context, EventSink sink) throws InvalidRequestException {
+        Security security = context.getSecurity();
+
+        MatchResult matchResult;
+
+        if (enterOrderRq.getRequestType() == OrderEntryType.NEW_ORDER)
+            matchResult = security.newOrder(enterOrderRq, context.getBroker(), context.getShareholder(), continuousMatcher);
+        else
+            matchResult = security.updateOrder(enterOrderRq, continuousMatcher);
+
+        publishEvent(matchResult, enterOrderRq, security, sink);
+
+        if(security.getMatchingState().equals(MatchingState.CONTINUOUS)) {
+            activationCascade.run(security, BOTH_SIDES, enterOrderRq.getTimestamp(), sink);
         }
     }
 
     public void handleDeleteOrder(DeleteOrderRq deleteOrderRq) {
+        handleDeleteOrder(deleteOrderRq, eventPublisher);
+    }
+
+    public void handleDeleteOrder(DeleteOrderRq deleteOrderRq, EventSink sink) {
+        Security security = securityRepository.findSecurityByIsin(deleteOrderRq.getSecurityIsin());
+        synchronized (lockOf(security)) {
+            deleteOrder(deleteOrderRq, security, sink);
+        }
+    }
+
+    private void deleteOrder(DeleteOrderRq deleteOrderRq, Security security, EventSink sink) {
+        engineClock.stamp(deleteOrderRq);
+        requestLog.append(deleteOrderRq, deleteOrderRq.getSequence(), deleteOrderRq.getTimestamp());
+        resumeCascade(security, deleteOrderRq.getTimestamp(), sink);
+        long errors = requestValidator.collectDeleteOrderErrors(deleteOrderRq, security);
+        if (errors != RejectionReason.NONE) {
+            publish(sink, new OrderRejectedEvent(deleteOrderRq.getRequestId(), deleteOrderRq.getOrderId(), RejectionReason.messagesOf(errors)), deleteOrderRq.getTimestamp());
+            return;
+        }
         try {
-            validateDeleteOrderRq(deleteOrderRq);
-            Security security = securityRepository.findSecurityByIsin(deleteOrderRq.getSecurityIsin());
             security.deleteOrder(deleteOrderRq);
-            eventPublisher.publish(new OrderDeletedEvent(deleteOrderRq.getRequestId(), deleteOrderRq.getOrderId()));
+            publish(sink, new OrderDeletedEvent(deleteOrderRq.getRequestId(), deleteOrderRq.getOrderId()), deleteOrderRq.getTimestamp());
             if(security.getMatchingState()==MatchingState.AUCTION)
-                publishOpeningPrice(deleteOrderRq.getSecurityIsin());
+                publishOpeningPrice(security, deleteOrderRq.getTimestamp(), sink);
         } catch (InvalidRequestException ex) {
-            eventPublisher.publish(new OrderRejectedEvent(deleteOrderRq.getRequestId(), deleteOrderRq.getOrderId(), ex.getReasons()));
-        }
-    }
-
-    private void validateEnterOrderRq(EnterOrderRq enterOrderRq) throws InvalidRequestException {
-        List<String> errors = new LinkedList<>();
-        if (enterOrderRq.getOrderId() <= 0)
-            errors.add(Message.INVALID_ORDER_ID);
-        if (enterOrderRq.getQuantity() <= 0)
-            errors.add(Message.ORDER_QUANTITY_NOT_POSITIVE);
-        if (enterOrderRq.getPrice() <= 0)
-            errors.add(Message.ORDER_PRICE_NOT_POSITIVE);
-        Security security = securityRepository.findSecurityByIsin(enterOrderRq.getSecurityIsin());
-        if (security == null)
-            errors.add(Message.UNKNOWN_SECURITY_ISIN);
-        else {
-            if (enterOrderRq.getQuantity() % security.getLotSize() != 0)
-                errors.add(Message.QUANTITY_NOT_MULTIPLE_OF_LOT_SIZE);
-            if (enterOrderRq.getPrice() % security.getTickSize() != 0)
-                errors.add(Message.PRICE_NOT_MULTIPLE_OF_TICK_SIZE);
-        }
-        if (brokerRepository.findBrokerById(enterOrderRq.getBrokerId()) == null)
-            errors.add(Message.UNKNOWN_BROKER_ID);
-        if (shareholderRepository.findShareholderById(enterOrderRq.getShareholderId()) == null)
-            errors.add(Message.UNKNOWN_SHAREHOLDER_ID);
-        if (enterOrderRq.getPeakSize() < 0 || enterOrderRq.getPeakSize() >= enterOrderRq.getQuantity())
-            errors.add(Message.INVALID_PEAK_SIZE);
-        if(enterOrderRq.getMinimumExecutionQuantity()<0 || enterOrderRq.getMinimumExecutionQuantity()>enterOrderRq.getQuantity())
-            errors.add(Message.INVALID_MINIMUM_QUANTITY);
-        if(enterOrderRq.getStopPrice()<0)
-            errors.add(Message.INVALID_STOP_PRICE);
-        if(enterOrderRq.getStopPrice()>0 && enterOrderRq.getMinimumExecutionQuantity()>0)
-            errors.add(Message.STOP_LIMIT_ORDER_CAN_NOT_HAVE_MIN_EXEC_QUANTITY);
-        if(enterOrderRq.getStopPrice()>0 && enterOrderRq.getPeakSize()>0)
-            errors.add(Message.AN_ORDER_CAN_NOT_BE_BOTH_ICEBERG_AND_STOP_LIMIT);
-        if(security!=null && security.getMatchingState().equals(MatchingState.AUCTION)){
-            if(enterOrderRq.getMinimumExecutionQuantity()>0 && enterOrderRq.getRequestType()==OrderEntryType.NEW_ORDER)
-                errors.add(Message.CANT_HAVE_MINIMUM_EXEC_QUANTITY_IN_AUCTION_STATE);
-        }
-        if (!errors.isEmpty())
-            throw new InvalidRequestException(errors);
-    }
-
-    private void validateDeleteOrderRq(DeleteOrderRq deleteOrderRq) throws InvalidRequestException {
-        List<String> errors = new LinkedList<>();
-        if (deleteOrderRq.getOrderId() <= 0)
-            errors.add(Message.INVALID_ORDER_ID);
-        if (securityRepository.findSecurityByIsin(deleteOrderRq.getSecurityIsin()) == null)
-            errors.add(Message.UNKNOWN_SECURITY_ISIN);
-        if (!errors.isEmpty())
-            throw new InvalidRequestException(errors);
+            publish(sink, new OrderRejectedEvent(deleteOrderRq.getRequestId(), deleteOrderRq.getOrderId(), ex.getReasons()), deleteOrderRq.getTimestamp());
+        }
+    }
+
+    public long collectRequestErrors(EnterOrderRq enterOrderRq, RequestContext context) {
+        return requestValidator.collectRequestErrors(enterOrderRq, context);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package ir.ramtung.tinyme.domain.service;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import lombok.Getter;
+
+@Getter
+public class RequestContext {
+    private int securityHandle = SecurityRepository.NO_HANDLE;
+    private int brokerHandle = BrokerRepository.NO_HANDLE;
+    private int shareholderHandle = ShareholderRepository.NO_HANDLE;
+    private Security security;
+    private Broker broker;
+    private Shareholder shareholder;
+
+    void resolveSecurity(SecurityRepository securityRepository, String isin) {
+        securityHandle = securityRepository.handleOf(isin);
+        security = securityRepository.securityAt(securityHandle);
+    }
+
+    void resolveParties(BrokerRepository brokerRepository, long brokerId,
+                        ShareholderRepository shareholderRepository, long shareholderId) {
+        brokerHandle = brokerRepository.handleOf(brokerId);
+        broker = brokerRepository.brokerAt(brokerHandle);
+        shareholderHandle = shareholderRepository.handleOf(shareholderId);
+        shareholder = shareholderRepository.shareholderAt(shareholderHandle);
+    }
+
+    public void clear() {
+        securityHandle = SecurityRepository.NO_HANDLE;
+        brokerHandle = BrokerRepository.NO_HANDLE;
+        shareholderHandle = ShareholderRepository.NO_HANDLE;
+        security = null;
+        broker = null;
+        shareholder = null;
+    }
+}
@@ -0,0 +1,77 @@
+package ir.ramtung.tinyme.domain.service;
+
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.messaging.RejectionReason;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import ir.ramtung.tinyme.messaging.request.OrderEntryType;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+
+public class RequestValidator {
+    private final SecurityRepository securityRepository;
+    private final BrokerRepository brokerRepository;
+    private final ShareholderRepository shareholderRepository;
+
+    public RequestValidator(SecurityRepository securityRepository, BrokerRepository brokerRepository, ShareholderRepository shareholderRepository) {
+        this.securityRepository = securityRepository;
+        this.brokerRepository = brokerRepository;
+        this.shareholderRepository = shareholderRepository;
+    }
+
+    public long collectRequestErrors(EnterOrderRq enterOrderRq, RequestContext context) {
+        context.resolveSecurity(securityRepository, enterOrderRq.getSecurityIsin());
+        context.resolveParties(brokerRepository, enterOrderRq.getBrokerId(), shareholderRepository, enterOrderRq.getShareholderId());
+        long errors = RejectionReason.NONE;
+        if (enterOrderRq.getOrderId() <= 0)
+            errors |= RejectionReason.INVALID_ORDER_ID.bit();
+        if (enterOrderRq.getQuantity() <= 0)
+            errors |= RejectionReason.ORDER_QUANTITY_NOT_POSITIVE.bit();
+        if (enterOrderRq.getPrice() <= 0)
+            errors |= RejectionReason.ORDER_PRICE_NOT_POSITIVE.bit();
+        Security security = context.getSecurity();
+        if (security == null)
+            errors |= RejectionReason.UNKNOWN_SECURITY_ISIN.bit();
+        else {
+            if (enterOrderRq.getQuantity() % security.getLotSize() != 0)
+                errors |= RejectionReason.QUANTITY_NOT_MULTIPLE_OF_LOT_SIZE.bit();
+            if (enterOrderRq.getPrice() % security.getTickSize() != 0)
+                errors |= RejectionReason.PRICE_NOT_MULTIPLE_OF_TICK_SIZE.bit();
+        }
+        if (context.getBroker() == null)
+            errors |= RejectionReason.UNKNOWN_BROKER_ID.bit();
+        if (context.getShareholder() == null)
+            errors |= RejectionReason.UNKNOWN_SHAREHOLDER_ID.bit();
+        if (enterOrderRq.getPeakSize() < 0 || enterOrderRq.getPeakSize() >= enterOrderRq.getQuantity())
+            errors |= RejectionReason.INVALID_PEAK_SIZE.bit();
+        if(enterOrderRq.getMinimumExecutionQuantity()<0 || enterOrderRq.getMinimumExecutionQuantity()>enterOrderRq.getQuantity())
+            errors |= RejectionReason.INVALID_MINIMUM_QUANTITY.bit();
+        if(enterOrderRq.getStopPrice()<0)
+            errors |= RejectionReason.INVALID_STOP_PRICE.bit();
+        if(enterOrderRq.getStopPrice()>0 && enterOrderRq.getMinimumExecutionQuantity()>0)
+            errors |= RejectionReason.STOP_LIMIT_ORDER_CAN_NOT_HAVE_MIN_EXEC_QUANTITY.bit();
+        if(enterOrderRq.getStopPrice()>0 && enterOrderRq.getPeakSize()>0)
+            errors |= RejectionReason.AN_ORDER_CAN_NOT_BE_BOTH_ICEBERG_AND_STOP_LIMIT.bit();
+        return errors;
+    }
+
+    public long collectMatchingStateErrors(EnterOrderRq enterOrderRq, RequestContext context) {
+        Security security = context.getSecurity();
+        if(security!=null && security.getMatchingState().equals(MatchingState.AUCTION)){
+            if(enterOrderRq.getMinimumExecutionQuantity()>0 && enterOrderRq.getRequestType()==OrderEntryType.NEW_ORDER)
+                return RejectionReason.CANT_HAVE_MINIMUM_EXEC_QUANTITY_IN_AUCTION_STATE.bit();
+        }
+        return RejectionReason.NONE;
+    }
+
+    public long collectDeleteOrderErrors(DeleteOrderRq deleteOrderRq, Security security) {
+        long errors = RejectionReason.NONE;
+        if (deleteOrderRq.getOrderId() <= 0)
+            errors |= RejectionReason.INVALID_ORDER_ID.bit();
+        if (security == null)
+            errors |= RejectionReason.UNKNOWN_SECURITY_ISIN.bit();
+        return errors;
+    }
+}
@@ -0,0 +1,99 @@
+package ir.ramtung.tinyme.domain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@Component
+public class SecurityEventLoops implements SmartLifecycle {
+    // A full shard makes the submitting listener wait for room instead of running the
+    // task itself, which would break the one-thread-per-security ordering.
+    private static final RejectedExecutionHandler BLOCK_CALLER = (task, executor) -> {
+        if (executor.isShutdown())
+            throw new RejectedExecutionException("Engine shard is shut down");
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for engine shard", ex);
+        }
+    };
+
+    private final Logger log = Logger.getLogger(this.getClass().getName());
+    private final ThreadPoolExecutor[] loops;
+    private volatile boolean running = false;
+
+    public SecurityEventLoops(@Value("${engineShards:0}") int shards,
+                              @Value("${engineShards.queueCapacity:8192}") int queueCapacity) {
+        loops = new ThreadPoolExecutor[shards];
+        for (int i = 0; i < shards; i++) {
+            String name = "engine-shard-" + i;
+            loops[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> new Thread(runnable, name), BLOCK_CALLER);
+        }
+    }
+
+    public boolean isSharded() {
+        return loops.length > 0;
+    }
+
+    public int shardCount() {
+        return loops.length;
+    }
+
+    public int shardOf(String securityIsin) {
+        if (securityIsin == null)
+            return 0;
+        return Math.floorMod(securityIsin.hashCode(), loops.length);
+    }
+
+    public void execute(String securityIsin, Runnable task) {
+        if (!isSharded()) {
+            task.run();
+            return;
+        }
+        loops[shardOf(securityIsin)].execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                log.log(Level.SEVERE, "Request for " + securityIsin + " failed", ex);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        for (ThreadPoolExecutor loop : loops)
+            loop.shutdown();
+        try {
+            for (ThreadPoolExecutor loop : loops)
+                loop.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
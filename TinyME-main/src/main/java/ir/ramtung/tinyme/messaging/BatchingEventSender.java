@@ -0,0 +1,200 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.messaging.event.Event;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+class BatchingEventSender implements Runnable {
+    private static final long INITIAL_RETRY_MILLIS = 10;
+    private static final long MAX_RETRY_MILLIS = 1_000;
+
+    private final Logger log = Logger.getLogger(this.getClass().getName());
+    private final BlockingQueue<Event> queue;
+    private final ConnectionFactory connectionFactory;
+    private final MessageConverter messageConverter;
+    private final String destination;
+    private final int maxEvents;
+    private final int maxBytes;
+    private final long maxDelayNanos;
+    private final Thread thread;
+    private final AtomicInteger enqueuing = new AtomicInteger();
+    private final List<Event> batch = new ArrayList<>();
+    private volatile boolean running = true;
+    private Connection connection;
+    private Session session;
+    private MessageProducer producer;
+
+    BatchingEventSender(ConnectionFactory connectionFactory, MessageConverter messageConverter, String destination,
+                        int capacity, int maxEvents, int maxBytes, long maxDelayMicros) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.connectionFactory = connectionFactory;
+        this.messageConverter = messageConverter;
+        this.destination = destination;
+        this.maxEvents = maxEvents;
+        this.maxBytes = maxBytes;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.thread = new Thread(this, "event-publisher");
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues an event, blocking while the queue is full. Returns false once the sender is
+     * stopping; events that were queued before that are still drained in order.
+     */
+    boolean enqueue(Event event) {
+        enqueuing.incrementAndGet();
+        try {
+            if (!running)
+                return false;
+            queue.put(event);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing " + event, ex);
+        } finally {
+            enqueuing.decrementAndGet();
+        }
+    }
+
+    void stop() {
+        running = false;
+        awaitDrained();
+    }
+
+    void awaitDrained() {
+        try {
+            thread.join(10_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running || enqueuing.get() > 0 || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (first != null)
+                    sendBatch(first);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        close();
+    }
+
+    private void sendBatch(Event first) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        int bytes = 0;
+        try {
+            open();
+            Event event = first;
+            while (event != null) {
+                batch.add(event);
+                int size = send(event);
+                if (size < 0)
+                    batch.remove(batch.size() - 1);
+                else
+                    bytes += size;
+                if (batch.size() >= maxEvents || bytes >= maxBytes)
+                    break;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    break;
+                event = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            }
+            session.commit();
+            batch.clear();
+        } catch (JMSException ex) {
+            log.log(Level.SEVERE, "Failed to publish a batch of " + batch.size() + " events", ex);
+            close();
+            resendBatch();
+        }
+    }
+
+    /**
+     * Sends the uncommitted batch again on a fresh connection, backing off between attempts, so
+     * that no later event goes out before it. Gives up only once the sender is stopping.
+     */
+    private void resendBatch() throws InterruptedException {
+        long backoff = INITIAL_RETRY_MILLIS;
+        while (!batch.isEmpty()) {
+            Thread.sleep(backoff);
+            try {
+                open();
+                for (Event event : batch)
+                    send(event);
+                session.commit();
+                batch.clear();
+            } catch (JMSException ex) {
+                log.log(Level.SEVERE, "Failed to resend a batch of " + batch.size() + " events", ex);
+                close();
+                if (!running) {
+                    log.severe("Dropped " + batch.size() + " unpublished events on shutdown");
+                    batch.clear();
+                }
+                backoff = Math.min(backoff * 2, MAX_RETRY_MILLIS);
+            }
+        }
+    }
+
+    private int send(Event event) throws JMSException {
+        Message message;
+        try {
+            message = messageConverter.toMessage(event, session);
+        } catch (RuntimeException ex) {
+            log.log(Level.SEVERE, "Dropped event that could not be converted: " + event, ex);
+            return -1;
+        }
+        producer.send(message);
+        return sizeOf(message);
+    }
+
+    private static int sizeOf(Message message) throws JMSException {
+        if (message instanceof TextMessage textMessage)
+            return textMessage.getText().length();
+        if (message instanceof BytesMessage bytesMessage)
+            return (int) bytesMessage.getBodyLength();
+        return 0;
+    }
+
+    private void open() throws JMSException {
+        if (session != null)
+            return;
+        connection = connectionFactory.createConnection();
+        session = connection.createSession(true, Session.SESSION_TRANSACTED);
+        producer = session.createProducer(session.createQueue(destination));
+    }
+
+    private void close() {
+        try {
+            if (connection != null)
+                connection.close();
+        } catch (JMSException ex) {
+            log.warning("Failed to close publisher connection: " + ex);
+        }
+        connection = null;
+        session = null;
+        producer = null;
+    }
+}
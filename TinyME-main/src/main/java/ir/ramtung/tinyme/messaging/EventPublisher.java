@@ -2,24 +2,72 @@ package ir.ramtung.tinyme.messaging;
 
 import ir.ramtung.tinyme.messaging.event.Event;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.logging.Logger;
 
 @Component
-public class EventPublisher {
+public class EventPublisher implements EventSink, SmartLifecycle {
     private final Logger log = Logger.getLogger(this.getClass().getName());
     private final JmsTemplate jmsTemplate;
     @Value("${responseQueue}")
     private String responseQueue;
+    @Value("${eventPublisher.async:false}")
+    private boolean async;
+    @Value("${eventPublisher.queueCapacity:8192}")
+    private int queueCapacity;
+    @Value("${eventPublisher.batchSize:64}")
+    private int batchSize;
+    @Value("${eventPublisher.batchBytes:65536}")
+    private int batchBytes;
+    @Value("${eventPublisher.flushMicros:200}")
+    private long flushMicros;
+    private volatile BatchingEventSender sender;
 
     public EventPublisher(JmsTemplate jmsTemplate) {
         this.jmsTemplate = jmsTemplate;
     }
 
+    @Override
     public void publish(Event event) {
-        log.info("Published : " + event);
+        log.info(() -> "Published : " + event);
+        BatchingEventSender batching = sender;
+        if (batching != null) {
+            if (batching.enqueue(event))
+                return;
+            batching.awaitDrained();
+        }
         jmsTemplate.convertAndSend(responseQueue, event);
     }
+
+    @Override
+    public void start() {
+        if (!async || sender != null)
+            return;
+        BatchingEventSender batching = new BatchingEventSender(jmsTemplate.getConnectionFactory(),
+                jmsTemplate.getMessageConverter(), responseQueue, queueCapacity, batchSize, batchBytes, flushMicros);
+        batching.start();
+        sender = batching;
+    }
+
+    @Override
+    public void stop() {
+        BatchingEventSender batching = sender;
+        if (batching == null)
+            return;
+        batching.stop();
+        sender = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return sender != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2;
+    }
 }
@@ -0,0 +1,7 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.messaging.event.Event;
+
+public interface EventSink {
+    void publish(Event event);
+}
@@ -1,5 +1,8 @@
 package ir.ramtung.tinyme.messaging;
 
+import ir.ramtung.tinyme.messaging.codec.BinaryMessageConverter;
+import ir.ramtung.tinyme.messaging.codec.WireFormat;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
@@ -8,11 +11,15 @@ import org.springframework.jms.support.converter.MessageType;
 
 @Configuration
 public class MessagingConfig {
+    public static final String TYPE_ID_PROPERTY = "_type";
+
     @Bean
-    public MessageConverter jacksonJmsMessageConverter() {
+    public MessageConverter jmsMessageConverter(@Value("${messaging.wireFormat:JSON}") WireFormat wireFormat) {
         MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
         converter.setTargetType(MessageType.TEXT);
-        converter.setTypeIdPropertyName("_type");
+        converter.setTypeIdPropertyName(TYPE_ID_PROPERTY);
+        if (wireFormat == WireFormat.BINARY)
+            return new BinaryMessageConverter(converter, TYPE_ID_PROPERTY);
         return converter;
     }
 }
@@ -0,0 +1,51 @@
+package ir.ramtung.tinyme.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public enum RejectionReason {
+    INVALID_ORDER_ID(Message.INVALID_ORDER_ID),
+    ORDER_QUANTITY_NOT_POSITIVE(Message.ORDER_QUANTITY_NOT_POSITIVE),
+    ORDER_PRICE_NOT_POSITIVE(Message.ORDER_PRICE_NOT_POSITIVE),
+    UNKNOWN_SECURITY_ISIN(Message.UNKNOWN_SECURITY_ISIN),
+    QUANTITY_NOT_MULTIPLE_OF_LOT_SIZE(Message.QUANTITY_NOT_MULTIPLE_OF_LOT_SIZE),
+    PRICE_NOT_MULTIPLE_OF_TICK_SIZE(Message.PRICE_NOT_MULTIPLE_OF_TICK_SIZE),
+    UNKNOWN_BROKER_ID(Message.UNKNOWN_BROKER_ID),
+    UNKNOWN_SHAREHOLDER_ID(Message.UNKNOWN_SHAREHOLDER_ID),
+    INVALID_PEAK_SIZE(Message.INVALID_PEAK_SIZE),
+    INVALID_MINIMUM_QUANTITY(Message.INVALID_MINIMUM_QUANTITY),
+    INVALID_STOP_PRICE(Message.INVALID_STOP_PRICE),
+    STOP_LIMIT_ORDER_CAN_NOT_HAVE_MIN_EXEC_QUANTITY(Message.STOP_LIMIT_ORDER_CAN_NOT_HAVE_MIN_EXEC_QUANTITY),
+    AN_ORDER_CAN_NOT_BE_BOTH_ICEBERG_AND_STOP_LIMIT(Message.AN_ORDER_CAN_NOT_BE_BOTH_ICEBERG_AND_STOP_LIMIT),
+    CANT_HAVE_MINIMUM_EXEC_QUANTITY_IN_AUCTION_STATE(Message.CANT_HAVE_MINIMUM_EXEC_QUANTITY_IN_AUCTION_STATE);
+
+    public static final long NONE = 0L;
+    private static final RejectionReason[] VALUES = values();
+
+    private final String message;
+    private final long bit;
+
+    RejectionReason(String message) {
+        this.message = message;
+        this.bit = 1L << ordinal();
+    }
+
+    public String message() {
+        return message;
+    }
+
+    public long bit() {
+        return bit;
+    }
+
+    public static boolean contains(long reasons, RejectionReason reason) {
+        return (reasons & reason.bit) != 0;
+    }
+
+    public static List<String> messagesOf(long reasons) {
+        List<String> messages = new ArrayList<>(Long.bitCount(reasons));
+        for (long remaining = reasons; remaining != 0; remaining &= remaining - 1)
+            messages.add(VALUES[Long.numberOfTrailingZeros(remaining)].message);
+        return messages;
+    }
+}
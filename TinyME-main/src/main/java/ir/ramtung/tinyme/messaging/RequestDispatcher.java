@@ -1,38 +1,160 @@
 package ir.ramtung.tinyme.messaging;
 
+import ir.ramtung.tinyme.messaging.request.BatchRq;
 import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
 import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
 import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
 import ir.ramtung.tinyme.domain.service.OrderHandler;
-import org.springframework.jms.annotation.JmsListener;
+import ir.ramtung.tinyme.domain.service.SecurityEventLoops;
+import ir.ramtung.tinyme.messaging.pipeline.RequestPipeline;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.annotation.JmsListenerConfigurer;
+import org.springframework.jms.config.JmsListenerEndpointRegistrar;
+import org.springframework.jms.config.SimpleJmsListenerEndpoint;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 @Component
-public class RequestDispatcher {
+public class RequestDispatcher implements JmsListenerConfigurer {
     private final Logger log = Logger.getLogger(this.getClass().getName());
     private final OrderHandler orderHandler;
+    private final SecurityEventLoops eventLoops;
+    private final RequestPipeline pipeline;
+    private final MessageConverter messageConverter;
+    private final String requestQueue;
+    private final DispatchMode dispatchMode;
+    private final int consumers;
+    private final Map<String, Consumer<Object>> handlerByType = new LinkedHashMap<>();
 
-    public RequestDispatcher(OrderHandler orderHandler) {
+    public RequestDispatcher(OrderHandler orderHandler, SecurityEventLoops eventLoops, RequestPipeline pipeline,
+                             MessageConverter messageConverter, @Value("${requestQueue}") String requestQueue,
+                             @Value("${requestDispatch:SELECTORS}") DispatchMode dispatchMode,
+                             @Value("${requestConsumers:1}") int consumers) {
         this.orderHandler = orderHandler;
+        this.eventLoops = eventLoops;
+        this.pipeline = pipeline;
+        this.messageConverter = messageConverter;
+        this.requestQueue = requestQueue;
+        this.dispatchMode = dispatchMode;
+        this.consumers = consumers;
+        if (consumers != 1 && dispatchMode != DispatchMode.TYPED)
+            log.warning("requestConsumers=" + consumers + " is ignored in " + dispatchMode + " dispatch; only TYPED dispatch runs concurrent consumers");
+        route(EnterOrderRq.class, this::receiveEnterOrderRq);
+        route(DeleteOrderRq.class, this::receiveDeleteOrderRq);
+        route(ChangeMatchingStateRq.class, this::receiveChangeMatchingStateRq);
+        route(BatchRq.class, this::receiveBatchRq);
     }
 
-    @JmsListener(destination = "${requestQueue}", selector = "_type='ir.ramtung.tinyme.messaging.request.EnterOrderRq'")
+    private <T> void route(Class<T> type, Consumer<T> handler) {
+        handlerByType.put(type.getName(), request -> handler.accept(type.cast(request)));
+    }
+
+    @Override
+    public void configureJmsListeners(JmsListenerEndpointRegistrar registrar) {
+        if (dispatchMode == DispatchMode.TYPED) {
+            SimpleJmsListenerEndpoint endpoint = endpoint("requestDispatcher", null);
+            endpoint.setConcurrency(String.valueOf(consumers));
+            registrar.registerEndpoint(endpoint);
+            return;
+        }
+        for (String type : handlerByType.keySet())
+            registrar.registerEndpoint(endpoint("requestDispatcher." + type, MessagingConfig.TYPE_ID_PROPERTY + "='" + type + "'"));
+    }
+
+    private SimpleJmsListenerEndpoint endpoint(String id, String selector) {
+        SimpleJmsListenerEndpoint endpoint = new SimpleJmsListenerEndpoint();
+        endpoint.setId(id);
+        endpoint.setDestination(requestQueue);
+        endpoint.setSelector(selector);
+        endpoint.setMessageListener(this::dispatch);
+        return endpoint;
+    }
+
+    public void dispatch(Message message) {
+        try {
+            String type = message.getStringProperty(MessagingConfig.TYPE_ID_PROPERTY);
+            Consumer<Object> handler = type == null ? null : handlerByType.get(type);
+            if (handler == null) {
+                log.warning("Dropped request of unknown type " + type);
+                return;
+            }
+            handler.accept(messageConverter.fromMessage(message));
+        } catch (JMSException ex) {
+            throw JmsUtils.convertJmsAccessException(ex);
+        }
+    }
+
+    // The message is acknowledged once this listener returns. A request handed off to a shard
+    // or to the pipeline would be acknowledged before it is journaled, so while journaling
+    // every request is handled on the listener thread instead.
     public void receiveEnterOrderRq(EnterOrderRq enterOrderRq) {
         log.info("Received message: " + enterOrderRq);
-        orderHandler.handleEnterOrder(enterOrderRq);
+        if (orderHandler.isJournaling())
+            orderHandler.handleEnterOrder(enterOrderRq);
+        else if (pipeline.isEnabled())
+            pipeline.submit(enterOrderRq);
+        else
+            eventLoops.execute(enterOrderRq.getSecurityIsin(), () -> orderHandler.handleEnterOrder(enterOrderRq));
     }
 
-    @JmsListener(destination = "${requestQueue}", selector = "_type='ir.ramtung.tinyme.messaging.request.DeleteOrderRq'")
     public void receiveDeleteOrderRq(DeleteOrderRq deleteOrderRq) {
         log.info("Received message: " + deleteOrderRq);
-        orderHandler.handleDeleteOrder(deleteOrderRq);
+        if (orderHandler.isJournaling())
+            orderHandler.handleDeleteOrder(deleteOrderRq);
+        else if (pipeline.isEnabled())
+            pipeline.submit(deleteOrderRq);
+        else
+            eventLoops.execute(deleteOrderRq.getSecurityIsin(), () -> orderHandler.handleDeleteOrder(deleteOrderRq));
     }
 
-    @JmsListener(destination = "${requestQueue}", selector = "_type='ir.ramtung.tinyme.messaging.request.DeleteOrderRq'")
     public void receiveChangeMatchingStateRq(ChangeMatchingStateRq changeMatchingStateRq) {
         log.info("Received message: " + changeMatchingStateRq);
-        orderHandler.handleChangeMatchingStateRq(changeMatchingStateRq);
+        if (orderHandler.isJournaling())
+            orderHandler.handleChangeMatchingStateRq(changeMatchingStateRq);
+        else if (pipeline.isEnabled())
+            pipeline.submit(changeMatchingStateRq);
+        else
+            eventLoops.execute(changeMatchingStateRq.getSecurityIsin(), () -> orderHandler.handleChangeMatchingStateRq(changeMatchingStateRq));
+    }
+
+    public void receiveBatchRq(BatchRq batchRq) {
+        log.info("Received batch of " + batchRq.getRequests().size() + " requests");
+        if (consumesConcurrently() && !SecurityGrouping.spansOneSecurity(batchRq)) {
+            log.warning("Dropped batch spanning several securities; concurrent consumers need one security per batch");
+            return;
+        }
+        if (orderHandler.isJournaling() || !pipeline.isEnabled() && !eventLoops.isSharded())
+            orderHandler.handleBatch(batchRq);
+        else if (pipeline.isEnabled())
+            pipeline.submit(batchRq);
+        else
+            dispatchByShard(batchRq.getRequests());
+    }
+
+    private boolean consumesConcurrently() {
+        return dispatchMode == DispatchMode.TYPED && consumers > 1;
+    }
+
+    private void dispatchByShard(List<Object> requests) {
+        List<List<Object>> shards = new ArrayList<>(eventLoops.shardCount());
+        for (int i = 0; i < eventLoops.shardCount(); i++)
+            shards.add(new ArrayList<>());
+        for (Object request : requests)
+            shards.get(eventLoops.shardOf(BatchRq.securityIsinOf(request))).add(request);
+        for (List<Object> shard : shards) {
+            if (shard.isEmpty())
+                continue;
+            eventLoops.execute(BatchRq.securityIsinOf(shard.get(0)), () -> orderHandler.handleBatch(shard));
+        }
     }
 }
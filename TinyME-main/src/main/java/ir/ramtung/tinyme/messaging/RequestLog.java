@@ -0,0 +1,7 @@
+package ir.ramtung.tinyme.messaging;
+
+public interface RequestLog {
+    RequestLog NONE = (request, sequence, timestamp) -> { };
+
+    void append(Object request, long sequence, long timestamp);
+}
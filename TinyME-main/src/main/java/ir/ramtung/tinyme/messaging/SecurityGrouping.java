@@ -0,0 +1,45 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.messaging.request.BatchRq;
+import org.springframework.jms.core.MessagePostProcessor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class SecurityGrouping {
+    public static final String GROUP_ID_PROPERTY = "JMSXGroupID";
+
+    private SecurityGrouping() {
+    }
+
+    public static String groupOf(Object request) {
+        if (request instanceof BatchRq batchRq) {
+            if (!spansOneSecurity(batchRq))
+                throw new IllegalArgumentException("Batch spans several securities; split it before grouping");
+            return batchRq.getRequests().isEmpty() ? null : BatchRq.securityIsinOf(batchRq.getRequests().get(0));
+        }
+        return BatchRq.securityIsinOf(request);
+    }
+
+    public static boolean spansOneSecurity(BatchRq batchRq) {
+        return batchRq.getRequests().stream().map(BatchRq::securityIsinOf).distinct().count() <= 1;
+    }
+
+    public static List<BatchRq> split(BatchRq batchRq) {
+        Map<String, List<Object>> bySecurity = new LinkedHashMap<>();
+        for (Object request : batchRq.getRequests())
+            bySecurity.computeIfAbsent(BatchRq.securityIsinOf(request), isin -> new ArrayList<>()).add(request);
+        return bySecurity.values().stream().map(BatchRq::new).toList();
+    }
+
+    public static MessagePostProcessor stamp(Object request) {
+        String group = groupOf(request);
+        return message -> {
+            if (group != null)
+                message.setStringProperty(GROUP_ID_PROPERTY, group);
+            return message;
+        };
+    }
+}
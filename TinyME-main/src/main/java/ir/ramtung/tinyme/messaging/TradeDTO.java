@@ -2,6 +2,9 @@ package ir.ramtung.tinyme.messaging;
 
 import ir.ramtung.tinyme.domain.entity.Trade;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public record TradeDTO(
     String securityIsin,
     int price,
@@ -10,6 +13,13 @@ public record TradeDTO(
     long sellOrderId) {
 
     public TradeDTO(Trade trade) {
-        this(trade.getSecurity().getIsin(), trade.getPrice(), trade.getQuantity(), trade.getBuy().getOrderId(), trade.getSell().getOrderId());
+        this(trade.getSecurity().getIsin(), trade.getPrice(), trade.getQuantity(), trade.getBuyOrderId(), trade.getSellOrderId());
+    }
+
+    public static List<TradeDTO> listOf(List<Trade> trades) {
+        List<TradeDTO> dtos = new ArrayList<>(trades.size());
+        for (Trade trade : trades)
+            dtos.add(new TradeDTO(trade));
+        return dtos;
     }
 }
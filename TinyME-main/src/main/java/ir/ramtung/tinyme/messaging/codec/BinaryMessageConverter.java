@@ -0,0 +1,72 @@
+package ir.ramtung.tinyme.messaging.codec;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class BinaryMessageConverter implements MessageConverter {
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private final MessageConverter fallback;
+    private final String typeIdPropertyName;
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> allocate(INITIAL_BUFFER_SIZE));
+
+    public BinaryMessageConverter(MessageConverter fallback, String typeIdPropertyName) {
+        this.fallback = fallback;
+        this.typeIdPropertyName = typeIdPropertyName;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private ByteBuffer buffer(int capacity) {
+        ByteBuffer buffer = buffers.get();
+        if (buffer.capacity() < capacity) {
+            buffer = allocate(Integer.highestOneBit(capacity - 1) << 1);
+            buffers.set(buffer);
+        }
+        return buffer.clear();
+    }
+
+    @Override
+    public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        if (!WireCodec.supports(object.getClass()))
+            return fallback.toMessage(object, session);
+        ByteBuffer buffer = buffer(0);
+        while (true) {
+            try {
+                WireCodec.encode(object, buffer);
+                break;
+            } catch (BufferOverflowException ex) {
+                buffer = buffer(buffer.capacity() * 2);
+            }
+        }
+        BytesMessage message = session.createBytesMessage();
+        message.writeBytes(buffer.array(), 0, buffer.position());
+        message.setStringProperty(typeIdPropertyName, object.getClass().getName());
+        return message;
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        if (!(message instanceof BytesMessage bytesMessage))
+            return fallback.fromMessage(message);
+        int length = (int) bytesMessage.getBodyLength();
+        ByteBuffer buffer = buffer(length);
+        bytesMessage.readBytes(buffer.array(), length);
+        buffer.limit(length);
+        try {
+            return WireCodec.decode(buffer);
+        } catch (RuntimeException ex) {
+            throw new MessageConversionException("Could not decode binary message", ex);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package ir.ramtung.tinyme.messaging.codec;
+
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.EngineClock;
+import ir.ramtung.tinyme.messaging.TradeDTO;
+import ir.ramtung.tinyme.messaging.event.*;
+import ir.ramtung.tinyme.messaging.request.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-layout little-endian encoding of requests and events. Every message starts with an
+ * eight-byte header (block length, template id, schema id, version), followed by the fixed
+ * block of the template, then repeating groups and variable-length strings.
+ */
+public final class WireCodec {
+    public static final int SCHEMA_ID = 1;
+    public static final int VERSION = 3;
+    public static final int HEADER_LENGTH = 8;
+    private static final int TRADE_BLOCK_LENGTH = 24;
+    private static final byte NULL_ENUM = -1;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+    private static final Side[] SIDES = Side.values();
+    private static final OrderEntryType[] ENTRY_TYPES = OrderEntryType.values();
+    private static final MatchingState[] MATCHING_STATES = MatchingState.values();
+
+    private WireCodec() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return WireTemplate.of(type) != null;
+    }
+
+    public static void encode(Object message, ByteBuffer buffer) {
+        WireTemplate template = WireTemplate.of(message.getClass());
+        if (template == null)
+            throw new WireCodecException("No wire template for " + message.getClass().getName());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int header = buffer.position();
+        buffer.putShort((short) 0)
+                .putShort((short) template.id())
+                .putShort((short) SCHEMA_ID)
+                .putShort((short) VERSION);
+        switch (template) {
+            case ENTER_ORDER_RQ -> encodeEnterOrderRq((EnterOrderRq) message, buffer, header);
+            case DELETE_ORDER_RQ -> encodeDeleteOrderRq((DeleteOrderRq) message, buffer, header);
+            case CHANGE_MATCHING_STATE_RQ -> encodeChangeMatchingStateRq((ChangeMatchingStateRq) message, buffer, header);
+            case BATCH_RQ -> encodeBatchRq((BatchRq) message, buffer, header);
+            case ORDER_ACCEPTED -> encodeOrderEvent(message, ((OrderAcceptedEvent) message).getRequestId(), ((OrderAcceptedEvent) message).getOrderId(), buffer, header);
+            case ORDER_UPDATED -> encodeOrderEvent(message, ((OrderUpdatedEvent) message).getRequestId(), ((OrderUpdatedEvent) message).getOrderId(), buffer, header);
+            case ORDER_DELETED -> encodeOrderEvent(message, ((OrderDeletedEvent) message).getRequestId(), ((OrderDeletedEvent) message).getOrderId(), buffer, header);
+            case ORDER_ACTIVATED -> encodeOrderEvent(message, ((OrderActivatedEvent) message).getRequestId(), ((OrderActivatedEvent) message).getOrderId(), buffer, header);
+            case ORDER_REJECTED -> encodeOrderRejectedEvent((OrderRejectedEvent) message, buffer, header);
+            case ORDER_EXECUTED -> encodeOrderExecutedEvent((OrderExecutedEvent) message, buffer, header);
+            case OPENING_PRICE -> encodeOpeningPriceEvent((OpeningPriceEvent) message, buffer, header);
+            case SECURITY_STATE_CHANGED -> encodeSecurityStateChangedEvent((SecurityStateChangedEvent) message, buffer, header);
+            case TRADE -> encodeTradeEvent((TradeEvent) message, buffer, header);
+        }
+    }
+
+    public static WireTemplate templateOf(ByteBuffer buffer) {
+        return WireTemplate.of(Short.toUnsignedInt(buffer.order(ByteOrder.LITTLE_ENDIAN).getShort(buffer.position() + 2)));
+    }
+
+    public static Object decode(ByteBuffer buffer) {
+        return switch (templateOf(buffer)) {
+            case ENTER_ORDER_RQ -> decode(buffer, new EnterOrderRq());
+            case DELETE_ORDER_RQ -> decode(buffer, new DeleteOrderRq());
+            case CHANGE_MATCHING_STATE_RQ -> decode(buffer, new ChangeMatchingStateRq());
+            case BATCH_RQ -> decodeBatchRq(buffer);
+            case ORDER_ACCEPTED -> decodeOrderEvent(buffer, WireTemplate.ORDER_ACCEPTED, OrderAcceptedEvent::new);
+            case ORDER_UPDATED -> decodeOrderEvent(buffer, WireTemplate.ORDER_UPDATED, OrderUpdatedEvent::new);
+            case ORDER_DELETED -> decodeOrderEvent(buffer, WireTemplate.ORDER_DELETED, OrderDeletedEvent::new);
+            case ORDER_ACTIVATED -> decodeOrderEvent(buffer, WireTemplate.ORDER_ACTIVATED, OrderActivatedEvent::new);
+            case ORDER_REJECTED -> decodeOrderRejectedEvent(buffer);
+            case ORDER_EXECUTED -> decodeOrderExecutedEvent(buffer);
+            case OPENING_PRICE -> decodeOpeningPriceEvent(buffer);
+            case SECURITY_STATE_CHANGED -> decodeSecurityStateChangedEvent(buffer);
+            case TRADE -> decodeTradeEvent(buffer);
+        };
+    }
+
+    public static EnterOrderRq decode(ByteBuffer buffer, EnterOrderRq rq) {
+        int blockEnd = readHeader(buffer, WireTemplate.ENTER_ORDER_RQ);
+        rq.setRequestType(getEnum(buffer, ENTRY_TYPES));
+        rq.setSide(getEnum(buffer, SIDES));
+        rq.setRequestId(buffer.getLong());
+        rq.setOrderId(buffer.getLong());
+        rq.setEntryTime(EngineClock.toLocalDateTime(buffer.getLong()));
+        rq.setQuantity(buffer.getInt());
+        rq.setPrice(buffer.getInt());
+        rq.setBrokerId(buffer.getLong());
+        rq.setShareholderId(buffer.getLong());
+        rq.setPeakSize(buffer.getInt());
+        rq.setMinimumExecutionQuantity(buffer.getInt());
+        rq.setStopPrice(buffer.getInt());
+        buffer.position(blockEnd);
+        rq.setSecurityIsin(getString(buffer));
+        return rq;
+    }
+
+    public static DeleteOrderRq decode(ByteBuffer buffer, DeleteOrderRq rq) {
+        int blockEnd = readHeader(buffer, WireTemplate.DELETE_ORDER_RQ);
+        rq.setSide(getEnum(buffer, SIDES));
+        rq.setRequestId(buffer.getLong());
+        rq.setOrderId(buffer.getLong());
+        rq.setEntryTime(EngineClock.toLocalDateTime(buffer.getLong()));
+        buffer.position(blockEnd);
+        rq.setSecurityIsin(getString(buffer));
+        return rq;
+    }
+
+    public static ChangeMatchingStateRq decode(ByteBuffer buffer, ChangeMatchingStateRq rq) {
+        int blockEnd = readHeader(buffer, WireTemplate.CHANGE_MATCHING_STATE_RQ);
+        rq.setTargetState(getEnum(buffer, MATCHING_STATES));
+        buffer.position(blockEnd);
+        rq.setSecurityIsin(getString(buffer));
+        return rq;
+    }
+
+    private static void encodeEnterOrderRq(EnterOrderRq rq, ByteBuffer buffer, int header) {
+        putEnum(buffer, rq.getRequestType());
+        putEnum(buffer, rq.getSide());
+        buffer.putLong(rq.getRequestId())
+                .putLong(rq.getOrderId())
+                .putLong(EngineClock.toTimestamp(rq.getEntryTime()))
+                .putInt(rq.getQuantity())
+                .putInt(rq.getPrice())
+                .putLong(rq.getBrokerId())
+                .putLong(rq.getShareholderId())
+                .putInt(rq.getPeakSize())
+                .putInt(rq.getMinimumExecutionQuantity())
+                .putInt(rq.getStopPrice());
+        endBlock(buffer, header);
+        putString(buffer, rq.getSecurityIsin());
+    }
+
+    private static void encodeDeleteOrderRq(DeleteOrderRq rq, ByteBuffer buffer, int header) {
+        putEnum(buffer, rq.getSide());
+        buffer.putLong(rq.getRequestId())
+                .putLong(rq.getOrderId())
+                .putLong(EngineClock.toTimestamp(rq.getEntryTime()));
+        endBlock(buffer, header);
+        putString(buffer, rq.getSecurityIsin());
+    }
+
+    private static void encodeChangeMatchingStateRq(ChangeMatchingStateRq rq, ByteBuffer buffer, int header) {
+        putEnum(buffer, rq.getTargetState());
+        endBlock(buffer, header);
+        putString(buffer, rq.getSecurityIsin());
+    }
+
+    private static void encodeBatchRq(BatchRq rq, ByteBuffer buffer, int header) {
+        endBlock(buffer, header);
+        List<Object> requests = rq.getRequests();
+        putCount(buffer, requests.size(), "requests in a batch");
+        for (Object request : requests) {
+            if (!BatchRq.isSupported(request))
+                throw new WireCodecException("Unsupported request in batch: " + request);
+            encode(request, buffer);
+        }
+    }
+
+    private static BatchRq decodeBatchRq(ByteBuffer buffer) {
+        int blockEnd = readHeader(buffer, WireTemplate.BATCH_RQ);
+        buffer.position(blockEnd);
+        int count = Short.toUnsignedInt(buffer.getShort());
+        List<Object> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Object request = decode(buffer);
+            if (!BatchRq.isSupported(request))
+                throw new WireCodecException("Unsupported request in batch: " + request);
+            requests.add(request);
+        }
+        return new BatchRq(requests);
+    }
+
+    private static void encodeOrderEvent(Object event, long requestId, long orderId, ByteBuffer buffer, int header) {
+        buffer.putLong(((Event) event).getTimestamp())
+                .putLong(requestId)
+                .putLong(orderId);
+        endBlock(buffer, header);
+    }
+
+    private static void encodeOrderRejectedEvent(OrderRejectedEvent event, ByteBuffer buffer, int header) {
+        encodeOrderEvent(event, event.getRequestId(), event.getOrderId(), buffer, header);
+        List<String> errors = event.getErrors();
+        int count = errors == null ? 0 : errors.size();
+        putCount(buffer, count, "rejection reasons");
+        for (int i = 0; i < count; i++)
+            putString(buffer, errors.get(i));
+    }
+
+    private static void encodeOrderExecutedEvent(OrderExecutedEvent event, ByteBuffer buffer, int header) {
+        encodeOrderEvent(event, event.getRequestId(), event.getOrderId(), buffer, header);
+        List<TradeDTO> trades = event.getTrades();
+        int count = trades == null ? 0 : trades.size();
+        buffer.putShort((short) TRADE_BLOCK_LENGTH);
+        putCount(buffer, count, "trades in an execution");
+        for (int i = 0; i < count; i++) {
+            TradeDTO trade = trades.get(i);
+            buffer.putInt(trade.price())
+                    .putInt(trade.quantity())
+                    .putLong(trade.buyOrderId())
+                    .putLong(trade.sellOrderId());
+            putString(buffer, trade.securityIsin());
+        }
+    }
+
+    private static void encodeOpeningPriceEvent(OpeningPriceEvent event, ByteBuffer buffer, int header) {
+        buffer.putLong(event.getTimestamp())
+                .putInt(event.getOpeningPrice())
+                .putInt(event.getTradableQuantity());
+        endBlock(buffer, header);
+        putString(buffer, event.getSecurityIsin());
+    }
+
+    private static void encodeSecurityStateChangedEvent(SecurityStateChangedEvent event, ByteBuffer buffer, int header) {
+        buffer.putLong(event.getTimestamp());
+        putEnum(buffer, event.getState());
+        endBlock(buffer, header);
+        putString(buffer, event.getSecurityIsin());
+    }
+
+    private static void encodeTradeEvent(TradeEvent event, ByteBuffer buffer, int header) {
+        buffer.putLong(event.getTimestamp())
+                .putInt(event.getPrice())
+                .putInt(event.getQuantity())
+                .putLong(event.getBuyId())
+                .putLong(event.getSellId());
+        endBlock(buffer, header);
+        putString(buffer, event.getSecurityIsin());
+    }
+
+    @FunctionalInterface
+    private interface OrderEventFactory<E extends Event> {
+        E create(long requestId, long orderId);
+    }
+
+    private static <E extends Event> E decodeOrderEvent(ByteBuffer buffer, WireTemplate template, OrderEventFactory<E> factory) {
+        int blockEnd = readHeader(buffer, template);
+        long timestamp = buffer.getLong();
+        long requestId = buffer.getLong();
+        long orderId = buffer.getLong();
+        buffer.position(blockEnd);
+        E event = factory.create(requestId, orderId);
+        event.setTimestamp(timestamp);
+        return event;
+    }
+
+    private static OrderRejectedEvent decodeOrderRejectedEvent(ByteBuffer buffer) {
+        OrderRejectedEvent event = decodeOrderEvent(buffer, WireTemplate.ORDER_REJECTED,
+                (requestId, orderId) -> new OrderRejectedEvent(requestId, orderId, null));
+        int count = Short.toUnsignedInt(buffer.getShort());
+        List<String> errors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            errors.add(getString(buffer));
+        event.setErrors(errors);
+        return event;
+    }
+
+    private static OrderExecutedEvent decodeOrderExecutedEvent(ByteBuffer buffer) {
+        OrderExecutedEvent event = decodeOrderEvent(buffer, WireTemplate.ORDER_EXECUTED,
+                (requestId, orderId) -> new OrderExecutedEvent(requestId, orderId, null));
+        int blockLength = Short.toUnsignedInt(buffer.getShort());
+        int count = Short.toUnsignedInt(buffer.getShort());
+        List<TradeDTO> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int blockEnd = buffer.position() + blockLength;
+            int price = buffer.getInt();
+            int quantity = buffer.getInt();
+            long buyOrderId = buffer.getLong();
+            long sellOrderId = buffer.getLong();
+            buffer.position(blockEnd);
+            trades.add(new TradeDTO(getString(buffer), price, quantity, buyOrderId, sellOrderId));
+        }
+        event.setTrades(trades);
+        return event;
+    }
+
+    private static OpeningPriceEvent decodeOpeningPriceEvent(ByteBuffer buffer) {
+        int blockEnd = readHeader(buffer, WireTemplate.OPENING_PRICE);
+        OpeningPriceEvent event = new OpeningPriceEvent();
+        event.setTimestamp(buffer.getLong());
+        event.setOpeningPrice(buffer.getInt());
+        event.setTradableQuantity(buffer.getInt());
+        buffer.position(blockEnd);
+        event.setSecurityIsin(getString(buffer));
+        return event;
+    }
+
+    private static SecurityStateChangedEvent decodeSecurityStateChangedEvent(ByteBuffer buffer) {
+        int blockEnd = readHeader(buffer, WireTemplate.SECURITY_STATE_CHANGED);
+        SecurityStateChangedEvent event = new SecurityStateChangedEvent();
+        event.setTimestamp(buffer.getLong());
+        event.setState(getEnum(buffer, MATCHING_STATES));
+        buffer.position(blockEnd);
+        event.setSecurityIsin(getString(buffer));
+        return event;
+    }
+
+    private static TradeEvent decodeTradeEvent(ByteBuffer buffer) {
+        int blockEnd = readHeader(buffer, WireTemplate.TRADE);
+        TradeEvent event = new TradeEvent();
+        event.setTimestamp(buffer.getLong());
+        event.setPrice(buffer.getInt());
+        event.setQuantity(buffer.getInt());
+        event.setBuyId(buffer.getLong());
+        event.setSellId(buffer.getLong());
+        buffer.position(blockEnd);
+        event.setSecurityIsin(getString(buffer));
+        return event;
+    }
+
+    private static int readHeader(ByteBuffer buffer, WireTemplate expected) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int blockLength = Short.toUnsignedInt(buffer.getShort());
+        int templateId = Short.toUnsignedInt(buffer.getShort());
+        int schemaId = Short.toUnsignedInt(buffer.getShort());
+        buffer.getShort();
+        if (schemaId != SCHEMA_ID)
+            throw new WireCodecException("Unknown wire schema " + schemaId);
+        if (templateId != expected.id())
+            throw new WireCodecException("Expected wire template " + expected.id() + " but found " + templateId);
+        return buffer.position() + blockLength;
+    }
+
+    private static void endBlock(ByteBuffer buffer, int header) {
+        buffer.putShort(header, (short) (buffer.position() - header - HEADER_LENGTH));
+    }
+
+    private static void putEnum(ByteBuffer buffer, Enum<?> value) {
+        buffer.put(value == null ? NULL_ENUM : (byte) value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+        byte ordinal = buffer.get();
+        if (ordinal == NULL_ENUM)
+            return null;
+        if (ordinal < 0 || ordinal >= values.length)
+            throw new WireCodecException("Ordinal " + ordinal + " is out of range for " + values.getClass().getComponentType().getSimpleName());
+        return values[ordinal];
+    }
+
+    private static void putCount(ByteBuffer buffer, int count, String what) {
+        if (count > MAX_UNSIGNED_SHORT)
+            throw new WireCodecException(count + " " + what + " do not fit in one message");
+        buffer.putShort((short) count);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++)
+            ascii = value.charAt(i) < 0x80;
+        if (ascii) {
+            putStringLength(buffer, length);
+            for (int i = 0; i < length; i++)
+                buffer.put((byte) value.charAt(i));
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putStringLength(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static void putStringLength(ByteBuffer buffer, int length) {
+        if (length >= NULL_STRING)
+            throw new WireCodecException("String of " + length + " bytes does not fit in one field");
+        buffer.putShort((short) length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_STRING)
+            return null;
+        if (length > buffer.remaining())
+            throw new WireCodecException("String of " + length + " bytes runs past the end of the message");
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
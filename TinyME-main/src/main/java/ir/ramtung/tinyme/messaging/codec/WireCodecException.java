@@ -0,0 +1,11 @@
+package ir.ramtung.tinyme.messaging.codec;
+
+/**
+ * Thrown when a message does not fit the wire layout on encoding, or when the bytes being
+ * decoded do not form a valid message.
+ */
+public class WireCodecException extends IllegalArgumentException {
+    public WireCodecException(String message) {
+        super(message);
+    }
+}
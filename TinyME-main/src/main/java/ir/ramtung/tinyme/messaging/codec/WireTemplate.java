@@ -0,0 +1,60 @@
+package ir.ramtung.tinyme.messaging.codec;
+
+import ir.ramtung.tinyme.messaging.event.*;
+import ir.ramtung.tinyme.messaging.request.BatchRq;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+
+public enum WireTemplate {
+    ENTER_ORDER_RQ(1, EnterOrderRq.class),
+    DELETE_ORDER_RQ(2, DeleteOrderRq.class),
+    CHANGE_MATCHING_STATE_RQ(3, ChangeMatchingStateRq.class),
+    BATCH_RQ(4, BatchRq.class),
+    ORDER_ACCEPTED(10, OrderAcceptedEvent.class),
+    ORDER_UPDATED(11, OrderUpdatedEvent.class),
+    ORDER_DELETED(12, OrderDeletedEvent.class),
+    ORDER_ACTIVATED(13, OrderActivatedEvent.class),
+    ORDER_REJECTED(14, OrderRejectedEvent.class),
+    ORDER_EXECUTED(15, OrderExecutedEvent.class),
+    OPENING_PRICE(16, OpeningPriceEvent.class),
+    SECURITY_STATE_CHANGED(17, SecurityStateChangedEvent.class),
+    TRADE(18, TradeEvent.class);
+
+    private static final WireTemplate[] BY_ID = new WireTemplate[32];
+
+    static {
+        for (WireTemplate template : values())
+            BY_ID[template.id] = template;
+    }
+
+    private final int id;
+    private final Class<?> type;
+
+    WireTemplate(int id, Class<?> type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public Class<?> type() {
+        return type;
+    }
+
+    public static WireTemplate of(int id) {
+        WireTemplate template = id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+        if (template == null)
+            throw new WireCodecException("Unknown wire template " + id);
+        return template;
+    }
+
+    public static WireTemplate of(Class<?> type) {
+        for (WireTemplate template : values())
+            if (template.type == type)
+                return template;
+        return null;
+    }
+}
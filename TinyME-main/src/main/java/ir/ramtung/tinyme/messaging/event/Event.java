@@ -1,24 +1,40 @@
 package ir.ramtung.tinyme.messaging.event;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import ir.ramtung.tinyme.domain.service.EngineClock;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
 
 @EqualsAndHashCode
 public abstract class Event {
     @Getter
-    @JsonSerialize(using = LocalDateTimeSerializer.class)
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
-    private final LocalDateTime time;
+    @Setter
+    @JsonIgnore
+    private long timestamp;
     public Event() {
-        time = LocalDateTime.now();
+        timestamp = EngineClock.NO_TIME;
     }
     public Event(LocalDateTime time) {
-        this.time = time;
+        this.timestamp = EngineClock.toTimestamp(time);
+    }
+
+    @JsonProperty("time")
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    public LocalDateTime getTime() {
+        return EngineClock.toLocalDateTime(timestamp);
+    }
+
+    @JsonProperty("time")
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    private void setTime(LocalDateTime time) {
+        timestamp = EngineClock.toTimestamp(time);
     }
 }
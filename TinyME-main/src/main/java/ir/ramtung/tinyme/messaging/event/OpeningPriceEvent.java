@@ -1,6 +1,5 @@
 package ir.ramtung.tinyme.messaging.event;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -8,12 +7,17 @@ import java.time.LocalDateTime;
 
 
 @Data
-@EqualsAndHashCode(callSuper = false)
-@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 public class OpeningPriceEvent extends Event {
-        private LocalDateTime time;
         private String securityIsin;
         private int openingPrice;
         private int tradableQuantity;
+
+        public OpeningPriceEvent(LocalDateTime time, String securityIsin, int openingPrice, int tradableQuantity) {
+                super(time);
+                this.securityIsin = securityIsin;
+                this.openingPrice = openingPrice;
+                this.tradableQuantity = tradableQuantity;
+        }
 }
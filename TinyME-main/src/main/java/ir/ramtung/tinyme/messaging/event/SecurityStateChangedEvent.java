@@ -1,7 +1,6 @@
 package ir.ramtung.tinyme.messaging.event;
 
 import ir.ramtung.tinyme.messaging.request.MatchingState;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -10,12 +9,16 @@ import java.time.LocalDateTime;
 
 
 @Data
-@EqualsAndHashCode(callSuper = false)
-@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 public class SecurityStateChangedEvent extends Event{
-    private LocalDateTime time;
     private String securityIsin;
     MatchingState state;
+
+    public SecurityStateChangedEvent(LocalDateTime time, String securityIsin, MatchingState state) {
+        super(time);
+        this.securityIsin = securityIsin;
+        this.state = state;
+    }
 }
 
@@ -1,7 +1,6 @@
 package ir.ramtung.tinyme.messaging.event;
 
 import ir.ramtung.tinyme.domain.entity.Trade;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -10,14 +9,21 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@EqualsAndHashCode(callSuper = false)
-@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 public class TradeEvent extends Event {
-    LocalDateTime time;
     private String securityIsin;
     int price;
     int quantity;
     long buyId;
     long sellId;
+
+    public TradeEvent(LocalDateTime time, String securityIsin, int price, int quantity, long buyId, long sellId) {
+        super(time);
+        this.securityIsin = securityIsin;
+        this.price = price;
+        this.quantity = quantity;
+        this.buyId = buyId;
+        this.sellId = sellId;
+    }
 }
@@ -11,11 +11,12 @@ public class InvalidRequestException extends Exception {
     private final List<String> reasons;
 
     public InvalidRequestException(List<String> reasons) {
+        super(null, null, false, false);
         this.reasons = reasons;
     }
 
     public InvalidRequestException(String reason) {
-        this.reasons = List.of(reason);
+        this(List.of(reason));
     }
 
 
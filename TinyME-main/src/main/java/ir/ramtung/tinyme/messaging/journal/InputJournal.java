@@ -0,0 +1,120 @@
+package ir.ramtung.tinyme.messaging.journal;
+
+import ir.ramtung.tinyme.domain.service.EngineClock;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventSink;
+import ir.ramtung.tinyme.messaging.RequestLog;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@Component
+public class InputJournal implements SmartLifecycle {
+    private static final EventSink REPLAY_SINK = event -> { };
+
+    private final Logger log = Logger.getLogger(this.getClass().getName());
+    private final OrderHandler orderHandler;
+    @Value("${journal.enabled:false}")
+    private boolean enabled;
+    @Value("${journal.directory:journal}")
+    private String directory;
+    @Value("${journal.segmentBytes:67108864}")
+    private int segmentBytes;
+    @Value("${journal.flush:BATCH}")
+    private JournalFlush flush;
+    @Value("${journal.batchSize:64}")
+    private int batchSize;
+    @Value("${journal.flushMillis:5}")
+    private long flushMillis;
+    private Journal journal;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public InputJournal(OrderHandler orderHandler) {
+        this.orderHandler = orderHandler;
+    }
+
+    /**
+     * Called by the order handler right after a request is stamped, while it still holds the
+     * engine-wide lock it takes while journaling, so the journal sees requests in the order
+     * they are processed and records the stamps they were processed with.
+     */
+    public void append(Object request, long sequence, long timestamp) {
+        if (running)
+            journal.append(request, sequence, timestamp);
+    }
+
+    public synchronized void checkpoint() {
+        if (journal != null)
+            journal.checkpoint();
+    }
+
+    private void replay(Object request, long sequence, long timestamp) {
+        try {
+            EngineClock.replay(sequence, timestamp, () -> handle(request));
+        } catch (RuntimeException ex) {
+            log.log(Level.SEVERE, "Skipped journaled request " + sequence + " that failed on replay: " + request, ex);
+        }
+    }
+
+    private void handle(Object request) {
+        if (request instanceof EnterOrderRq enterOrderRq)
+            orderHandler.handleEnterOrder(enterOrderRq, REPLAY_SINK);
+        else if (request instanceof DeleteOrderRq deleteOrderRq)
+            orderHandler.handleDeleteOrder(deleteOrderRq, REPLAY_SINK);
+        else
+            orderHandler.handleChangeMatchingStateRq((ChangeMatchingStateRq) request, REPLAY_SINK);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running)
+            return;
+        journal = new Journal(Path.of(directory), segmentBytes, flush, batchSize);
+        orderHandler.setRequestLog(this::append);
+        long replayed = journal.recover(this::replay);
+        log.info("Replayed input journal up to sequence " + replayed);
+        if (flush == JournalFlush.TIMER) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleAtFixedRate(journal::force, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running)
+            return;
+        running = false;
+        orderHandler.setRequestLog(RequestLog.NONE);
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher = null;
+        }
+        journal.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 3;
+    }
+}
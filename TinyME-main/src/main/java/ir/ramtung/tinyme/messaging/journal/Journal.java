@@ -0,0 +1,219 @@
+package ir.ramtung.tinyme.messaging.journal;
+
+import ir.ramtung.tinyme.messaging.codec.WireCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of requests in memory-mapped segments. Each record header holds the payload
+ * length, a CRC32C of the rest of the record, the record sequence, and the engine sequence and
+ * timestamp the request was stamped with, so that replay can reproduce the original stamps.
+ */
+public class Journal implements AutoCloseable {
+    public static final int RECORD_HEADER_LENGTH = 32;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final JournalFlush flush;
+    private final int batchSize;
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer segment;
+    private int position;
+    private int forcedPosition;
+    private int unforced;
+    private long lastSequence;
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(Object request, long engineSequence, long engineTimestamp);
+    }
+
+    public Journal(Path directory, int segmentBytes, JournalFlush flush, int batchSize) {
+        if (segmentBytes <= RECORD_HEADER_LENGTH)
+            throw new IllegalArgumentException("Journal segments must be larger than " + RECORD_HEADER_LENGTH + " bytes");
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.flush = flush;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public synchronized long recover(RecordHandler handler) {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            if (!segments.isEmpty())
+                lastSequence = firstSequenceOf(segments.get(0)) - 1;
+            for (int i = 0; i < segments.size(); i++) {
+                segment = map(segments.get(i));
+                position = 0;
+                boolean complete = replay(handler);
+                if (!complete && i < segments.size() - 1)
+                    throw new IllegalStateException("Corrupt record in journal segment " + segments.get(i));
+            }
+            if (segment == null)
+                roll();
+            else
+                truncateTail();
+            forcedPosition = position;
+            return lastSequence;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private boolean replay(RecordHandler handler) {
+        while (position + RECORD_HEADER_LENGTH <= segmentBytes) {
+            int length = segment.getInt(position);
+            if (length == 0)
+                return true;
+            if (length < 0 || length > segmentBytes - position - RECORD_HEADER_LENGTH)
+                return false;
+            long sequence = segment.getLong(position + 8);
+            if (sequence != lastSequence + 1 || segment.getInt(position + 4) != checksum(position, length))
+                return false;
+            handler.accept(WireCodec.decode(segment.slice(position + RECORD_HEADER_LENGTH, length)),
+                    segment.getLong(position + 16), segment.getLong(position + 24));
+            lastSequence = sequence;
+            position += RECORD_HEADER_LENGTH + length;
+        }
+        return true;
+    }
+
+    private void truncateTail() {
+        for (int i = position; i < segmentBytes; i++)
+            segment.put(i, (byte) 0);
+    }
+
+    public synchronized long append(Object request, long engineSequence, long engineTimestamp) {
+        if (segment == null)
+            throw new IllegalStateException("Journal is not open");
+        int length = encode(request);
+        if (length < 0) {
+            if (position == 0)
+                throw new IllegalArgumentException("Request does not fit in a journal segment: " + request);
+            roll();
+            length = encode(request);
+            if (length < 0)
+                throw new IllegalArgumentException("Request does not fit in a journal segment: " + request);
+        }
+        long sequence = lastSequence + 1;
+        segment.putLong(position + 8, sequence);
+        segment.putLong(position + 16, engineSequence);
+        segment.putLong(position + 24, engineTimestamp);
+        segment.putInt(position + 4, checksum(position, length));
+        segment.putInt(position, length);
+        position += RECORD_HEADER_LENGTH + length;
+        lastSequence = sequence;
+        if (flush == JournalFlush.MESSAGE || (flush == JournalFlush.BATCH && ++unforced >= batchSize))
+            force();
+        return sequence;
+    }
+
+    private int encode(Object request) {
+        int start = position + RECORD_HEADER_LENGTH;
+        if (start > segmentBytes)
+            return -1;
+        ByteBuffer payload = segment.slice(start, segmentBytes - start).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            WireCodec.encode(request, payload);
+        } catch (BufferOverflowException ex) {
+            return -1;
+        }
+        return payload.position();
+    }
+
+    private int checksum(int recordStart, int length) {
+        crc.reset();
+        crc.update(segment.slice(recordStart + 8, length + RECORD_HEADER_LENGTH - 8));
+        return (int) crc.getValue();
+    }
+
+    public synchronized void force() {
+        if (segment == null || forcedPosition == position)
+            return;
+        segment.force(forcedPosition, position - forcedPosition);
+        forcedPosition = position;
+        unforced = 0;
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized void checkpoint() {
+        boolean open = segment != null;
+        release();
+        try {
+            for (Path path : segments())
+                Files.delete(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (open)
+            roll();
+    }
+
+    @Override
+    public synchronized void close() {
+        release();
+    }
+
+    private void release() {
+        force();
+        segment = null;
+        position = 0;
+        forcedPosition = 0;
+    }
+
+    private void roll() {
+        force();
+        try {
+            segment = map(directory.resolve(SEGMENT_PREFIX + String.format("%020d", lastSequence + 1) + SEGMENT_SUFFIX));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        position = 0;
+        forcedPosition = 0;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return mapped;
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory))
+            return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>();
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(segments::add);
+            return segments;
+        }
+    }
+}
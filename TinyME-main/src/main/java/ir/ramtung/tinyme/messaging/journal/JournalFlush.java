@@ -0,0 +1,7 @@
+package ir.ramtung.tinyme.messaging.journal;
+
+public enum JournalFlush {
+    MESSAGE,
+    BATCH,
+    TIMER
+}
@@ -0,0 +1,155 @@
+package ir.ramtung.tinyme.messaging.pipeline;
+
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.RejectionReason;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.request.BatchRq;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+@Component
+public class RequestPipeline implements SmartLifecycle {
+    private static final int VALIDATION_STAGE = 0;
+    private static final int MATCHING_STAGE = 1;
+    private static final int PUBLISHING_STAGE = 2;
+
+    private final Logger log = Logger.getLogger(this.getClass().getName());
+    private final OrderHandler orderHandler;
+    private final EventPublisher eventPublisher;
+    private final boolean enabled;
+    private final RingBuffer<RequestSlot> ring;
+    private final Thread[] stages;
+    private volatile boolean running = false;
+
+    public RequestPipeline(OrderHandler orderHandler, EventPublisher eventPublisher,
+                           @Value("${requestPipeline:false}") boolean enabled,
+                           @Value("${requestPipelineSize:1024}") int size) {
+        this.orderHandler = orderHandler;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.ring = new RingBuffer<>(size, RequestSlot::new, 3);
+        this.stages = new Thread[] {
+                new Thread(() -> runStage(VALIDATION_STAGE, this::validate), "pipeline-validation"),
+                new Thread(() -> runStage(MATCHING_STAGE, this::match), "pipeline-matching"),
+                new Thread(() -> runStage(PUBLISHING_STAGE, this::publish), "pipeline-publishing")
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized void submit(EnterOrderRq enterOrderRq) {
+        long sequence = ring.next();
+        ring.get(sequence).copyFrom(enterOrderRq);
+        ring.publish(sequence);
+    }
+
+    public synchronized void submit(DeleteOrderRq deleteOrderRq) {
+        long sequence = ring.next();
+        ring.get(sequence).copyFrom(deleteOrderRq);
+        ring.publish(sequence);
+    }
+
+    public synchronized void submit(ChangeMatchingStateRq changeMatchingStateRq) {
+        long sequence = ring.next();
+        ring.get(sequence).copyFrom(changeMatchingStateRq);
+        ring.publish(sequence);
+    }
+
+    public synchronized void submit(BatchRq batchRq) {
+        for (Object request : batchRq.getRequests()) {
+            if (request instanceof EnterOrderRq enterOrderRq)
+                submit(enterOrderRq);
+            else if (request instanceof DeleteOrderRq deleteOrderRq)
+                submit(deleteOrderRq);
+            else if (request instanceof ChangeMatchingStateRq changeMatchingStateRq)
+                submit(changeMatchingStateRq);
+            else
+                throw new IllegalArgumentException("Unsupported request in batch: " + request);
+        }
+    }
+
+    private void validate(RequestSlot slot) {
+        slot.context.clear();
+        slot.errors = slot.type == RequestSlot.Type.ENTER_ORDER
+                ? orderHandler.collectRequestErrors(slot.enterOrderRq, slot.context)
+                : RejectionReason.NONE;
+    }
+
+    private void match(RequestSlot slot) {
+        slot.events.clear();
+        switch (slot.type) {
+            case ENTER_ORDER -> orderHandler.handleValidatedEnterOrder(slot.enterOrderRq, slot.context, slot.errors, slot);
+            case DELETE_ORDER -> orderHandler.handleDeleteOrder(slot.deleteOrderRq, slot);
+            case CHANGE_MATCHING_STATE -> orderHandler.handleChangeMatchingStateRq(slot.changeMatchingStateRq, slot);
+        }
+    }
+
+    private void publish(RequestSlot slot) {
+        for (Event event : slot.events)
+            eventPublisher.publish(event);
+        slot.events.clear();
+    }
+
+    private void runStage(int stage, Consumer<RequestSlot> handler) {
+        long next = 0;
+        while (!ring.isHalted()) {
+            long available = ring.waitFor(stage, next);
+            for (; next <= available; next++) {
+                try {
+                    handler.accept(ring.get(next));
+                } catch (RuntimeException ex) {
+                    log.severe("Pipeline stage " + stage + " failed on request " + next + ": " + ex);
+                }
+            }
+            ring.release(stage, available);
+        }
+    }
+
+    public void awaitIdle() {
+        for (int attempt = 0; ring.completedSequence() < ring.publishedSequence(); attempt++)
+            RingBuffer.idle(attempt);
+    }
+
+    @Override
+    public void start() {
+        if (enabled)
+            for (Thread stage : stages)
+                stage.start();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (enabled) {
+            awaitIdle();
+            ring.halt();
+            try {
+                for (Thread stage : stages)
+                    stage.join(10_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
@@ -0,0 +1,63 @@
+package ir.ramtung.tinyme.messaging.pipeline;
+
+import ir.ramtung.tinyme.domain.service.RequestContext;
+import ir.ramtung.tinyme.messaging.EventSink;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+
+import java.util.ArrayList;
+
+public class RequestSlot implements EventSink {
+    enum Type {
+        ENTER_ORDER,
+        DELETE_ORDER,
+        CHANGE_MATCHING_STATE
+    }
+
+    Type type;
+    final EnterOrderRq enterOrderRq = new EnterOrderRq();
+    final DeleteOrderRq deleteOrderRq = new DeleteOrderRq();
+    final ChangeMatchingStateRq changeMatchingStateRq = new ChangeMatchingStateRq();
+    final RequestContext context = new RequestContext();
+    long errors;
+    final ArrayList<Event> events = new ArrayList<>();
+
+    @Override
+    public void publish(Event event) {
+        events.add(event);
+    }
+
+    void copyFrom(EnterOrderRq rq) {
+        type = Type.ENTER_ORDER;
+        enterOrderRq.setRequestType(rq.getRequestType());
+        enterOrderRq.setRequestId(rq.getRequestId());
+        enterOrderRq.setSecurityIsin(rq.getSecurityIsin());
+        enterOrderRq.setOrderId(rq.getOrderId());
+        enterOrderRq.setEntryTime(rq.getEntryTime());
+        enterOrderRq.setSide(rq.getSide());
+        enterOrderRq.setQuantity(rq.getQuantity());
+        enterOrderRq.setPrice(rq.getPrice());
+        enterOrderRq.setBrokerId(rq.getBrokerId());
+        enterOrderRq.setShareholderId(rq.getShareholderId());
+        enterOrderRq.setPeakSize(rq.getPeakSize());
+        enterOrderRq.setMinimumExecutionQuantity(rq.getMinimumExecutionQuantity());
+        enterOrderRq.setStopPrice(rq.getStopPrice());
+    }
+
+    void copyFrom(DeleteOrderRq rq) {
+        type = Type.DELETE_ORDER;
+        deleteOrderRq.setRequestId(rq.getRequestId());
+        deleteOrderRq.setSecurityIsin(rq.getSecurityIsin());
+        deleteOrderRq.setSide(rq.getSide());
+        deleteOrderRq.setOrderId(rq.getOrderId());
+        deleteOrderRq.setEntryTime(rq.getEntryTime());
+    }
+
+    void copyFrom(ChangeMatchingStateRq rq) {
+        type = Type.CHANGE_MATCHING_STATE;
+        changeMatchingStateRq.setSecurityIsin(rq.getSecurityIsin());
+        changeMatchingStateRq.setTargetState(rq.getTargetState());
+    }
+}
@@ -0,0 +1,84 @@
+package ir.ramtung.tinyme.messaging.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public class RingBuffer<T> {
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong[] stageSequences;
+    private long nextSequence = 0;
+    private volatile boolean halted = false;
+
+    public RingBuffer(int capacity, Supplier<T> factory, int stages) {
+        if (Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two");
+        slots = new Object[capacity];
+        for (int i = 0; i < capacity; i++)
+            slots[i] = factory.get();
+        mask = capacity - 1;
+        stageSequences = new AtomicLong[stages];
+        for (int i = 0; i < stages; i++)
+            stageSequences[i] = new AtomicLong(-1);
+    }
+
+    static void idle(int attempt) {
+        if (attempt < 100)
+            Thread.onSpinWait();
+        else if (attempt < 200)
+            Thread.yield();
+        else
+            LockSupport.parkNanos(50_000);
+    }
+
+    public long next() {
+        long sequence = nextSequence++;
+        long wrapPoint = sequence - slots.length;
+        for (int attempt = 0; stageSequences[stageSequences.length - 1].get() < wrapPoint; attempt++)
+            idle(attempt);
+        return sequence;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) slots[(int) (sequence & mask)];
+    }
+
+    public void publish(long sequence) {
+        cursor.set(sequence);
+    }
+
+    private AtomicLong upstreamOf(int stage) {
+        return stage == 0 ? cursor : stageSequences[stage - 1];
+    }
+
+    public long waitFor(int stage, long sequence) {
+        AtomicLong upstream = upstreamOf(stage);
+        long available;
+        for (int attempt = 0; (available = upstream.get()) < sequence && !halted; attempt++)
+            idle(attempt);
+        return available;
+    }
+
+    public void release(int stage, long sequence) {
+        stageSequences[stage].set(sequence);
+    }
+
+    public long publishedSequence() {
+        return cursor.get();
+    }
+
+    public long completedSequence() {
+        return stageSequences[stageSequences.length - 1].get();
+    }
+
+    public void halt() {
+        halted = true;
+    }
+
+    public boolean isHalted() {
+        return halted;
+    }
+}
@@ -0,0 +1,37 @@
+package ir.ramtung.tinyme.messaging.request;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRq {
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "_type")
+    @JsonSubTypes({
+            @JsonSubTypes.Type(value = EnterOrderRq.class, name = "EnterOrderRq"),
+            @JsonSubTypes.Type(value = DeleteOrderRq.class, name = "DeleteOrderRq"),
+            @JsonSubTypes.Type(value = ChangeMatchingStateRq.class, name = "ChangeMatchingStateRq")
+    })
+    private List<Object> requests = new ArrayList<>();
+
+    public static boolean isSupported(Object request) {
+        return request instanceof EnterOrderRq || request instanceof DeleteOrderRq || request instanceof ChangeMatchingStateRq;
+    }
+
+    public static String securityIsinOf(Object request) {
+        if (request instanceof EnterOrderRq enterOrderRq)
+            return enterOrderRq.getSecurityIsin();
+        if (request instanceof DeleteOrderRq deleteOrderRq)
+            return deleteOrderRq.getSecurityIsin();
+        if (request instanceof ChangeMatchingStateRq changeMatchingStateRq)
+            return changeMatchingStateRq.getSecurityIsin();
+        throw new IllegalArgumentException("Unsupported request in batch: " + request);
+    }
+}
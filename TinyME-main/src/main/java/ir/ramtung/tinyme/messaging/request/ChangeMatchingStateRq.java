@@ -1,6 +1,7 @@
 package ir.ramtung.tinyme.messaging.request;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +11,10 @@ import lombok.NoArgsConstructor;
 public class ChangeMatchingStateRq {
     private String securityIsin;
     private MatchingState targetState;
+    @JsonIgnore
+    private long sequence;
+    @JsonIgnore
+    private long timestamp;
     public ChangeMatchingStateRq(String securityIsin, MatchingState targetState){
         this.securityIsin = securityIsin;
         this.targetState = targetState;
@@ -1,18 +1,17 @@
 package ir.ramtung.tinyme.messaging.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import ir.ramtung.tinyme.domain.entity.Side;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class DeleteOrderRq {
     private long requestId;
@@ -22,6 +21,18 @@ public class DeleteOrderRq {
     @JsonSerialize(using = LocalDateTimeSerializer.class)
     @JsonDeserialize(using = LocalDateTimeDeserializer.class)
     private LocalDateTime entryTime;
+    @JsonIgnore
+    private long sequence;
+    @JsonIgnore
+    private long timestamp;
+
+    public DeleteOrderRq(long requestId, String securityIsin, Side side, long orderId, LocalDateTime entryTime) {
+        this.requestId = requestId;
+        this.securityIsin = securityIsin;
+        this.side = side;
+        this.orderId = orderId;
+        this.entryTime = entryTime;
+    }
 
     public DeleteOrderRq(long requestId, String securityIsin, Side side, long orderId) {
         this.requestId = requestId;
@@ -1,5 +1,6 @@
 package ir.ramtung.tinyme.messaging.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
@@ -28,6 +29,10 @@ public class EnterOrderRq {
     private int peakSize;
     private int minimumExecutionQuantity;
     private int stopPrice;
+    @JsonIgnore
+    private long sequence;
+    @JsonIgnore
+    private long timestamp;
 
     private EnterOrderRq(OrderEntryType orderEntryType, long requestId, String securityIsin, long orderId, LocalDateTime entryTime, Side side, int quantity, int price, long brokerId, long shareholderId, int peakSize, int minimumExecutionQuantity, int stopPrice) {
         this.requestType = orderEntryType;
@@ -3,22 +3,45 @@ package ir.ramtung.tinyme.repository;
 import ir.ramtung.tinyme.domain.entity.Broker;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 
 @Component
 public class BrokerRepository {
-    private final HashMap<Long, Broker> brokerById = new HashMap<>();
+    public static final int NO_HANDLE = IdTable.MISSING;
+
+    private final IdTable handleById = new IdTable();
+    private final ArrayList<Broker> brokers = new ArrayList<>();
+
+    public int handleOf(long brokerId) {
+        return handleById.get(brokerId);
+    }
+
+    public Broker brokerAt(int handle) {
+        return handle == NO_HANDLE ? null : brokers.get(handle);
+    }
+
     public Broker findBrokerById(long brokerId) {
-        return brokerById.get(brokerId);
+        return brokerAt(handleOf(brokerId));
     }
-    public void addBroker(Broker broker) {
-        brokerById.put(broker.getBrokerId(), broker);
+
+    public int addBroker(Broker broker) {
+        int handle = handleOf(broker.getBrokerId());
+        if (handle != NO_HANDLE) {
+            brokers.set(handle, broker);
+            return handle;
+        }
+        handle = brokers.size();
+        brokers.add(broker);
+        handleById.put(broker.getBrokerId(), handle);
+        return handle;
     }
 
     public void clear() {
-        brokerById.clear();
+        handleById.clear();
+        brokers.clear();
     }
+
     Iterable<? extends Broker> allBrokers() {
-        return brokerById.values();
+        return brokers;
     }
 }
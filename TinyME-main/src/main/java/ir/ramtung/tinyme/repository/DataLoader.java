@@ -3,6 +3,7 @@ package ir.ramtung.tinyme.repository;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.messaging.journal.InputJournal;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,8 +16,10 @@ import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.StringJoiner;
 import java.util.logging.Logger;
 
@@ -27,11 +30,13 @@ public class DataLoader {
     private final BrokerRepository brokerRepository;
     private final ShareholderRepository shareholderRepository;
     private final SecurityRepository securityRepository;
+    private final InputJournal inputJournal;
 
-    public DataLoader(BrokerRepository brokerRepository, ShareholderRepository shareholderRepository, SecurityRepository securityRepository) {
+    public DataLoader(BrokerRepository brokerRepository, ShareholderRepository shareholderRepository, SecurityRepository securityRepository, InputJournal inputJournal) {
         this.brokerRepository = brokerRepository;
         this.shareholderRepository = shareholderRepository;
         this.securityRepository = securityRepository;
+        this.inputJournal = inputJournal;
     }
 
     @Value("classpath:persistence/broker.csv")
@@ -44,6 +49,8 @@ public class DataLoader {
     private Resource positionCsvResource;
     @Value("classpath:persistence/orderbook.csv")
     private Resource orderBookCsvResource;
+    @Value("${orderBook.storage:OBJECTS}")
+    private OrderStorage orderStorage;
 
     @PostConstruct
     public void loadAll() throws Exception {
@@ -60,6 +67,7 @@ public class DataLoader {
         saveBrokers();
         saveShareholdersAndPositions();
         saveSecuritiesAndOrderBooks();
+        inputJournal.checkpoint();
         System.out.println(", done!");
     }
 
@@ -106,6 +114,7 @@ public class DataLoader {
                             .isin(line[0])
                             .tickSize(Integer.parseInt(line[1]))
                             .lotSize(Integer.parseInt(line[2]))
+                            .orderBook(new OrderBook(orderStorage))
                             .build());
                 }
             }
@@ -196,18 +205,25 @@ public class DataLoader {
             shareholderWriter.println("shareholderId,name");
             try (PrintWriter positionWriter = new PrintWriter(new FileWriter(positionCsvResource.getFile()))) {
                 positionWriter.println("shareholderId,isin,positions");
+                Map<Integer, Shareholder> shareholderByIndex = new HashMap<>();
                 for (Shareholder shareholder : shareholderRepository.allShareholders()) {
                     StringJoiner joiner = new StringJoiner(",");
                     joiner.add(String.valueOf(shareholder.getShareholderId()))
                             .add(shareholder.getName());
                     shareholderWriter.println(joiner);
-                    for (var entry : shareholder.getPositions().entrySet()) {
+                    shareholderByIndex.put(shareholder.getIndex(), shareholder);
+                }
+                for (Security security : securityRepository.allSecurities()) {
+                    security.getPositionLedger().forEach((shareholderIndex, position) -> {
+                        Shareholder shareholder = shareholderByIndex.get(shareholderIndex);
+                        if (shareholder == null)
+                            return;
                         StringJoiner posJoiner = new StringJoiner(",");
                         posJoiner.add(String.valueOf(shareholder.getShareholderId()))
-                                .add(entry.getKey().getIsin())
-                                .add(String.valueOf(entry.getValue()));
+                                .add(security.getIsin())
+                                .add(String.valueOf(position));
                         positionWriter.println(posJoiner);
-                    }
+                    });
                 }
             }
         }
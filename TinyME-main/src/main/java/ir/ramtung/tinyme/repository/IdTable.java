@@ -0,0 +1,69 @@
+package ir.ramtung.tinyme.repository;
+
+import java.util.Arrays;
+
+class IdTable {
+    static final int MISSING = -1;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] handles;
+    private int mask;
+    private int size;
+
+    IdTable() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        handles = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private int home(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    int get(long id) {
+        for (int i = home(id); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == id)
+                return handles[i];
+        }
+        return MISSING;
+    }
+
+    void put(long id, int handle) {
+        if (id == EMPTY)
+            throw new IllegalArgumentException();
+        if ((size + 1) * 2 > keys.length)
+            grow();
+        int i = home(id);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == id) {
+                handles[i] = handle;
+                return;
+            }
+        }
+        keys[i] = id;
+        handles[i] = handle;
+        size++;
+    }
+
+    void clear() {
+        allocate(16);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldHandles = handles;
+        allocate(keys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY)
+                put(oldKeys[i], oldHandles[i]);
+    }
+}
@@ -0,0 +1,76 @@
+package ir.ramtung.tinyme.repository;
+
+class IsinTable {
+    static final int MISSING = -1;
+
+    private String[] keys;
+    private int[] hashes;
+    private int[] handles;
+    private int mask;
+    private int size;
+    private int nullHandle = MISSING;
+
+    IsinTable() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        handles = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    int get(String isin) {
+        if (isin == null)
+            return nullHandle;
+        int hash = spread(isin.hashCode());
+        for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && keys[i].equals(isin))
+                return handles[i];
+        }
+        return MISSING;
+    }
+
+    void put(String isin, int handle) {
+        if (isin == null) {
+            nullHandle = handle;
+            return;
+        }
+        if ((size + 1) * 2 > keys.length)
+            grow();
+        int hash = spread(isin.hashCode());
+        int i = hash & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && keys[i].equals(isin)) {
+                handles[i] = handle;
+                return;
+            }
+        }
+        keys[i] = isin;
+        hashes[i] = hash;
+        handles[i] = handle;
+        size++;
+    }
+
+    void clear() {
+        allocate(16);
+        size = 0;
+        nullHandle = MISSING;
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        int[] oldHandles = handles;
+        allocate(keys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != null)
+                put(oldKeys[i], oldHandles[i]);
+    }
+}
@@ -3,24 +3,45 @@ package ir.ramtung.tinyme.repository;
 import ir.ramtung.tinyme.domain.entity.Security;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 
 @Component
 public class SecurityRepository {
-    private final HashMap<String, Security> securityByIsin = new HashMap<>();
+    public static final int NO_HANDLE = IsinTable.MISSING;
+
+    private final IsinTable handleByIsin = new IsinTable();
+    private final ArrayList<Security> securities = new ArrayList<>();
+
+    public int handleOf(String isin) {
+        return handleByIsin.get(isin);
+    }
+
+    public Security securityAt(int handle) {
+        return handle == NO_HANDLE ? null : securities.get(handle);
+    }
+
     public Security findSecurityByIsin(String isin) {
-        return securityByIsin.get(isin);
+        return securityAt(handleOf(isin));
     }
 
-    public void addSecurity(Security security) {
-        securityByIsin.put(security.getIsin(), security);
+    public int addSecurity(Security security) {
+        int handle = handleOf(security.getIsin());
+        if (handle != NO_HANDLE) {
+            securities.set(handle, security);
+            return handle;
+        }
+        handle = securities.size();
+        securities.add(security);
+        handleByIsin.put(security.getIsin(), handle);
+        return handle;
     }
 
     public void clear() {
-        securityByIsin.clear();
+        handleByIsin.clear();
+        securities.clear();
     }
 
     Iterable<? extends Security> allSecurities() {
-        return securityByIsin.values();
+        return securities;
     }
 }
@@ -3,23 +3,45 @@ package ir.ramtung.tinyme.repository;
 import ir.ramtung.tinyme.domain.entity.Shareholder;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 
 @Component
 public class ShareholderRepository {
-    private final HashMap<Long, Shareholder> shareholderById = new HashMap<>();
+    public static final int NO_HANDLE = IdTable.MISSING;
+
+    private final IdTable handleById = new IdTable();
+    private final ArrayList<Shareholder> shareholders = new ArrayList<>();
+
+    public int handleOf(long shareholderId) {
+        return handleById.get(shareholderId);
+    }
+
+    public Shareholder shareholderAt(int handle) {
+        return handle == NO_HANDLE ? null : shareholders.get(handle);
+    }
+
     public Shareholder findShareholderById(long shareholderId) {
-        return shareholderById.get(shareholderId);
+        return shareholderAt(handleOf(shareholderId));
     }
-    public void addShareholder(Shareholder shareholder) {
-        shareholderById.put(shareholder.getShareholderId(), shareholder);
+
+    public int addShareholder(Shareholder shareholder) {
+        int handle = handleOf(shareholder.getShareholderId());
+        if (handle != NO_HANDLE) {
+            shareholders.set(handle, shareholder);
+            return handle;
+        }
+        handle = shareholders.size();
+        shareholders.add(shareholder);
+        handleById.put(shareholder.getShareholderId(), handle);
+        return handle;
     }
 
     public void clear() {
-        shareholderById.clear();
+        handleById.clear();
+        shareholders.clear();
     }
 
     Iterable<? extends Shareholder> allShareholders() {
-        return shareholderById.values();
+        return shareholders;
     }
 }
@@ -0,0 +1,99 @@
+package ir.ramtung.tinyme.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.messaging.TradeDTO;
+import ir.ramtung.tinyme.messaging.codec.WireCodec;
+import ir.ramtung.tinyme.messaging.event.OrderExecutedEvent;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private final EnterOrderRq reusableRq = new EnterOrderRq();
+    private EnterOrderRq enterOrderRq;
+    private OrderExecutedEvent orderExecutedEvent;
+    private String enterOrderJson;
+    private String orderExecutedJson;
+    private byte[] enterOrderBytes;
+    private byte[] orderExecutedBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        enterOrderRq = EnterOrderRq.createNewOrderRq(1, "IRO1FOLD0001", 200, LocalDateTime.of(2024, 1, 1, 9, 0),
+                Side.BUY, 300, 15450, 2, 3, 0, 0, 0);
+        orderExecutedEvent = new OrderExecutedEvent(1, 200, List.of(
+                new TradeDTO("IRO1FOLD0001", 15450, 100, 200, 101),
+                new TradeDTO("IRO1FOLD0001", 15450, 200, 200, 102)));
+        enterOrderJson = objectMapper.writeValueAsString(enterOrderRq);
+        orderExecutedJson = objectMapper.writeValueAsString(orderExecutedEvent);
+        enterOrderBytes = encode(enterOrderRq);
+        orderExecutedBytes = encode(orderExecutedEvent);
+    }
+
+    private byte[] encode(Object message) {
+        buffer.clear();
+        WireCodec.encode(message, buffer);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    @Benchmark
+    public String jsonEncodeEnterOrder() throws Exception {
+        return objectMapper.writeValueAsString(enterOrderRq);
+    }
+
+    @Benchmark
+    public int binaryEncodeEnterOrder() {
+        buffer.clear();
+        WireCodec.encode(enterOrderRq, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public EnterOrderRq jsonDecodeEnterOrder() throws Exception {
+        return objectMapper.readValue(enterOrderJson, EnterOrderRq.class);
+    }
+
+    @Benchmark
+    public EnterOrderRq binaryDecodeEnterOrder() {
+        return WireCodec.decode(ByteBuffer.wrap(enterOrderBytes), reusableRq);
+    }
+
+    @Benchmark
+    public String jsonEncodeOrderExecuted() throws Exception {
+        return objectMapper.writeValueAsString(orderExecutedEvent);
+    }
+
+    @Benchmark
+    public int binaryEncodeOrderExecuted() {
+        buffer.clear();
+        WireCodec.encode(orderExecutedEvent, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public OrderExecutedEvent jsonDecodeOrderExecuted() throws Exception {
+        return objectMapper.readValue(orderExecutedJson, OrderExecutedEvent.class);
+    }
+
+    @Benchmark
+    public Object binaryDecodeOrderExecuted() {
+        return WireCodec.decode(ByteBuffer.wrap(orderExecutedBytes));
+    }
+}
@@ -0,0 +1,204 @@
+package ir.ramtung.tinyme.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.ramtung.tinyme.TinyMeApplication;
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageListener;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jms.core.JmsTemplate;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class EndToEndLatencyBenchmark {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long QUIET_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    static class LatencyRecorder implements MessageListener {
+        private final ObjectMapper mapper = new ObjectMapper();
+        private final AtomicLongArray sendNanosByRequestId;
+        private final AtomicReferenceArray<String> isinByRequestId;
+        private final boolean[] seen;
+        private final Map<String, Queue<Long>> stateChangeSends = new ConcurrentHashMap<>();
+        private final Map<String, Long> triggerByIsin = new HashMap<>();
+        private final Map<String, Histogram> histograms = new TreeMap<>();
+        private final Histogram all = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private volatile long measureFromNanos = Long.MAX_VALUE;
+        private volatile long lastReceiveNanos = System.nanoTime();
+
+        LatencyRecorder(int requestCount) {
+            sendNanosByRequestId = new AtomicLongArray(requestCount + 1);
+            isinByRequestId = new AtomicReferenceArray<>(requestCount + 1);
+            seen = new boolean[requestCount + 1];
+        }
+
+        void sent(long requestId, String isin, long sendNanos) {
+            isinByRequestId.set((int) requestId, isin);
+            sendNanosByRequestId.set((int) requestId, sendNanos);
+        }
+
+        void sentStateChange(String isin, long sendNanos) {
+            stateChangeSends.computeIfAbsent(isin, key -> new ConcurrentLinkedQueue<>()).add(sendNanos);
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            long now = System.nanoTime();
+            try {
+                String type = message.getStringProperty("_type");
+                type = type.substring(type.lastIndexOf('.') + 1);
+                JsonNode body = mapper.readTree(((TextMessage) message).getText());
+                Long start = triggerOf(type, body);
+                if (start != null && start >= measureFromNanos) {
+                    long latency = Math.min(now - start, HIGHEST_TRACKABLE_NANOS);
+                    histograms.computeIfAbsent(type, key -> new Histogram(HIGHEST_TRACKABLE_NANOS, 3)).recordValue(latency);
+                    all.recordValue(latency);
+                }
+            } catch (JMSException | JsonProcessingException ex) {
+                throw new IllegalStateException("Cannot read response " + message, ex);
+            }
+            lastReceiveNanos = now;
+        }
+
+        private Long triggerOf(String type, JsonNode body) {
+            if (body.has("requestId")) {
+                int requestId = body.get("requestId").asInt();
+                String isin = isinByRequestId.get(requestId);
+                if (!seen[requestId]) {
+                    seen[requestId] = true;
+                    triggerByIsin.put(isin, sendNanosByRequestId.get(requestId));
+                }
+                return triggerByIsin.get(isin);
+            }
+            String isin = body.get("securityIsin").asText();
+            if (type.equals("SecurityStateChangedEvent")) {
+                Long sent = stateChangeSends.getOrDefault(isin, new ArrayDeque<>()).poll();
+                if (sent != null)
+                    triggerByIsin.put(isin, sent);
+            }
+            return triggerByIsin.get(isin);
+        }
+
+        void awaitQuiet() throws InterruptedException {
+            while (System.nanoTime() - lastReceiveNanos < QUIET_PERIOD_NANOS)
+                Thread.sleep(100);
+        }
+
+        long report() {
+            System.out.printf("%-28s %10s %10s %10s %10s %10s%n", "event (us)", "count", "p50", "p99", "p99.9", "max");
+            histograms.forEach(EndToEndLatencyBenchmark::print);
+            print("ALL", all);
+            return all.getValueAtPercentile(99) / 1000;
+        }
+    }
+
+    private static void print(String type, Histogram histogram) {
+        System.out.printf("%-28s %10d %10.1f %10.1f %10.1f %10.1f%n", type, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null)
+            System.setProperty(key, value);
+    }
+
+    private static void seedRepositories(ConfigurableApplicationContext context) {
+        SecurityRepository securityRepository = context.getBean(SecurityRepository.class);
+        BrokerRepository brokerRepository = context.getBean(BrokerRepository.class);
+        ShareholderRepository shareholderRepository = context.getBean(ShareholderRepository.class);
+        Shareholder shareholder = Shareholder.builder().shareholderId(TradingWorkload.SHAREHOLDER_ID).build();
+        for (String isin : TradingWorkload.ISINS) {
+            Security security = Security.builder().isin(isin).build();
+            securityRepository.addSecurity(security);
+            shareholder.incPosition(security, 1_000_000_000);
+        }
+        shareholderRepository.addShareholder(shareholder);
+        brokerRepository.addBroker(Broker.builder().brokerId(TradingWorkload.BROKER_ID).credit(Long.MAX_VALUE / 2).build());
+    }
+
+    public static void main(String[] args) throws Exception {
+        setDefault("spring.artemis.mode", "embedded");
+        setDefault("spring.artemis.embedded.persistent", "false");
+        setDefault("spring.artemis.embedded.queues", "RQ,RS");
+        setDefault("logging.level.ir.ramtung.tinyme", "WARN");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TinyMeApplication.class)
+                .profiles("test")
+                .run(args);
+        Environment environment = context.getEnvironment();
+        int requestCount = environment.getProperty("benchmark.requests", Integer.class, 200_000);
+        int warmupCount = environment.getProperty("benchmark.warmup", Integer.class, 50_000);
+        int rate = environment.getProperty("benchmark.rate", Integer.class, 20_000);
+        long maxP99Micros = environment.getProperty("benchmark.maxP99Micros", Long.class, 0L);
+        String requestQueue = environment.getRequiredProperty("requestQueue");
+        String responseQueue = environment.getRequiredProperty("responseQueue");
+
+        seedRepositories(context);
+        List<Object> requests = TradingWorkload.requests(requestCount, 42, true);
+        LatencyRecorder recorder = new LatencyRecorder(requestCount);
+
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory.class);
+        JmsTemplate jmsTemplate = context.getBean(JmsTemplate.class);
+        long p99Micros;
+        try (Connection connection = connectionFactory.createConnection()) {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            session.createConsumer(session.createQueue(responseQueue)).setMessageListener(recorder);
+            connection.start();
+
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+            long start = System.nanoTime();
+            for (int i = 0; i < requests.size(); i++) {
+                long intended = start + i * intervalNanos;
+                if (i == warmupCount)
+                    recorder.measureFromNanos = intended;
+                while (System.nanoTime() < intended)
+                    Thread.onSpinWait();
+                Object request = requests.get(i);
+                if (request instanceof EnterOrderRq enterOrderRq)
+                    recorder.sent(enterOrderRq.getRequestId(), enterOrderRq.getSecurityIsin(), intended);
+                else if (request instanceof DeleteOrderRq deleteOrderRq)
+                    recorder.sent(deleteOrderRq.getRequestId(), deleteOrderRq.getSecurityIsin(), intended);
+                else
+                    recorder.sentStateChange(((ChangeMatchingStateRq) request).getSecurityIsin(), intended);
+                jmsTemplate.convertAndSend(requestQueue, request);
+            }
+            recorder.awaitQuiet();
+            connection.stop();
+            System.out.printf("%d requests at %d rq/s, first %d discarded as warm-up%n", requestCount, rate, warmupCount);
+            p99Micros = recorder.report();
+        }
+        context.close();
+        if (maxP99Micros > 0 && p99Micros > maxP99Micros) {
+            System.out.printf("p99 of %d us exceeds the %d us budget%n", p99Micros, maxP99Micros);
+            System.exit(1);
+        }
+    }
+}
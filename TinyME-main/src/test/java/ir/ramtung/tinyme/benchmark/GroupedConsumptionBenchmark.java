@@ -0,0 +1,23 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.messaging.DispatchMode;
+
+import java.util.List;
+
+public class GroupedConsumptionBenchmark {
+    public static void main(String[] args) throws Exception {
+        RequestDispatchBenchmark.useEmbeddedBroker();
+        int requestCount = Integer.getInteger("benchmark.requests", 100_000);
+        int maxConsumers = Integer.getInteger("benchmark.maxConsumers", TradingWorkload.ISINS.length);
+        List<Object> requests = TradingWorkload.requests(requestCount, 42, false);
+
+        RequestDispatchBenchmark.printHeader();
+        RequestDispatchBenchmark.run(DispatchMode.TYPED, 1, true, requests, args);
+        double single = RequestDispatchBenchmark.run(DispatchMode.TYPED, 1, true, requests, args);
+        for (int consumers = 2; consumers <= maxConsumers; consumers *= 2) {
+            double throughput = RequestDispatchBenchmark.run(DispatchMode.TYPED, consumers, true, requests, args);
+            System.out.printf("%d consumers: %.2fx the single-consumer throughput on %d cores%n",
+                    consumers, throughput / single, Runtime.getRuntime().availableProcessors());
+        }
+    }
+}
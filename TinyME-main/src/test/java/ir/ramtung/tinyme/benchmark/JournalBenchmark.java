@@ -0,0 +1,52 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.messaging.journal.Journal;
+import ir.ramtung.tinyme.messaging.journal.JournalFlush;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JournalBenchmark {
+    @Param({"BATCH", "TIMER", "MESSAGE"})
+    public JournalFlush flush;
+
+    private Path directory;
+    private Journal journal;
+    private EnterOrderRq enterOrderRq;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new Journal(directory, 64 << 20, flush, 64);
+        journal.recover((request, sequence, timestamp) -> { });
+        enterOrderRq = EnterOrderRq.createNewOrderRq(1, "IRO1FOLD0001", 200, LocalDateTime.of(2024, 1, 1, 9, 0),
+                Side.BUY, 300, 15450, 2, 3, 0, 0, 0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(enterOrderRq, 1, 0);
+    }
+}
@@ -0,0 +1,107 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.AuctionMatcher;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.messaging.exception.InvalidRequestException;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchingBenchmark {
+    @State(Scope.Thread)
+    public static class ContinuousBook {
+        @Param({"10", "100", "1000", "10000", "100000"})
+        int depth;
+        SyntheticBook book;
+        ContinuousMatcher matcher;
+        long requestId;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            book = SyntheticBook.continuous(depth, 42);
+            matcher = new ContinuousMatcher();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CrossedBook {
+        @Param({"10", "100", "1000", "10000", "100000"})
+        int depth;
+        SyntheticBook book;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            book = SyntheticBook.crossed(depth, 42);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AuctionRound {
+        @Param({"10", "100", "1000", "10000", "100000"})
+        int depth;
+        SyntheticBook book;
+        AuctionMatcher matcher = new AuctionMatcher();
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            book = SyntheticBook.crossed(depth, 42);
+        }
+    }
+
+    @Benchmark
+    public MatchResult continuousExecute(ContinuousBook state) {
+        SyntheticBook book = state.book;
+        Order bestAsk = book.security.getOrderBook().getSellQueue().getFirst();
+        Order aggressor = book.newOrder(Side.BUY, bestAsk.getPrice(), bestAsk.getQuantity());
+        MatchResult result = state.matcher.execute(aggressor);
+        book.add(Side.SELL, bestAsk.getPrice());
+        return result;
+    }
+
+    @Benchmark
+    public Order enqueueToActiveQueue(ContinuousBook state) {
+        SyntheticBook book = state.book;
+        Order order = book.add(Side.BUY, book.randomBuyPrice());
+        book.security.getOrderBook().removeByOrderIdFromActiveQueue(Side.BUY, order.getOrderId());
+        return order;
+    }
+
+    @Benchmark
+    public MatchResult updateOrder(ContinuousBook state) throws InvalidRequestException {
+        SyntheticBook book = state.book;
+        Order order = book.randomRestingOrder(Side.BUY);
+        int quantity = order.getQuantity() == SyntheticBook.ORDER_QUANTITY ? SyntheticBook.ORDER_QUANTITY - 1 : SyntheticBook.ORDER_QUANTITY;
+        EnterOrderRq rq = EnterOrderRq.createUpdateOrderRq(++state.requestId, book.security.getIsin(), order.getOrderId(),
+                LocalDateTime.now(), Side.BUY, quantity, order.getPrice(), book.broker.getBrokerId(),
+                book.shareholder.getShareholderId(), 0, 0, 0);
+        return book.security.updateOrder(rq, state.matcher);
+    }
+
+    @Benchmark
+    public Order deleteOrder(ContinuousBook state) throws InvalidRequestException {
+        SyntheticBook book = state.book;
+        Order order = book.randomRestingOrder(Side.BUY);
+        book.security.deleteOrder(new DeleteOrderRq(++state.requestId, book.security.getIsin(), Side.BUY, order.getOrderId()));
+        book.broker.decreaseCreditBy(order.getValue());
+        return book.add(Side.BUY, order.getPrice());
+    }
+
+    @Benchmark
+    public int calculateOpeningPrice(CrossedBook state) {
+        return state.book.security.calculateOpeningPrice();
+    }
+
+    @Benchmark
+    public MatchResult auctionExecute(AuctionRound state) {
+        return state.matcher.execute(state.book.security);
+    }
+}
@@ -0,0 +1,71 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.*;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+public class OrderStorageFootprintBenchmark {
+    private static final int BROKERS = 64;
+    private static final int SHAREHOLDERS = 1024;
+    private static final int LEVELS = 1000;
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            total += Math.max(0, gc.getCollectionTime());
+        return total;
+    }
+
+    private static OrderBook fill(OrderStorage storage, int orderCount) {
+        OrderBook orderBook = new OrderBook(storage);
+        Security security = Security.builder().isin("BENCH").orderBook(orderBook).build();
+        Broker[] brokers = new Broker[BROKERS];
+        for (int i = 0; i < BROKERS; i++)
+            brokers[i] = Broker.builder().brokerId(i).credit(Long.MAX_VALUE / 2).build();
+        Shareholder[] shareholders = new Shareholder[SHAREHOLDERS];
+        for (int i = 0; i < SHAREHOLDERS; i++)
+            shareholders[i] = Shareholder.builder().shareholderId(i).build();
+        LocalDateTime entryTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < orderCount; i++) {
+            Side side = (i & 1) == 0 ? Side.BUY : Side.SELL;
+            int offset = 1 + (i >> 1) % LEVELS;
+            int price = side == Side.BUY ? SyntheticBook.MID_PRICE - offset : SyntheticBook.MID_PRICE + offset;
+            Order order = i % 10 == 0
+                    ? new IcebergOrder(i + 1, security, side, 100, price, brokers[i % BROKERS], shareholders[i % SHAREHOLDERS], entryTime.plusNanos(i), 10)
+                    : new Order(i + 1, security, side, SyntheticBook.ORDER_QUANTITY, price, brokers[i % BROKERS], shareholders[i % SHAREHOLDERS], entryTime.plusNanos(i));
+            orderBook.enqueueToActiveQueue(order);
+        }
+        return orderBook;
+    }
+
+    private static void measure(OrderStorage storage, int orderCount) {
+        long before = usedHeapAfterGc();
+        OrderBook orderBook = fill(storage, orderCount);
+        long after = usedHeapAfterGc();
+        long gcBefore = gcMillis();
+        System.gc();
+        long fullGcMillis = gcMillis() - gcBefore;
+        int resting = orderBook.getBuyQueue().size() + orderBook.getSellQueue().size();
+        System.out.printf("%-8s orders=%,d heap=%,d bytes bytes/order=%.1f fullGc=%d ms%n",
+                storage, resting, after - before, (double) (after - before) / resting, fullGcMillis);
+    }
+
+    public static void main(String[] args) {
+        int orderCount = Integer.getInteger("benchmark.orders", 1_000_000);
+        String storages = System.getProperty("benchmark.storage", "OBJECTS,COLUMNAR");
+        for (String storage : storages.split(","))
+            measure(OrderStorage.valueOf(storage.trim()), orderCount);
+    }
+}
@@ -0,0 +1,124 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.TinyMeApplication;
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.messaging.DispatchMode;
+import ir.ramtung.tinyme.messaging.SecurityGrouping;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Message;
+import jakarta.jms.MessageListener;
+import jakarta.jms.Session;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.core.JmsTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RequestDispatchBenchmark {
+    private static final long QUIET_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    static class ResponseCounter implements MessageListener {
+        private final AtomicLong received = new AtomicLong();
+        private volatile long lastReceiveNanos = System.nanoTime();
+
+        @Override
+        public void onMessage(Message message) {
+            received.incrementAndGet();
+            lastReceiveNanos = System.nanoTime();
+        }
+
+        void awaitQuiet() throws InterruptedException {
+            while (System.nanoTime() - lastReceiveNanos < QUIET_PERIOD_NANOS)
+                Thread.sleep(100);
+        }
+    }
+
+    private static void seedRepositories(ConfigurableApplicationContext context) {
+        SecurityRepository securityRepository = context.getBean(SecurityRepository.class);
+        BrokerRepository brokerRepository = context.getBean(BrokerRepository.class);
+        ShareholderRepository shareholderRepository = context.getBean(ShareholderRepository.class);
+        Shareholder shareholder = Shareholder.builder().shareholderId(TradingWorkload.SHAREHOLDER_ID).build();
+        for (String isin : TradingWorkload.ISINS) {
+            Security security = Security.builder().isin(isin).build();
+            securityRepository.addSecurity(security);
+            shareholder.incPosition(security, 1_000_000_000);
+        }
+        shareholderRepository.addShareholder(shareholder);
+        brokerRepository.addBroker(Broker.builder().brokerId(TradingWorkload.BROKER_ID).credit(Long.MAX_VALUE / 2).build());
+    }
+
+    static double run(DispatchMode mode, int consumers, boolean grouped, List<Object> requests, String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TinyMeApplication.class)
+                .profiles("test")
+                .properties("requestDispatch=" + mode, "requestConsumers=" + consumers)
+                .run(args);
+        String requestQueue = context.getEnvironment().getRequiredProperty("requestQueue");
+        String responseQueue = context.getEnvironment().getRequiredProperty("responseQueue");
+        seedRepositories(context);
+        JmsListenerEndpointRegistry registry = context.getBean(JmsListenerEndpointRegistry.class);
+        registry.stop();
+
+        JmsTemplate jmsTemplate = context.getBean(JmsTemplate.class);
+        for (Object request : requests) {
+            if (grouped)
+                jmsTemplate.convertAndSend(requestQueue, request, SecurityGrouping.stamp(request));
+            else
+                jmsTemplate.convertAndSend(requestQueue, request);
+        }
+
+        ResponseCounter counter = new ResponseCounter();
+        double throughput;
+        try (Connection connection = context.getBean(ConnectionFactory.class).createConnection()) {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            session.createConsumer(session.createQueue(responseQueue)).setMessageListener(counter);
+            connection.start();
+            long start = System.nanoTime();
+            registry.start();
+            counter.awaitQuiet();
+            long elapsed = counter.lastReceiveNanos - start;
+            throughput = requests.size() * 1e9 / elapsed;
+            System.out.printf("%-10s %10d %10d %10d %12.1f %12.0f%n", mode, consumers, requests.size(), counter.received.get(),
+                    elapsed / 1e6, throughput);
+            connection.stop();
+        }
+        context.close();
+        return throughput;
+    }
+
+    static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null)
+            System.setProperty(key, value);
+    }
+
+    static void useEmbeddedBroker() {
+        setDefault("spring.artemis.mode", "embedded");
+        setDefault("spring.artemis.embedded.persistent", "false");
+        setDefault("spring.artemis.embedded.queues", "RQ,RS");
+        setDefault("logging.level.ir.ramtung.tinyme", "WARN");
+    }
+
+    static void printHeader() {
+        System.out.printf("%-10s %10s %10s %10s %12s %12s%n", "mode", "consumers", "requests", "responses", "drain (ms)", "rq/s");
+    }
+
+    public static void main(String[] args) throws Exception {
+        useEmbeddedBroker();
+        int requestCount = Integer.getInteger("benchmark.requests", 100_000);
+        int rounds = Integer.getInteger("benchmark.rounds", 2);
+        List<Object> requests = TradingWorkload.requests(requestCount, 42, true);
+
+        printHeader();
+        for (int round = 0; round < rounds; round++)
+            for (DispatchMode mode : DispatchMode.values())
+                run(mode, 1, false, requests, args);
+    }
+}
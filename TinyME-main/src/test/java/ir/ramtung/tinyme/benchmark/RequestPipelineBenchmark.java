@@ -0,0 +1,71 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.pipeline.RequestPipeline;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+public class RequestPipelineBenchmark {
+    private static final int REQUESTS = 500_000;
+    private static final int ROUNDS = 5;
+
+    static class SlowPublisher extends EventPublisher {
+        private final long publishNanos;
+        long published = 0;
+
+        SlowPublisher(long publishNanos) {
+            super(null);
+            this.publishNanos = publishNanos;
+        }
+
+        @Override
+        public void publish(Event event) {
+            published++;
+            if (publishNanos > 0)
+                LockSupport.parkNanos(publishNanos);
+        }
+    }
+
+    private static double runDirect(List<Object> requests, long publishNanos) {
+        OrderHandler orderHandler = TradingWorkload.orderHandler(new SlowPublisher(publishNanos));
+        long start = System.nanoTime();
+        for (Object request : requests)
+            TradingWorkload.handleDirectly(orderHandler, request);
+        return requests.size() * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static double runPipelined(List<Object> requests, long publishNanos) {
+        SlowPublisher publisher = new SlowPublisher(publishNanos);
+        RequestPipeline pipeline = new RequestPipeline(TradingWorkload.orderHandler(publisher), publisher, true, 4096);
+        pipeline.start();
+        long start = System.nanoTime();
+        for (Object request : requests) {
+            if (request instanceof EnterOrderRq enterOrderRq)
+                pipeline.submit(enterOrderRq);
+            else if (request instanceof DeleteOrderRq deleteOrderRq)
+                pipeline.submit(deleteOrderRq);
+            else
+                pipeline.submit((ChangeMatchingStateRq) request);
+        }
+        pipeline.awaitIdle();
+        double throughput = requests.size() * 1e9 / (System.nanoTime() - start);
+        pipeline.stop();
+        return throughput;
+    }
+
+    public static void main(String[] args) {
+        long publishNanos = args.length > 0 ? Long.parseLong(args[0]) : 0;
+        List<Object> requests = TradingWorkload.requests(REQUESTS, 42, false);
+        for (int round = 1; round <= ROUNDS; round++) {
+            double direct = runDirect(requests, publishNanos);
+            double pipelined = runPipelined(requests, publishNanos);
+            System.out.printf("round %d: direct %,.0f rq/s, pipelined %,.0f rq/s%n", round, direct, pipelined);
+        }
+    }
+}
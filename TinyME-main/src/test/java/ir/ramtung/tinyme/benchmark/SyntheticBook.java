@@ -0,0 +1,73 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+public class SyntheticBook {
+    public static final int MID_PRICE = 10_000;
+    public static final int ORDER_QUANTITY = 10;
+    public static final int ORDERS_PER_LEVEL = 10;
+
+    public final Security security;
+    public final Broker broker;
+    public final Shareholder shareholder;
+    public final int depth;
+    private final Random random;
+    private long nextOrderId;
+
+    private SyntheticBook(int depth, MatchingState state, long seed) {
+        this.depth = depth;
+        this.random = new Random(seed);
+        security = Security.builder().isin("BENCH").lastTradedPrice(MID_PRICE).matchingState(state).build();
+        broker = Broker.builder().brokerId(1).credit(Long.MAX_VALUE / 2).build();
+        shareholder = Shareholder.builder().shareholderId(1).build();
+        shareholder.incPosition(security, Integer.MAX_VALUE / 2);
+    }
+
+    public static int levelsFor(int depth) {
+        return Math.max(1, depth / ORDERS_PER_LEVEL);
+    }
+
+    public static SyntheticBook continuous(int depth, long seed) {
+        SyntheticBook book = new SyntheticBook(depth, MatchingState.CONTINUOUS, seed);
+        int levels = levelsFor(depth);
+        for (int i = 0; i < depth; i++) {
+            book.add(Side.SELL, MID_PRICE + 1 + i % levels);
+            book.add(Side.BUY, MID_PRICE - i % levels);
+        }
+        return book;
+    }
+
+    public static SyntheticBook crossed(int depth, long seed) {
+        SyntheticBook book = new SyntheticBook(depth, MatchingState.AUCTION, seed);
+        int spread = levelsFor(depth);
+        for (int i = 0; i < depth; i++) {
+            book.add(Side.SELL, MID_PRICE - spread / 2 + book.random.nextInt(spread + 1));
+            book.add(Side.BUY, MID_PRICE - spread / 2 + book.random.nextInt(spread + 1));
+        }
+        return book;
+    }
+
+    public Order newOrder(Side side, int price, int quantity) {
+        return new Order(++nextOrderId, security, side, quantity, price, broker, shareholder,
+                LocalDateTime.now(), OrderStatus.NEW);
+    }
+
+    public Order add(Side side, int price) {
+        Order order = newOrder(side, price, ORDER_QUANTITY);
+        security.getOrderBook().enqueueToActiveQueue(order);
+        return order;
+    }
+
+    public Order randomRestingOrder(Side side) {
+        var queue = side == Side.BUY ? security.getOrderBook().getBuyQueue() : security.getOrderBook().getSellQueue();
+        return queue.get(random.nextInt(queue.size()));
+    }
+
+    public int randomBuyPrice() {
+        return MID_PRICE - random.nextInt(levelsFor(depth));
+    }
+}
@@ -0,0 +1,97 @@
+package ir.ramtung.tinyme.benchmark;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.OrderBook;
+import ir.ramtung.tinyme.domain.entity.OrderStorage;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.AuctionMatcher;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TradingWorkload {
+    public static final String[] ISINS = {"ABC", "DEF", "GHI", "JKL"};
+    public static final long BROKER_ID = 1;
+    public static final long SHAREHOLDER_ID = 1;
+
+    public static OrderHandler orderHandler(EventPublisher eventPublisher) {
+        return orderHandler(eventPublisher, OrderStorage.OBJECTS);
+    }
+
+    public static OrderHandler orderHandler(EventPublisher eventPublisher, OrderStorage orderStorage) {
+        SecurityRepository securityRepository = new SecurityRepository();
+        BrokerRepository brokerRepository = new BrokerRepository();
+        ShareholderRepository shareholderRepository = new ShareholderRepository();
+        Shareholder shareholder = Shareholder.builder().shareholderId(SHAREHOLDER_ID).build();
+        for (String isin : ISINS) {
+            Security security = Security.builder().isin(isin).orderBook(new OrderBook(orderStorage)).build();
+            securityRepository.addSecurity(security);
+            shareholder.incPosition(security, 1_000_000_000);
+        }
+        shareholderRepository.addShareholder(shareholder);
+        brokerRepository.addBroker(Broker.builder().brokerId(BROKER_ID).credit(Long.MAX_VALUE / 2).build());
+        return new OrderHandler(securityRepository, brokerRepository, shareholderRepository,
+                eventPublisher, new ContinuousMatcher(), new AuctionMatcher());
+    }
+
+    public static List<Object> requests(int count, long seed, boolean withStateChanges) {
+        Random random = new Random(seed);
+        LocalDateTime entryTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Object> requests = new ArrayList<>(count);
+        List<EnterOrderRq> entered = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            String isin = ISINS[random.nextInt(ISINS.length)];
+            int dice = random.nextInt(100);
+            if (withStateChanges && dice < 2) {
+                MatchingState state = random.nextBoolean() ? MatchingState.AUCTION : MatchingState.CONTINUOUS;
+                requests.add(new ChangeMatchingStateRq(isin, state));
+            } else if (dice < 15 && !entered.isEmpty()) {
+                EnterOrderRq target = entered.get(random.nextInt(entered.size()));
+                requests.add(new DeleteOrderRq(i, target.getSecurityIsin(), target.getSide(), target.getOrderId(), entryTime));
+            } else if (dice < 25 && !entered.isEmpty()) {
+                EnterOrderRq target = entered.get(random.nextInt(entered.size()));
+                requests.add(EnterOrderRq.createUpdateOrderRq(i, target.getSecurityIsin(), target.getOrderId(), entryTime,
+                        target.getSide(), 1 + random.nextInt(50), 990 + random.nextInt(21), BROKER_ID, SHAREHOLDER_ID,
+                        target.getPeakSize(), 0, target.getStopPrice()));
+            } else {
+                Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+                int quantity = dice < 27 ? 0 : 1 + random.nextInt(50);
+                int price = 990 + random.nextInt(21);
+                int peakSize = 0;
+                int stopPrice = 0;
+                if (dice < 32)
+                    stopPrice = side == Side.BUY ? price - random.nextInt(5) : price + random.nextInt(5);
+                else if (quantity > 20 && random.nextInt(4) == 0)
+                    peakSize = 10;
+                EnterOrderRq rq = EnterOrderRq.createNewOrderRq(i, isin, i, entryTime, side, quantity,
+                        price, BROKER_ID, SHAREHOLDER_ID, peakSize, 0, stopPrice);
+                entered.add(rq);
+                requests.add(rq);
+            }
+        }
+        return requests;
+    }
+
+    public static void handleDirectly(OrderHandler orderHandler, Object request) {
+        if (request instanceof EnterOrderRq enterOrderRq)
+            orderHandler.handleEnterOrder(enterOrderRq);
+        else if (request instanceof DeleteOrderRq deleteOrderRq)
+            orderHandler.handleDeleteOrder(deleteOrderRq);
+        else
+            orderHandler.handleChangeMatchingStateRq((ChangeMatchingStateRq) request);
+    }
+}
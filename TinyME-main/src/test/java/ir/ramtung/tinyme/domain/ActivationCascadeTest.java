@@ -0,0 +1,118 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.ActivationCascade;
+import ir.ramtung.tinyme.domain.service.AuctionMatcher;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.domain.service.EngineClock;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.OrderAcceptedEvent;
+import ir.ramtung.tinyme.messaging.event.OrderActivatedEvent;
+import ir.ramtung.tinyme.messaging.event.OrderExecutedEvent;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static ir.ramtung.tinyme.domain.entity.Side.SELL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ActivationCascadeTest {
+    private static final long TIMESTAMP = 1_700_000_000_000_000_000L;
+
+    private Security security;
+    private Broker broker;
+    private Shareholder shareholder;
+    private List<Event> events;
+
+    @BeforeEach
+    void setup() {
+        security = Security.builder().isin("ABC").lastTradedPrice(100).build();
+        broker = Broker.builder().brokerId(1).credit(1_000_000).build();
+        shareholder = Shareholder.builder().shareholderId(1).build();
+        shareholder.incPosition(security, 1_000);
+        OrderBook orderBook = security.getOrderBook();
+        for (int i = 1; i <= 3; i++) {
+            orderBook.enqueueToActiveQueue(new Order(i, security, SELL, 10, 100 + i, broker, shareholder));
+            StopLimitOrder stopOrder = new StopLimitOrder(10 + i, security, BUY, 10, 100 + i, broker, shareholder, 99 + i, 1000 + i);
+            broker.decreaseCreditBy(stopOrder.getValue());
+            orderBook.enqueueToInactiveQueue(stopOrder);
+        }
+        events = new ArrayList<>();
+    }
+
+    @Test
+    void each_price_move_activates_the_next_round_of_stop_orders() {
+        ActivationCascade cascade = new ActivationCascade(new ContinuousMatcher());
+        ActivationCascade.Stats stats = cascade.run(security, List.of(BUY), TIMESTAMP, events::add);
+
+        assertThat(stats.rounds()).isEqualTo(3);
+        assertThat(stats.activatedOrders()).isEqualTo(3);
+        assertThat(stats.truncated()).isFalse();
+        assertThat(security.getLastTradedPrice()).isEqualTo(103);
+        assertThat(security.getOrderBook().getInactiveBuyQueue()).isEmpty();
+        assertThat(events).hasSize(6);
+        assertThat(events.get(0)).isEqualTo(new OrderActivatedEvent(1001, 11));
+        assertThat(events.get(1)).isInstanceOf(OrderExecutedEvent.class);
+        assertThat(events.get(4)).isEqualTo(new OrderActivatedEvent(1003, 13));
+        assertThat(events).extracting(Event::getTimestamp).containsOnly(TIMESTAMP);
+        assertThat(cascade.getDeepestCascade()).isEqualTo(3);
+        assertThat(cascade.getActivatedOrderCount()).isEqualTo(3);
+    }
+
+    @Test
+    void cascade_stops_at_the_round_cap_and_leaves_the_rest_parked() {
+        ActivationCascade cascade = new ActivationCascade(new ContinuousMatcher(), 2);
+        ActivationCascade.Stats stats = cascade.run(security, List.of(BUY), TIMESTAMP, events::add);
+
+        assertThat(stats.rounds()).isEqualTo(2);
+        assertThat(stats.truncated()).isTrue();
+        assertThat(events).hasSize(4);
+        assertThat(security.getOrderBook().getInactiveBuyQueue()).extracting(Order::getOrderId).containsExactly(13L);
+        assertThat(cascade.getTruncatedCascadeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void nothing_is_recorded_when_no_stop_order_is_triggered() {
+        security.setLastTradedPrice(50);
+        ActivationCascade cascade = new ActivationCascade(new ContinuousMatcher());
+        ActivationCascade.Stats stats = cascade.run(security, List.of(BUY, SELL), TIMESTAMP, events::add);
+
+        assertThat(stats.rounds()).isZero();
+        assertThat(events).isEmpty();
+        assertThat(cascade.getCascadeCount()).isZero();
+    }
+
+    @Test
+    void leftovers_of_a_capped_cascade_activate_on_the_next_opposite_side_request() {
+        ActivationCascade cascade = new ActivationCascade(new ContinuousMatcher(), 2);
+        SecurityRepository securityRepository = new SecurityRepository();
+        securityRepository.addSecurity(security);
+        BrokerRepository brokerRepository = new BrokerRepository();
+        brokerRepository.addBroker(broker);
+        ShareholderRepository shareholderRepository = new ShareholderRepository();
+        shareholderRepository.addShareholder(shareholder);
+        OrderHandler orderHandler = new OrderHandler(securityRepository, brokerRepository, shareholderRepository,
+                mock(EventPublisher.class), new ContinuousMatcher(), new AuctionMatcher(), cascade, new EngineClock());
+        assertThat(cascade.run(security, List.of(BUY), TIMESTAMP, events::add).truncated()).isTrue();
+        events.clear();
+
+        orderHandler.handleEnterOrder(EnterOrderRq.createNewOrderRq(1, "ABC", 20, null, SELL, 10, 500, 1, 1, 0, 0, 0), events::add);
+
+        assertThat(events).contains(new OrderActivatedEvent(1003, 13), new OrderAcceptedEvent(1, 20));
+        assertThat(security.getOrderBook().getInactiveBuyQueue()).isEmpty();
+        assertThat(security.getLastTradedPrice()).isEqualTo(103);
+        events.clear();
+        orderHandler.handleEnterOrder(EnterOrderRq.createNewOrderRq(2, "ABC", 21, null, SELL, 10, 501, 1, 1, 0, 0, 0), events::add);
+        assertThat(events).containsExactly(new OrderAcceptedEvent(2, 21));
+    }
+}
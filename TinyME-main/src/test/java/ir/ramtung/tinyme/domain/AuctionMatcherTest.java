@@ -0,0 +1,53 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.AuctionMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static ir.ramtung.tinyme.domain.entity.Side.SELL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuctionMatcherTest {
+    private final AuctionMatcher auctionMatcher = new AuctionMatcher();
+    private Security security;
+    private OrderBook orderBook;
+    private Broker broker;
+    private Shareholder shareholder;
+
+    @BeforeEach
+    void setup() {
+        security = Security.builder().isin("ABC").build();
+        orderBook = security.getOrderBook();
+        broker = Broker.builder().brokerId(1).credit(1_000_000).build();
+        shareholder = Shareholder.builder().shareholderId(1).build();
+        shareholder.incPosition(security, 100_000);
+    }
+
+    @Test
+    void exactly_filled_buy_leaves_the_book() {
+        orderBook.enqueueToActiveQueue(new Order(1, security, BUY, 100, 1000, broker, shareholder));
+        orderBook.enqueueToActiveQueue(new Order(2, security, SELL, 100, 1000, broker, shareholder));
+
+        MatchResult result = auctionMatcher.execute(security);
+
+        assertThat(result.trades()).extracting(Trade::getQuantity).containsExactly(100);
+        assertThat(orderBook.getBuyQueue()).isEmpty();
+        assertThat(orderBook.getSellQueue()).isEmpty();
+    }
+
+    @Test
+    void replenished_iceberg_buy_waits_behind_orders_at_its_price() {
+        orderBook.enqueueToActiveQueue(new IcebergOrder(1, security, BUY, 30, 1000, broker, shareholder, 10));
+        orderBook.enqueueToActiveQueue(new Order(2, security, BUY, 10, 1000, broker, shareholder));
+        orderBook.enqueueToActiveQueue(new Order(3, security, SELL, 40, 1000, broker, shareholder));
+
+        MatchResult result = auctionMatcher.execute(security);
+
+        assertThat(result.trades()).extracting(Trade::getBuyOrderId).containsExactly(1L, 2L, 1L, 1L);
+        assertThat(result.trades()).extracting(Trade::getQuantity).containsExactly(10, 10, 10, 10);
+        assertThat(orderBook.getBuyQueue()).isEmpty();
+        assertThat(orderBook.getSellQueue()).isEmpty();
+    }
+}
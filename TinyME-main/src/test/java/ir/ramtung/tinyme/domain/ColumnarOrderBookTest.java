@@ -0,0 +1,151 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.benchmark.TradingWorkload;
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.event.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static ir.ramtung.tinyme.domain.entity.Side.SELL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ColumnarOrderBookTest {
+    private Security security;
+    private Broker broker;
+    private Shareholder shareholder;
+    private OrderBook orderBook;
+    private List<Order> orders;
+
+    static class RecordingPublisher extends EventPublisher {
+        final List<Event> events = new ArrayList<>();
+
+        RecordingPublisher() {
+            super(null);
+        }
+
+        @Override
+        public void publish(Event event) {
+            events.add(event);
+        }
+    }
+
+    @BeforeEach
+    void setupOrderBook() {
+        orderBook = new OrderBook(OrderStorage.COLUMNAR);
+        security = Security.builder().orderBook(orderBook).build();
+        broker = Broker.builder().credit(100_000_000L).build();
+        shareholder = Shareholder.builder().build();
+        shareholder.incPosition(security, 100_000);
+        LocalDateTime entryTime = LocalDateTime.of(2024, 1, 1, 9, 0, 0, 123_456_789);
+        orders = Arrays.asList(
+                new Order(1, security, BUY, 304, 15700, broker, shareholder, entryTime),
+                new Order(2, security, BUY, 43, 15500, broker, shareholder, entryTime),
+                new Order(3, security, BUY, 445, 15450, broker, shareholder, entryTime),
+                new Order(4, security, BUY, 526, 15450, broker, shareholder, entryTime),
+                new Order(5, security, BUY, 1000, 15400, broker, shareholder, entryTime),
+                new Order(6, security, SELL, 350, 15800, broker, shareholder, entryTime),
+                new IcebergOrder(7, security, SELL, 285, 15810, broker, shareholder, entryTime, 100),
+                new Order(8, security, SELL, 800, 15810, broker, shareholder, entryTime),
+                new Order(9, security, SELL, 340, 15820, broker, shareholder, entryTime),
+                new Order(10, security, SELL, 65, 15820, broker, shareholder, entryTime)
+        );
+        orders.forEach(order -> orderBook.enqueueToActiveQueue(order));
+    }
+
+    @Test
+    void stored_orders_read_back_equal_to_the_enqueued_ones() {
+        assertThat(orderBook.getBuyQueue()).containsExactlyElementsOf(orders.subList(0, 5));
+        assertThat(orderBook.getSellQueue()).containsExactlyElementsOf(orders.subList(5, 10));
+        assertThat(orderBook.findByOrderIdInActiveQueue(SELL, 7)).isEqualTo(orders.get(6));
+        assertThat(orderBook.findByOrderIdInActiveQueue(SELL, 7).getQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    void removal_by_order_id_keeps_levels_and_shareholder_totals_consistent() {
+        orderBook.removeByOrderIdFromActiveQueue(SELL, 7);
+        orderBook.removeByOrderIdFromActiveQueue(SELL, 8);
+        orderBook.removeByOrderIdFromActiveQueue(BUY, 3);
+        assertThat(orderBook.getSellQueue()).extracting("orderId").containsExactly(6L, 9L, 10L);
+        assertThat(orderBook.getSellQueue().levelCount()).isEqualTo(2);
+        assertThat(orderBook.getBuyQueue()).extracting("orderId").containsExactly(1L, 2L, 4L, 5L);
+        assertThat(orderBook.totalSellQuantityByShareholder(shareholder)).isEqualTo(350 + 340 + 65);
+        assertThat(orderBook.getSellQueue().indexedOrderCount()).isEqualTo(3);
+    }
+
+    @Test
+    void freed_slots_are_reused_without_disturbing_priority() {
+        orderBook.removeByOrderIdFromActiveQueue(BUY, 2);
+        orderBook.enqueueToActiveQueue(new Order(11, security, BUY, 10, 15700, broker, shareholder));
+        orderBook.enqueueToActiveQueue(new Order(12, security, BUY, 10, 15500, broker, shareholder));
+        assertThat(orderBook.getBuyQueue()).extracting("orderId").containsExactly(1L, 11L, 12L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void a_resting_order_is_materialized_once_until_it_leaves_the_book() {
+        Order first = orderBook.getBuyQueue().getFirst();
+        assertThat(orderBook.getBuyQueue().getFirst()).isSameAs(first);
+        assertThat(orderBook.findByOrderIdInActiveQueue(BUY, 1)).isSameAs(first);
+        first.decreaseQuantity(4);
+        orderBook.refreshQueuedOrder(first);
+        assertThat(orderBook.getBuyQueue().getFirst()).isSameAs(first);
+        orderBook.removeFirst(BUY);
+        assertThat(orderBook.getBuyQueue().getFirst().getOrderId()).isEqualTo(2);
+    }
+
+    @Test
+    void references_to_brokers_and_shareholders_are_released_with_their_last_order() {
+        ColumnarPriceLevelQueue sellQueue = (ColumnarPriceLevelQueue) orderBook.getSellQueue();
+        Broker otherBroker = Broker.builder().brokerId(2).build();
+        Shareholder otherShareholder = Shareholder.builder().shareholderId(2).build();
+        otherShareholder.incPosition(security, 1_000);
+        orderBook.enqueueToActiveQueue(new Order(11, security, SELL, 10, 15900, otherBroker, otherShareholder));
+        assertThat(sellQueue.referencedBrokerCount()).isEqualTo(2);
+        assertThat(sellQueue.referencedShareholderCount()).isEqualTo(2);
+
+        orderBook.removeByOrderIdFromActiveQueue(SELL, 11);
+        assertThat(sellQueue.referencedBrokerCount()).isEqualTo(1);
+        assertThat(sellQueue.referencedShareholderCount()).isEqualTo(1);
+        assertThat(sellQueue.totalQuantityByShareholder(otherShareholder)).isZero();
+
+        orderBook.enqueueToActiveQueue(new Order(12, security, SELL, 20, 15900, otherBroker, otherShareholder));
+        assertThat(sellQueue.findByOrderId(12).getBroker()).isSameAs(otherBroker);
+        assertThat(sellQueue.totalQuantityByShareholder(otherShareholder)).isEqualTo(20);
+    }
+
+    @Test
+    void matching_iceberg_orders_updates_the_stored_quantities() {
+        Order order = new Order(11, security, BUY, 500, 15810, broker, shareholder);
+        new ContinuousMatcher().execute(order);
+        Order iceberg = orderBook.findByOrderIdInActiveQueue(SELL, 7);
+        assertThat(iceberg.getTotalQuantity()).isEqualTo(185);
+        assertThat(iceberg.getQuantity()).isEqualTo(100);
+        assertThat(orderBook.getSellQueue()).extracting("orderId").containsExactly(8L, 7L, 9L, 10L);
+        assertThat(orderBook.totalSellQuantityByShareholder(shareholder)).isEqualTo(750 + 185 + 340 + 65);
+    }
+
+    @Test
+    void workload_publishes_the_same_events_as_object_storage() {
+        List<Object> requests = TradingWorkload.requests(20_000, 11, true);
+
+        RecordingPublisher objects = new RecordingPublisher();
+        var objectHandler = TradingWorkload.orderHandler(objects, OrderStorage.OBJECTS);
+        RecordingPublisher columnar = new RecordingPublisher();
+        var columnarHandler = TradingWorkload.orderHandler(columnar, OrderStorage.COLUMNAR);
+        for (Object request : requests) {
+            TradingWorkload.handleDirectly(objectHandler, request);
+            TradingWorkload.handleDirectly(columnarHandler, request);
+        }
+
+        assertThat(columnar.events)
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time", "timestamp")
+                .containsExactlyElementsOf(objects.events);
+    }
+}
@@ -0,0 +1,154 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.benchmark.TradingWorkload;
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.EngineClock;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.OrderAcceptedEvent;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EngineClockTest {
+    static class RecordingPublisher extends EventPublisher {
+        final List<Event> events = new ArrayList<>();
+
+        RecordingPublisher() {
+            super(null);
+        }
+
+        @Override
+        public void publish(Event event) {
+            events.add(event);
+        }
+    }
+
+    private EnterOrderRq newOrderRq(long orderId, LocalDateTime entryTime) {
+        return EnterOrderRq.createNewOrderRq(orderId, "ABC", orderId, entryTime, BUY, 10, 100, 1, 1, 0, 0, 0);
+    }
+
+    @Test
+    void stamps_are_strictly_increasing() {
+        EngineClock clock = new EngineClock();
+        EnterOrderRq first = newOrderRq(1, null);
+        EnterOrderRq second = newOrderRq(2, null);
+        clock.stamp(first);
+        clock.stamp(second);
+        assertThat(second.getSequence()).isGreaterThan(first.getSequence());
+        assertThat(second.getTimestamp()).isGreaterThan(first.getTimestamp());
+    }
+
+    @Test
+    void stamps_supplied_on_the_request_are_replaced() {
+        EngineClock clock = new EngineClock();
+        EnterOrderRq forged = newOrderRq(1, null);
+        forged.setSequence(1_000);
+        forged.setTimestamp(Long.MAX_VALUE / 2);
+        clock.stamp(forged);
+        assertThat(forged.getSequence()).isEqualTo(1);
+        assertThat(forged.getTimestamp()).isLessThan(Long.MAX_VALUE / 2);
+        assertThat(clock.nextSequence()).isEqualTo(2);
+    }
+
+    @Test
+    void replayed_stamps_are_kept_and_advance_the_clock() {
+        EngineClock clock = new EngineClock();
+        EnterOrderRq replayed = newOrderRq(1, null);
+        EngineClock.replay(1_000, Long.MAX_VALUE / 2, () -> clock.stamp(replayed));
+        assertThat(replayed.getSequence()).isEqualTo(1_000);
+        assertThat(replayed.getTimestamp()).isEqualTo(Long.MAX_VALUE / 2);
+        assertThat(clock.nextSequence()).isEqualTo(1_001);
+        assertThat(clock.nextTimestamp()).isGreaterThan(Long.MAX_VALUE / 2);
+
+        EnterOrderRq live = newOrderRq(2, null);
+        clock.stamp(live);
+        assertThat(live.getSequence()).isEqualTo(1_002);
+    }
+
+    @Test
+    void entry_time_follows_the_zone_rules_across_a_daylight_saving_change() {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime winter = LocalDateTime.of(2024, 1, 15, 9, 0);
+        LocalDateTime summer = LocalDateTime.of(2024, 7, 15, 9, 0);
+        assertThat(EngineClock.toTimestamp(summer) / 1_000_000_000L).isEqualTo(summer.atZone(zone).toEpochSecond());
+        assertThat(EngineClock.toLocalDateTime(EngineClock.toTimestamp(winter))).isEqualTo(winter);
+        assertThat(EngineClock.toLocalDateTime(EngineClock.toTimestamp(summer))).isEqualTo(summer);
+    }
+
+    @Test
+    void entry_sequence_breaks_ties_between_equal_entry_times() {
+        Security security = Security.builder().isin("ABC").build();
+        Broker broker = Broker.builder().brokerId(1).build();
+        Shareholder shareholder = Shareholder.builder().shareholderId(1).build();
+        long timestamp = EngineClock.toTimestamp(LocalDateTime.of(2024, 1, 1, 9, 0));
+        StopTriggerQueue queue = new StopTriggerQueue(BUY);
+        queue.enqueue(new StopLimitOrder(2, security, BUY, 10, 100, broker, shareholder, 2, timestamp, 90, 2));
+        queue.enqueue(new StopLimitOrder(3, security, BUY, 10, 100, broker, shareholder, 3, timestamp, 90, 3));
+        queue.enqueue(new StopLimitOrder(1, security, BUY, 10, 100, broker, shareholder, 1, timestamp, 90, 1));
+        assertThat(queue).extracting("orderId").containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void entry_time_survives_the_primitive_round_trip() {
+        LocalDateTime entryTime = LocalDateTime.of(2024, 1, 1, 9, 0, 0, 123_456_789);
+        assertThat(EngineClock.toLocalDateTime(EngineClock.toTimestamp(entryTime))).isEqualTo(entryTime);
+        assertThat(EngineClock.toLocalDateTime(EngineClock.toTimestamp(null))).isNull();
+    }
+
+    @Test
+    void replaying_stamped_requests_reproduces_event_times() {
+        List<Object> requests = TradingWorkload.requests(2_000, 5, true);
+        RecordingPublisher original = new RecordingPublisher();
+        var originalHandler = TradingWorkload.orderHandler(original);
+        requests.forEach(request -> TradingWorkload.handleDirectly(originalHandler, request));
+
+        List<long[]> stamps = requests.stream().map(EngineClockTest::stampOf).toList();
+
+        RecordingPublisher replay = new RecordingPublisher();
+        var replayHandler = TradingWorkload.orderHandler(replay);
+        for (int i = 0; i < requests.size(); i++) {
+            Object request = requests.get(i);
+            EngineClock.replay(stamps.get(i)[0], stamps.get(i)[1], () -> TradingWorkload.handleDirectly(replayHandler, request));
+        }
+
+        assertThat(replay.events).extracting(Event::getTime).containsExactlyElementsOf(
+                original.events.stream().map(Event::getTime).toList());
+        assertThat(replay.events).isEqualTo(original.events);
+    }
+
+    @Test
+    void events_carry_their_request_stamp_and_nothing_inherits_a_previous_one() {
+        RecordingPublisher publisher = new RecordingPublisher();
+        var orderHandler = TradingWorkload.orderHandler(publisher);
+        List<Object> requests = TradingWorkload.requests(50, 7, false);
+        requests.forEach(request -> TradingWorkload.handleDirectly(orderHandler, request));
+        long lastStamp = stampOf(requests.get(requests.size() - 1))[1];
+        assertThat(publisher.events.get(publisher.events.size() - 1).getTimestamp()).isEqualTo(lastStamp);
+
+        Security security = Security.builder().isin("ABC").build();
+        Order order = new Order(1, security, BUY, 10, 100, null, null);
+        assertThat(order.getEntrySequence()).isZero();
+        assertThat(order.getEntryTimestamp()).isEqualTo(EngineClock.NO_TIME);
+        assertThat(new IcebergOrder(2, security, BUY, 10, 100, null, null, 5).getEntryTimestamp()).isEqualTo(EngineClock.NO_TIME);
+        assertThat(new OrderAcceptedEvent(1, 1).getTimestamp()).isEqualTo(EngineClock.NO_TIME);
+    }
+
+    private static long[] stampOf(Object request) {
+        if (request instanceof EnterOrderRq enterOrderRq)
+            return new long[]{enterOrderRq.getSequence(), enterOrderRq.getTimestamp()};
+        if (request instanceof DeleteOrderRq deleteOrderRq)
+            return new long[]{deleteOrderRq.getSequence(), deleteOrderRq.getTimestamp()};
+        ChangeMatchingStateRq changeMatchingStateRq = (ChangeMatchingStateRq) request;
+        return new long[]{changeMatchingStateRq.getSequence(), changeMatchingStateRq.getTimestamp()};
+    }
+}
@@ -0,0 +1,97 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.benchmark.TradingWorkload;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.EventSink;
+import ir.ramtung.tinyme.messaging.SecurityGrouping;
+import ir.ramtung.tinyme.messaging.request.BatchRq;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroupedConsumptionTest {
+    private static void handle(OrderHandler orderHandler, Object request, EventSink sink) {
+        if (request instanceof EnterOrderRq enterOrderRq)
+            orderHandler.handleEnterOrder(enterOrderRq, sink);
+        else if (request instanceof DeleteOrderRq deleteOrderRq)
+            orderHandler.handleDeleteOrder(deleteOrderRq, sink);
+        else
+            orderHandler.handleChangeMatchingStateRq((ChangeMatchingStateRq) request, sink);
+    }
+
+    private static Map<String, List<Object>> groups(List<Object> requests) {
+        Map<String, List<Object>> groups = new HashMap<>();
+        for (Object request : requests)
+            groups.computeIfAbsent(SecurityGrouping.groupOf(request), key -> new ArrayList<>()).add(request);
+        return groups;
+    }
+
+    @Test
+    void securities_consumed_in_parallel_see_the_same_events_as_serial_consumption() throws Exception {
+        List<Object> requests = TradingWorkload.requests(20_000, 23, true);
+
+        OrderHandler serialHandler = TradingWorkload.orderHandler(new EngineClockTest.RecordingPublisher());
+        Map<String, EngineClockTest.RecordingPublisher> serial = new HashMap<>();
+        for (Object request : requests)
+            handle(serialHandler, request, serial.computeIfAbsent(SecurityGrouping.groupOf(request), key -> new EngineClockTest.RecordingPublisher()));
+
+        OrderHandler parallelHandler = TradingWorkload.orderHandler(new EngineClockTest.RecordingPublisher());
+        Map<String, EngineClockTest.RecordingPublisher> parallel = new HashMap<>();
+        Map<String, List<Object>> groups = groups(requests);
+        CyclicBarrier start = new CyclicBarrier(groups.size());
+        List<Thread> consumers = new ArrayList<>();
+        groups.forEach((isin, group) -> {
+            EngineClockTest.RecordingPublisher sink = new EngineClockTest.RecordingPublisher();
+            parallel.put(isin, sink);
+            consumers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+                group.forEach(request -> handle(parallelHandler, request, sink));
+            }));
+        });
+        consumers.forEach(Thread::start);
+        for (Thread consumer : consumers)
+            consumer.join();
+
+        assertThat(parallel.keySet()).containsExactlyInAnyOrder(TradingWorkload.ISINS);
+        for (String isin : TradingWorkload.ISINS)
+            assertThat(parallel.get(isin).events)
+                    .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time", "timestamp")
+                    .containsExactlyElementsOf(serial.get(isin).events);
+    }
+
+    @Test
+    void requests_are_grouped_by_security_and_mixed_batches_must_be_split() {
+        EnterOrderRq enterOrderRq = EnterOrderRq.createNewOrderRq(1, "ABC", 1, null, Side.BUY,
+                10, 1000, TradingWorkload.BROKER_ID, TradingWorkload.SHAREHOLDER_ID, 0, 0, 0);
+        DeleteOrderRq deleteOrderRq = new DeleteOrderRq(2, "ABC", Side.BUY, 1);
+        ChangeMatchingStateRq changeMatchingStateRq = new ChangeMatchingStateRq("DEF", MatchingState.AUCTION);
+        BatchRq mixed = new BatchRq(List.of(enterOrderRq, changeMatchingStateRq, deleteOrderRq));
+
+        assertThat(SecurityGrouping.groupOf(enterOrderRq)).isEqualTo("ABC");
+        assertThat(SecurityGrouping.groupOf(changeMatchingStateRq)).isEqualTo("DEF");
+        assertThat(SecurityGrouping.groupOf(new BatchRq(List.of(enterOrderRq, deleteOrderRq)))).isEqualTo("ABC");
+        assertThat(SecurityGrouping.groupOf(new BatchRq(List.of()))).isNull();
+        assertThatThrownBy(() -> SecurityGrouping.groupOf(mixed)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SecurityGrouping.stamp(mixed)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(SecurityGrouping.split(mixed)).containsExactly(
+                new BatchRq(List.of(enterOrderRq, deleteOrderRq)),
+                new BatchRq(List.of(changeMatchingStateRq)));
+    }
+}
@@ -0,0 +1,136 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static ir.ramtung.tinyme.domain.entity.Side.SELL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchFeasibilityTest {
+    private final ContinuousMatcher continuousMatcher = new ContinuousMatcher();
+    private Security security;
+    private OrderBook orderBook;
+    private Broker seller;
+    private Shareholder shareholder;
+    private List<Order> sellOrders;
+
+    @BeforeEach
+    void setup() {
+        security = Security.builder().isin("ABC").build();
+        orderBook = security.getOrderBook();
+        seller = Broker.builder().brokerId(1).credit(0).build();
+        shareholder = Shareholder.builder().shareholderId(1).build();
+        shareholder.incPosition(security, 100_000);
+        sellOrders = List.of(
+                new Order(1, security, SELL, 30, 500, seller, shareholder),
+                new IcebergOrder(2, security, SELL, 50, 500, seller, shareholder, 10),
+                new Order(3, security, SELL, 20, 600, seller, shareholder)
+        );
+        sellOrders.forEach(orderBook::enqueueToActiveQueue);
+    }
+
+    @Test
+    void buy_without_enough_credit_for_its_trades_is_rejected_without_matching() {
+        Broker buyer = Broker.builder().brokerId(2).credit(40_000).build();
+        Order order = new Order(10, security, BUY, 100, 600, buyer, shareholder);
+
+        MatchResult result = continuousMatcher.execute(order);
+
+        assertThat(result.outcome()).isEqualTo(MatchingOutcome.NOT_ENOUGH_CREDIT);
+        assertThat(security.getTradeBuffer()).isEmpty();
+        assertThat(buyer.getCredit()).isEqualTo(40_000);
+        assertThat(seller.getCredit()).isZero();
+        assertThat(orderBook.getSellQueue()).extracting("orderId").containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void buy_without_enough_credit_for_its_remainder_is_rejected_without_matching() {
+        Broker buyer = Broker.builder().brokerId(2).credit(41_000).build();
+        Order order = new Order(10, security, BUY, 100, 500, buyer, shareholder);
+
+        MatchResult result = continuousMatcher.execute(order);
+
+        assertThat(result.outcome()).isEqualTo(MatchingOutcome.NOT_ENOUGH_CREDIT);
+        assertThat(security.getTradeBuffer()).isEmpty();
+        assertThat(orderBook.findByOrderIdInActiveQueue(SELL, 2).getTotalQuantity()).isEqualTo(50);
+    }
+
+    @Test
+    void minimum_execution_quantity_is_checked_against_depth_before_matching() {
+        Broker buyer = Broker.builder().brokerId(2).credit(1_000_000).build();
+        Order order = new Order(10, security, BUY, 100, 500, buyer, shareholder, null, OrderStatus.NEW, 90);
+
+        MatchResult result = continuousMatcher.execute(order);
+
+        assertThat(result.outcome()).isEqualTo(MatchingOutcome.MINIMUM_QUANTITY_INSUFFICIENT);
+        assertThat(security.getTradeBuffer()).isEmpty();
+        assertThat(buyer.getCredit()).isEqualTo(1_000_000);
+    }
+
+    @Test
+    void orders_crossing_their_own_broker_still_go_through_matching() {
+        Broker broker = Broker.builder().brokerId(3).credit(15_000).build();
+        Order own = new Order(4, security, SELL, 30, 400, broker, shareholder);
+        orderBook.enqueueToActiveQueue(own);
+        Order order = new Order(10, security, BUY, 60, 500, broker, shareholder);
+
+        MatchResult result = continuousMatcher.execute(order);
+
+        assertThat(result.outcome()).isEqualTo(MatchingOutcome.EXECUTED);
+        assertThat(result.trades()).hasSize(2);
+        assertThat(broker.getCredit()).isEqualTo(15_000 - 30 * 500);
+    }
+
+    @Test
+    void own_broker_orders_count_only_within_the_quantity_the_order_can_reach() {
+        for (OrderStorage storage : OrderStorage.values()) {
+            OrderBook book = new OrderBook(storage);
+            Security other = Security.builder().isin("XYZ").orderBook(book).build();
+            Broker broker = Broker.builder().brokerId(3).build();
+            book.enqueueToActiveQueue(new Order(1, other, SELL, 30, 500, seller, shareholder));
+            book.enqueueToActiveQueue(new IcebergOrder(2, other, SELL, 50, 500, seller, shareholder, 10));
+            book.enqueueToActiveQueue(new Order(3, other, SELL, 20, 500, broker, shareholder));
+            book.enqueueToActiveQueue(new Order(4, other, SELL, 20, 600, broker, shareholder));
+
+            assertThat(book.hasMatchableOrderFromBroker(new Order(10, other, BUY, 41, 500, broker, shareholder))).isTrue();
+            assertThat(book.hasMatchableOrderFromBroker(new Order(11, other, BUY, 40, 500, broker, shareholder))).isFalse();
+            assertThat(book.hasMatchableOrderFromBroker(new Order(12, other, BUY, 1_000, 499, broker, shareholder))).isFalse();
+            assertThat(book.hasMatchableOrderFromBroker(new Order(13, other, BUY, 1_000, 600, seller, shareholder))).isTrue();
+
+            book.removeByOrderIdFromActiveQueue(SELL, 3);
+            book.removeByOrderIdFromActiveQueue(SELL, 4);
+            assertThat(book.hasMatchableOrderFromBroker(new Order(14, other, BUY, 1_000, 600, broker, shareholder))).isFalse();
+        }
+    }
+
+    @Test
+    void cost_of_buying_matches_walking_the_sell_levels() {
+        Random random = new Random(7);
+        Security big = Security.builder().isin("XYZ").build();
+        List<int[]> levels = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int price = 100 + random.nextInt(200);
+            int quantity = 1 + random.nextInt(40);
+            big.getOrderBook().enqueueToActiveQueue(new Order(i + 1, big, SELL, quantity, price, seller, shareholder));
+            levels.add(new int[]{price, quantity});
+        }
+        levels.sort((a, b) -> Integer.compare(a[0], b[0]));
+        for (long quantity = 0; quantity <= 7000; quantity += 37) {
+            long expected = 0;
+            long left = quantity;
+            for (int[] level : levels) {
+                long taken = Math.min(left, level[1]);
+                expected += taken * level[0];
+                left -= taken;
+            }
+            assertThat(big.getOrderBook().costOfBuying(quantity)).isEqualTo(expected);
+        }
+    }
+}
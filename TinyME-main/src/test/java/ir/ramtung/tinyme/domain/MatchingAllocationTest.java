@@ -0,0 +1,114 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static ir.ramtung.tinyme.domain.entity.Side.SELL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class MatchingAllocationTest {
+    private static final int ITERATIONS = 200_000;
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final ContinuousMatcher continuousMatcher = new ContinuousMatcher();
+    private Security security;
+    private Order incoming;
+    private EnterOrderRq refill;
+    private MatchResult result;
+
+    @BeforeEach
+    void setup() {
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        security = Security.builder().isin("ABC").build();
+        Broker buyer = Broker.builder().brokerId(1).credit(Long.MAX_VALUE / 2).build();
+        Broker seller = Broker.builder().brokerId(2).build();
+        Shareholder sellingShareholder = Shareholder.builder().shareholderId(1).build();
+        sellingShareholder.incPosition(security, 1_000_000_000);
+        Shareholder buyingShareholder = Shareholder.builder().shareholderId(2).build();
+        security.getOrderBook().enqueueToActiveQueue(
+                new Order(1, security, SELL, 1_000_000_000, 100, seller, sellingShareholder, LocalDateTime.of(2024, 1, 1, 9, 0)));
+        incoming = new Order(2, security, BUY, 10, 100, buyer, buyingShareholder);
+        refill = EnterOrderRq.createUpdateOrderRq(2, "ABC", 2, null, BUY, 10, 100, 1, 2, 0, 0, 0);
+        result = MatchResult.reusable();
+    }
+
+    private void matchOnce() {
+        incoming.updateFromRequest(refill);
+        continuousMatcher.match(incoming, result);
+    }
+
+    private void executeOnce() {
+        incoming.updateFromRequest(refill);
+        continuousMatcher.execute(incoming, result);
+    }
+
+    @Test
+    void steady_state_continuous_match_allocates_constant_memory() {
+        for (int i = 0; i < ITERATIONS; i++)
+            matchOnce();
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++)
+            matchOnce();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(result.outcome()).isEqualTo(MatchingOutcome.EXECUTED);
+        assertThat(result.trades()).hasSize(1);
+        assertThat(allocated).isLessThan(64 * 1024);
+    }
+
+    @Test
+    void steady_state_execution_updates_positions_in_constant_memory() {
+        for (int i = 0; i < ITERATIONS; i++)
+            executeOnce();
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++)
+            executeOnce();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(incoming.getShareholder().getPosition(security)).isEqualTo(2L * ITERATIONS * 10);
+        assertThat(allocated).isLessThan(64 * 1024);
+    }
+
+    @Test
+    void rejections_are_shared_and_reusable_results_are_recycled() {
+        assertThat(MatchResult.notEnoughCredit()).isSameAs(MatchResult.notEnoughCredit());
+        assertThat(MatchResult.minimumQuantityInsufficient()).isSameAs(MatchResult.minimumQuantityInsufficient());
+        matchOnce();
+        MatchResult first = result;
+        matchOnce();
+        assertThat(result).isSameAs(first);
+        assertThat(result.trades()).isSameAs(security.getTradeBuffer());
+    }
+
+    @Test
+    void cleared_trade_slots_do_not_retain_resting_orders() {
+        matchOnce();
+        Trade trade = result.trades().get(0);
+        security.getTradeBuffer().clear();
+        assertThat(trade).extracting("restingOrder", "buyBroker", "sellShareholder").containsOnlyNulls();
+    }
+
+    @Test
+    void trades_of_a_superseded_match_are_guarded_and_copies_survive() {
+        MatchResult first = continuousMatcher.match(incoming, MatchResult.reusable());
+        List<Trade> copies = first.copyTrades();
+        matchOnce();
+        assertThatThrownBy(first::trades).isInstanceOf(IllegalStateException.class);
+        assertThat(copies).hasSize(1);
+        assertThat(copies.get(0).getQuantity()).isEqualTo(10);
+        assertThat(copies.get(0).getSellOrderId()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,124 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.config.MockedJMSTestConfig;
+import ir.ramtung.tinyme.domain.entity.*;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static ir.ramtung.tinyme.domain.entity.Side.SELL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(MockedJMSTestConfig.class)
+@DirtiesContext
+public class OrderBookIndexTest {
+    private Security security;
+    private Broker broker;
+    private Shareholder shareholder;
+    private OrderBook orderBook;
+    @Autowired
+    private ContinuousMatcher continuousMatcher;
+
+    @BeforeEach
+    void setupOrderBook() {
+        security = Security.builder().build();
+        broker = Broker.builder().credit(100_000_000L).build();
+        shareholder = Shareholder.builder().build();
+        shareholder.incPosition(security, 100_000);
+        orderBook = security.getOrderBook();
+        List<Order> orders = Arrays.asList(
+                new Order(1, security, BUY, 304, 15700, broker, shareholder),
+                new Order(2, security, BUY, 43, 15500, broker, shareholder),
+                new Order(3, security, BUY, 445, 15450, broker, shareholder),
+                new Order(4, security, BUY, 526, 15450, broker, shareholder),
+                new Order(5, security, BUY, 1000, 15400, broker, shareholder),
+                new Order(6, security, SELL, 350, 15800, broker, shareholder),
+                new IcebergOrder(7, security, SELL, 285, 15810, broker, shareholder, 100),
+                new Order(8, security, SELL, 800, 15810, broker, shareholder),
+                new Order(9, security, SELL, 340, 15820, broker, shareholder),
+                new Order(10, security, SELL, 65, 15820, broker, shareholder)
+        );
+        orders.forEach(order -> orderBook.enqueueToActiveQueue(order));
+    }
+
+    private void assertIndexMatchesQueues() {
+        for (Side side : Side.values()) {
+            RestingOrderQueue queue = side == BUY ? orderBook.getBuyQueue() : orderBook.getSellQueue();
+            List<Order> inactiveQueue = side == BUY ? orderBook.getInactiveBuyQueue() : orderBook.getInactiveSellQueue();
+            assertThat(queue.indexedOrderCount()).isEqualTo(queue.size());
+            for (Order order : queue)
+                assertThat(orderBook.findByOrderIdInActiveQueue(side, order.getOrderId())).isSameAs(order);
+            for (Order order : inactiveQueue)
+                assertThat(orderBook.findByOrderIdInInactiveQueue(side, order.getOrderId())).isSameAs(order);
+        }
+        int sellQuantity = orderBook.getSellQueue().stream()
+                .filter(order -> order.getShareholder().equals(shareholder))
+                .mapToInt(Order::getTotalQuantity)
+                .sum();
+        assertThat(orderBook.totalSellQuantityByShareholder(shareholder)).isEqualTo(sellQuantity);
+    }
+
+    @Test
+    void index_follows_matches_and_iceberg_replenishment() {
+        Order order = new Order(11, security, BUY, 500, 15810, broker, shareholder);
+        continuousMatcher.execute(order);
+        assertIndexMatchesQueues();
+        assertThat(orderBook.findByOrderIdInActiveQueue(SELL, 6)).isNull();
+        assertThat(orderBook.findByOrderIdInActiveQueue(SELL, 7).getQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    void index_follows_rollback_of_trades() {
+        Broker poorBroker = Broker.builder().credit(350 * 15800).build();
+        Order order = new Order(11, security, BUY, 1000, 15820, poorBroker, shareholder);
+        MatchResult result = continuousMatcher.execute(order);
+        assertThat(result.outcome()).isEqualTo(MatchingOutcome.NOT_ENOUGH_CREDIT);
+        assertIndexMatchesQueues();
+        assertThat(orderBook.findByOrderIdInActiveQueue(SELL, 6)).isNotNull();
+    }
+
+    @Test
+    void index_follows_updates_and_deletes() throws Exception {
+        security.updateOrder(EnterOrderRq.createUpdateOrderRq(1, security.getIsin(), 3, LocalDateTime.now(), BUY, 445, 15600, 0, 0, 0, 0, 0), continuousMatcher);
+        assertIndexMatchesQueues();
+        assertThat(orderBook.getBuyQueue().get(1).getOrderId()).isEqualTo(3);
+
+        security.deleteOrder(new DeleteOrderRq(2, security.getIsin(), BUY, 4));
+        assertIndexMatchesQueues();
+        assertThat(orderBook.findByOrderIdInActiveQueue(BUY, 4)).isNull();
+
+        security.updateOrder(EnterOrderRq.createUpdateOrderRq(3, security.getIsin(), 9, LocalDateTime.now(), SELL, 300, 15820, 0, 0, 0, 0, 0), continuousMatcher);
+        assertIndexMatchesQueues();
+        security.updateOrder(EnterOrderRq.createUpdateOrderRq(4, security.getIsin(), 10, LocalDateTime.now(), SELL, 100, 15830, 0, 0, 0, 0, 0), continuousMatcher);
+        assertIndexMatchesQueues();
+
+        security.deleteOrder(new DeleteOrderRq(5, security.getIsin(), SELL, 8));
+        assertIndexMatchesQueues();
+    }
+
+    @Test
+    void index_follows_stop_limit_activation() {
+        StopLimitOrder stopLimitOrder = new StopLimitOrder(11, security, BUY, 10, 15900, broker, shareholder, 15800);
+        orderBook.enqueueToInactiveQueue(stopLimitOrder);
+        assertIndexMatchesQueues();
+        assertThat(orderBook.findOrderInAllQueues(BUY, 11)).isSameAs(stopLimitOrder);
+
+        assertThat(orderBook.dequeueFromInactiveQueue(BUY, 15800)).isSameAs(stopLimitOrder);
+        assertThat(orderBook.findByOrderIdInInactiveQueue(BUY, 11)).isNull();
+        orderBook.enqueueToActiveQueue(stopLimitOrder);
+        assertIndexMatchesQueues();
+        assertThat(orderBook.findOrderInAllQueues(BUY, 11)).isSameAs(stopLimitOrder);
+    }
+}
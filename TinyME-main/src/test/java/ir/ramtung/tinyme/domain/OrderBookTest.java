@@ -76,4 +76,102 @@ class OrderBookTest {
         orderBook.removeByOrderIdFromActiveQueue(Side.SELL, 10);
         assertThat(orderBook.getSellQueue()).isEqualTo(orders.subList(5, 9));
     }
-}
\ No newline at end of file
+
+    @Test
+    void keeps_price_time_priority_when_enqueuing_into_existing_levels() {
+        OrderBook orderBook = security.getOrderBook();
+        Broker broker = Broker.builder().build();
+        Shareholder shareholder = Shareholder.builder().build();
+        Order buy = new Order(11, security, Side.BUY, 100, 15450, broker, shareholder);
+        Order sell = new Order(12, security, Side.SELL, 100, 15810, broker, shareholder);
+        orderBook.enqueueToActiveQueue(buy);
+        orderBook.enqueueToActiveQueue(sell);
+        assertThat(orderBook.getBuyQueue()).extracting("orderId").containsExactly(1L, 2L, 3L, 4L, 11L, 5L);
+        assertThat(orderBook.getSellQueue()).extracting("orderId").containsExactly(6L, 7L, 8L, 12L, 9L, 10L);
+    }
+
+    @Test
+    void removing_the_best_orders_exposes_the_next_price_level() {
+        OrderBook orderBook = security.getOrderBook();
+        orderBook.removeFirst(Side.SELL);
+        assertThat(orderBook.getSellQueue().getFirst().getOrderId()).isEqualTo(7);
+        orderBook.removeByOrderIdFromActiveQueue(Side.SELL, 7);
+        orderBook.removeByOrderIdFromActiveQueue(Side.SELL, 8);
+        assertThat(orderBook.getSellQueue().getFirst().getOrderId()).isEqualTo(9);
+        assertThat(orderBook.getSellQueue()).hasSize(2);
+        assertThat(orderBook.getSellQueue().levelCount()).isEqualTo(1);
+    }
+
+    @Test
+    void opening_price_maximizes_tradable_quantity_and_breaks_ties_by_distance_then_price() {
+        OrderBook orderBook = security.getOrderBook();
+        Broker broker = Broker.builder().build();
+        Shareholder shareholder = Shareholder.builder().build();
+        orderBook.enqueueToActiveQueue(new Order(11, security, Side.BUY, 300, 15810, broker, shareholder));
+        orderBook.enqueueToActiveQueue(new Order(12, security, Side.SELL, 100, 15600, broker, shareholder));
+
+        assertThat(orderBook.calculateOpeningPrice(15805)).isEqualTo(15805);
+        assertThat(orderBook.calculateOpeningPrice(15810)).isEqualTo(15810);
+        assertThat(orderBook.calculateOpeningPrice(0)).isEqualTo(15800);
+        assertThat(orderBook.calculateTradableQuantity(15800)).isEqualTo(300);
+        assertThat(orderBook.calculateTradableQuantity(15700)).isEqualTo(100);
+    }
+
+    @Test
+    void opening_price_follows_changes_to_the_book() {
+        OrderBook orderBook = security.getOrderBook();
+        Broker broker = Broker.builder().build();
+        Shareholder shareholder = Shareholder.builder().build();
+        orderBook.enqueueToActiveQueue(new Order(11, security, Side.BUY, 300, 15810, broker, shareholder));
+        assertThat(orderBook.calculateOpeningPrice(15700)).isEqualTo(15800);
+        assertThat(orderBook.calculateTradableQuantity(15800)).isEqualTo(300);
+
+        orderBook.removeFirst(Side.SELL);
+        assertThat(orderBook.calculateOpeningPrice(15700)).isEqualTo(15810);
+        assertThat(orderBook.calculateTradableQuantity(15810)).isEqualTo(300);
+
+        orderBook.removeByOrderIdFromActiveQueue(Side.BUY, 11);
+        assertThat(orderBook.calculateOpeningPrice(15700)).isEqualTo(15700);
+        assertThat(orderBook.calculateTradableQuantity(15700)).isEqualTo(0);
+    }
+
+    @Test
+    void inactive_orders_are_kept_in_trigger_order_then_time_order() {
+        OrderBook orderBook = security.getOrderBook();
+        Broker broker = Broker.builder().build();
+        Shareholder shareholder = Shareholder.builder().build();
+        List<Order> stopOrders = Arrays.asList(
+                new StopLimitOrder(11, security, Side.BUY, 10, 15900, broker, shareholder, 15850),
+                new StopLimitOrder(12, security, Side.BUY, 10, 15900, broker, shareholder, 15820),
+                new StopLimitOrder(13, security, Side.BUY, 10, 15900, broker, shareholder, 15850),
+                new StopLimitOrder(14, security, Side.SELL, 10, 15300, broker, shareholder, 15600),
+                new StopLimitOrder(15, security, Side.SELL, 10, 15300, broker, shareholder, 15650)
+        );
+        stopOrders.forEach(orderBook::enqueueToInactiveQueue);
+
+        assertThat(orderBook.getInactiveBuyQueue()).extracting(Order::getOrderId).containsExactly(12L, 11L, 13L);
+        assertThat(orderBook.getInactiveSellQueue()).extracting(Order::getOrderId).containsExactly(15L, 14L);
+    }
+
+    @Test
+    void one_range_query_returns_every_triggered_order_in_priority() {
+        OrderBook orderBook = security.getOrderBook();
+        Broker broker = Broker.builder().build();
+        Shareholder shareholder = Shareholder.builder().build();
+        Arrays.asList(
+                new StopLimitOrder(11, security, Side.BUY, 10, 15900, broker, shareholder, 15850),
+                new StopLimitOrder(12, security, Side.BUY, 10, 15900, broker, shareholder, 15820),
+                new StopLimitOrder(13, security, Side.BUY, 10, 15900, broker, shareholder, 15900),
+                new StopLimitOrder(14, security, Side.SELL, 10, 15300, broker, shareholder, 15600),
+                new StopLimitOrder(15, security, Side.SELL, 10, 15300, broker, shareholder, 15800)
+        ).forEach(orderBook::enqueueToInactiveQueue);
+
+        assertThat(orderBook.dequeueTriggeredOrders(Side.BUY, 15850)).extracting(Order::getOrderId).containsExactly(12L, 11L);
+        assertThat(orderBook.dequeueTriggeredOrders(Side.SELL, 15850)).isEmpty();
+        assertThat(orderBook.dequeueTriggeredOrders(Side.SELL, 15700)).extracting(Order::getOrderId).containsExactly(15L);
+        assertThat(orderBook.findByOrderIdInInactiveQueue(Side.BUY, 11)).isNull();
+        assertThat(orderBook.findByOrderIdInInactiveQueue(Side.BUY, 13)).isNotNull();
+        assertThat(orderBook.getInactiveBuyQueue()).extracting(Order::getOrderId).containsExactly(13L);
+        assertThat(orderBook.getInactiveSellQueue()).extracting(Order::getOrderId).containsExactly(14L);
+    }
+}
@@ -0,0 +1,107 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.benchmark.TradingWorkload;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.event.*;
+import ir.ramtung.tinyme.messaging.request.BatchRq;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderHandlerBatchTest {
+    private static EnterOrderRq newOrderRq(long orderId, String isin, Side side, int price) {
+        return EnterOrderRq.createNewOrderRq(orderId, isin, orderId, null, side, 10, price,
+                TradingWorkload.BROKER_ID, TradingWorkload.SHAREHOLDER_ID, 0, 0, 0);
+    }
+
+    private static List<Object> auctionOrders() {
+        return List.of(
+                newOrderRq(1, "ABC", Side.BUY, 1000),
+                newOrderRq(2, "DEF", Side.BUY, 1000),
+                newOrderRq(3, "ABC", Side.SELL, 990),
+                newOrderRq(4, "ABC", Side.SELL, 995));
+    }
+
+    private static OrderHandler auctionHandler(EngineClockTest.RecordingPublisher publisher) {
+        OrderHandler orderHandler = TradingWorkload.orderHandler(publisher);
+        orderHandler.handleChangeMatchingStateRq(new ChangeMatchingStateRq("ABC", MatchingState.AUCTION));
+        orderHandler.handleChangeMatchingStateRq(new ChangeMatchingStateRq("DEF", MatchingState.AUCTION));
+        publisher.events.clear();
+        return orderHandler;
+    }
+
+    @Test
+    void opening_price_is_published_once_per_security_at_the_end_of_the_batch() {
+        EngineClockTest.RecordingPublisher individual = new EngineClockTest.RecordingPublisher();
+        OrderHandler individualHandler = auctionHandler(individual);
+        auctionOrders().forEach(request -> TradingWorkload.handleDirectly(individualHandler, request));
+        EngineClockTest.RecordingPublisher batched = new EngineClockTest.RecordingPublisher();
+        OrderHandler batchedHandler = auctionHandler(batched);
+
+        batchedHandler.handleBatch(new BatchRq(auctionOrders()));
+
+        assertThat(individual.events.stream().filter(event -> event instanceof OpeningPriceEvent)).hasSize(4);
+        assertThat(batched.events).hasSize(6);
+        assertThat(batched.events.subList(0, 4)).allMatch(event -> event instanceof OrderAcceptedEvent);
+        assertThat(batched.events.subList(4, 6)).extracting("securityIsin").containsExactly("ABC", "DEF");
+        OpeningPriceEvent last = (OpeningPriceEvent) individual.events.get(individual.events.size() - 1);
+        OpeningPriceEvent abc = (OpeningPriceEvent) batched.events.get(4);
+        assertThat(abc.getOpeningPrice()).isEqualTo(last.getOpeningPrice());
+        assertThat(abc.getTradableQuantity()).isEqualTo(last.getTradableQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void securities_back_in_continuous_state_get_no_opening_price() {
+        EngineClockTest.RecordingPublisher publisher = new EngineClockTest.RecordingPublisher();
+        OrderHandler orderHandler = TradingWorkload.orderHandler(publisher);
+        orderHandler.handleChangeMatchingStateRq(new ChangeMatchingStateRq("ABC", MatchingState.AUCTION));
+        publisher.events.clear();
+
+        orderHandler.handleBatch(new BatchRq(List.of(
+                newOrderRq(1, "ABC", Side.BUY, 1000),
+                new ChangeMatchingStateRq("ABC", MatchingState.CONTINUOUS))));
+
+        assertThat(publisher.events).noneMatch(event -> event instanceof OpeningPriceEvent);
+    }
+
+    @Test
+    void batched_requests_produce_the_same_matching_events_as_individual_requests() {
+        List<Object> requests = TradingWorkload.requests(3_000, 11, true);
+        EngineClockTest.RecordingPublisher individual = new EngineClockTest.RecordingPublisher();
+        OrderHandler individualHandler = TradingWorkload.orderHandler(individual);
+        requests.forEach(request -> TradingWorkload.handleDirectly(individualHandler, request));
+
+        EngineClockTest.RecordingPublisher batched = new EngineClockTest.RecordingPublisher();
+        OrderHandler batchedHandler = TradingWorkload.orderHandler(batched);
+        for (int from = 0; from < requests.size(); from += 100)
+            batchedHandler.handleBatch(new BatchRq(new ArrayList<>(requests.subList(from, Math.min(from + 100, requests.size())))));
+
+        assertThat(withoutOpeningPrices(batched.events))
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time", "timestamp")
+                .containsExactlyElementsOf(withoutOpeningPrices(individual.events));
+        assertThat(batched.events.stream().filter(event -> event instanceof OpeningPriceEvent).count())
+                .isLessThan(individual.events.stream().filter(event -> event instanceof OpeningPriceEvent).count());
+    }
+
+    @Test
+    void unsupported_items_reject_the_whole_batch_before_processing() {
+        EngineClockTest.RecordingPublisher publisher = new EngineClockTest.RecordingPublisher();
+        OrderHandler orderHandler = TradingWorkload.orderHandler(publisher);
+        List<Object> requests = List.of(newOrderRq(1, "ABC", Side.BUY, 1000), "not a request");
+
+        assertThatThrownBy(() -> orderHandler.handleBatch(requests)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(publisher.events).isEmpty();
+    }
+
+    private static List<Event> withoutOpeningPrices(List<Event> events) {
+        return events.stream().filter(event -> !(event instanceof OpeningPriceEvent)).toList();
+    }
+}
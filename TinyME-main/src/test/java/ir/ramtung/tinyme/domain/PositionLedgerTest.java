@@ -0,0 +1,68 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.domain.entity.PositionLedger;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PositionLedgerTest {
+    @Test
+    void positions_survive_growing_the_ledger() {
+        PositionLedger ledger = new PositionLedger();
+        for (int i = 0; i < 10_000; i++)
+            ledger.increase(i * 7, i);
+        for (int i = 0; i < 10_000; i += 2)
+            ledger.decrease(i * 7, i);
+        assertThat(ledger.size()).isEqualTo(10_000);
+        assertThat(ledger.positionOf(7 * 9_999)).isEqualTo(9_999);
+        assertThat(ledger.positionOf(7 * 9_998)).isZero();
+        assertThat(ledger.positionOf(3)).isZero();
+
+        Map<Integer, Long> entries = new HashMap<>();
+        ledger.forEach(entries::put);
+        assertThat(entries).hasSize(10_000).containsEntry(7 * 4_001, 4_001L);
+    }
+
+    @Test
+    void decreasing_below_zero_is_rejected_without_changing_the_position() {
+        PositionLedger ledger = new PositionLedger();
+        ledger.increase(1, 10);
+        assertThatThrownBy(() -> ledger.decrease(1, 11)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ledger.decrease(2, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(ledger.positionOf(1)).isEqualTo(10);
+        assertThat(ledger.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shareholders_with_the_same_id_keep_separate_positions() {
+        Security security = Security.builder().isin("ABC").build();
+        Shareholder first = Shareholder.builder().build();
+        Shareholder second = Shareholder.builder().build();
+        first.incPosition(security, 100);
+        second.incPosition(security, 40);
+        second.decPosition(security, 15);
+        assertThat(first.hasEnoughPositionsOn(security, 100)).isTrue();
+        assertThat(second.hasEnoughPositionsOn(security, 26)).isFalse();
+        assertThat(second.getPosition(security)).isEqualTo(25);
+    }
+
+    @Test
+    void every_shareholder_gets_its_own_ledger_slot() {
+        assertThat(Shareholder.ShareholderBuilder.class.getDeclaredMethods())
+                .extracting(Method::getName)
+                .doesNotContain("index");
+        Set<Integer> indexes = new HashSet<>();
+        for (int i = 0; i < 1_000; i++)
+            indexes.add(Shareholder.builder().shareholderId(i % 10).build().getIndex());
+        assertThat(indexes).hasSize(1_000);
+    }
+}
@@ -0,0 +1,134 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.domain.service.AuctionMatcher;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.domain.service.RequestContext;
+import ir.ramtung.tinyme.messaging.EventPublisher;
+import ir.ramtung.tinyme.messaging.Message;
+import ir.ramtung.tinyme.messaging.event.OrderAcceptedEvent;
+import ir.ramtung.tinyme.messaging.event.OrderRejectedEvent;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RequestContextTest {
+    static class CountingSecurityRepository extends SecurityRepository {
+        int lookups;
+
+        @Override
+        public int handleOf(String isin) {
+            lookups++;
+            return super.handleOf(isin);
+        }
+    }
+
+    static class CountingBrokerRepository extends BrokerRepository {
+        int lookups;
+
+        @Override
+        public int handleOf(long brokerId) {
+            lookups++;
+            return super.handleOf(brokerId);
+        }
+    }
+
+    static class CountingShareholderRepository extends ShareholderRepository {
+        int lookups;
+
+        @Override
+        public int handleOf(long shareholderId) {
+            lookups++;
+            return super.handleOf(shareholderId);
+        }
+    }
+
+    private CountingSecurityRepository securityRepository;
+    private CountingBrokerRepository brokerRepository;
+    private CountingShareholderRepository shareholderRepository;
+    private EventPublisher eventPublisher;
+    private OrderHandler orderHandler;
+
+    @BeforeEach
+    void setup() {
+        securityRepository = new CountingSecurityRepository();
+        brokerRepository = new CountingBrokerRepository();
+        shareholderRepository = new CountingShareholderRepository();
+        eventPublisher = mock(EventPublisher.class);
+        securityRepository.addSecurity(Security.builder().isin("ABC").build());
+        brokerRepository.addBroker(Broker.builder().brokerId(1).credit(1_000_000).build());
+        shareholderRepository.addShareholder(Shareholder.builder().shareholderId(1).build());
+        orderHandler = new OrderHandler(securityRepository, brokerRepository, shareholderRepository,
+                eventPublisher, new ContinuousMatcher(), new AuctionMatcher());
+    }
+
+    @Test
+    void enter_order_resolves_each_entity_exactly_once() {
+        securityRepository.lookups = 0;
+        brokerRepository.lookups = 0;
+        shareholderRepository.lookups = 0;
+
+        orderHandler.handleEnterOrder(EnterOrderRq.createNewOrderRq(1, "ABC", 1, null, BUY, 10, 100, 1, 1, 0, 0, 0));
+
+        verify(eventPublisher).publish(any(OrderAcceptedEvent.class));
+        assertThat(securityRepository.lookups).isEqualTo(1);
+        assertThat(brokerRepository.lookups).isEqualTo(1);
+        assertThat(shareholderRepository.lookups).isEqualTo(1);
+    }
+
+    @Test
+    void reused_context_does_not_carry_entities_into_the_next_request() {
+        orderHandler.handleEnterOrder(EnterOrderRq.createNewOrderRq(1, "ABC", 1, null, BUY, 10, 100, 1, 1, 0, 0, 0));
+        orderHandler.handleEnterOrder(EnterOrderRq.createNewOrderRq(2, "XYZ", 2, null, BUY, 10, 100, 1, 1, 0, 0, 0));
+
+        verify(eventPublisher).publish(new OrderAcceptedEvent(1, 1));
+        verify(eventPublisher).publish(new OrderRejectedEvent(2, 2, List.of(Message.UNKNOWN_SECURITY_ISIN)));
+    }
+
+    @Test
+    void unknown_entities_resolve_to_no_handle() {
+        RequestContext context = new RequestContext();
+        long errors = orderHandler.collectRequestErrors(EnterOrderRq.createNewOrderRq(1, "XYZ", 1, null, BUY, 10, 100, 7, 7, 0, 0, 0), context);
+
+        assertThat(context.getSecurityHandle()).isEqualTo(SecurityRepository.NO_HANDLE);
+        assertThat(context.getBrokerHandle()).isEqualTo(BrokerRepository.NO_HANDLE);
+        assertThat(context.getShareholderHandle()).isEqualTo(ShareholderRepository.NO_HANDLE);
+        assertThat(context.getSecurity()).isNull();
+        assertThat(Long.bitCount(errors)).isEqualTo(3);
+    }
+
+    @Test
+    void handles_are_dense_and_stable_across_growth() {
+        SecurityRepository repository = new SecurityRepository();
+        for (int i = 0; i < 1000; i++)
+            assertThat(repository.addSecurity(Security.builder().isin("IR" + i).build())).isEqualTo(i);
+        Security replacement = Security.builder().isin("IR" + 42).build();
+        assertThat(repository.addSecurity(replacement)).isEqualTo(42);
+
+        for (int i = 0; i < 1000; i++) {
+            String isin = new String(("IR" + i).toCharArray());
+            assertThat(repository.handleOf(isin)).isEqualTo(i);
+            assertThat(repository.securityAt(i).getIsin()).isEqualTo(isin);
+        }
+        assertThat(repository.findSecurityByIsin("IR42")).isSameAs(replacement);
+        assertThat(repository.handleOf(null)).isEqualTo(SecurityRepository.NO_HANDLE);
+
+        BrokerRepository brokers = new BrokerRepository();
+        for (int i = 0; i < 1000; i++)
+            assertThat(brokers.addBroker(Broker.builder().brokerId(i * 31L).build())).isEqualTo(i);
+        assertThat(brokers.findBrokerById(31L * 500).getBrokerId()).isEqualTo(31L * 500);
+        assertThat(brokers.handleOf(1)).isEqualTo(BrokerRepository.NO_HANDLE);
+    }
+}
@@ -0,0 +1,95 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.domain.service.RequestContext;
+import ir.ramtung.tinyme.domain.service.RequestValidator;
+import ir.ramtung.tinyme.messaging.Message;
+import ir.ramtung.tinyme.messaging.RejectionReason;
+import ir.ramtung.tinyme.messaging.exception.InvalidRequestException;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static ir.ramtung.tinyme.domain.entity.Side.BUY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RequestValidationTest {
+    private static final int ITERATIONS = 200_000;
+
+    private RequestValidator requestValidator;
+
+    @BeforeEach
+    void setup() {
+        SecurityRepository securityRepository = new SecurityRepository();
+        BrokerRepository brokerRepository = new BrokerRepository();
+        ShareholderRepository shareholderRepository = new ShareholderRepository();
+        securityRepository.addSecurity(Security.builder().isin("ABC").lotSize(10).tickSize(5).build());
+        brokerRepository.addBroker(Broker.builder().brokerId(1).build());
+        shareholderRepository.addShareholder(Shareholder.builder().shareholderId(1).build());
+        requestValidator = new RequestValidator(securityRepository, brokerRepository, shareholderRepository);
+    }
+
+    private EnterOrderRq validRequest() {
+        return EnterOrderRq.createNewOrderRq(1, "ABC", 1, null, BUY, 10, 100, 1, 1, 0, 0, 0);
+    }
+
+    @Test
+    void valid_request_has_no_rejection_reasons() {
+        assertThat(requestValidator.collectRequestErrors(validRequest(), new RequestContext())).isEqualTo(RejectionReason.NONE);
+    }
+
+    @Test
+    void every_failed_check_sets_its_own_bit() {
+        EnterOrderRq request = EnterOrderRq.createNewOrderRq(1, "ABC", 0, null, BUY, 15, 102, 1, 9, 0, 0, 0);
+        long reasons = requestValidator.collectRequestErrors(request, new RequestContext());
+        assertThat(RejectionReason.messagesOf(reasons)).containsExactly(
+                Message.INVALID_ORDER_ID,
+                Message.QUANTITY_NOT_MULTIPLE_OF_LOT_SIZE,
+                Message.PRICE_NOT_MULTIPLE_OF_TICK_SIZE,
+                Message.UNKNOWN_SHAREHOLDER_ID);
+    }
+
+    @Test
+    void messages_are_materialized_in_check_order() {
+        long reasons = RejectionReason.UNKNOWN_SHAREHOLDER_ID.bit()
+                | RejectionReason.INVALID_ORDER_ID.bit()
+                | RejectionReason.CANT_HAVE_MINIMUM_EXEC_QUANTITY_IN_AUCTION_STATE.bit();
+        assertThat(RejectionReason.messagesOf(reasons)).containsExactly(
+                Message.INVALID_ORDER_ID, Message.UNKNOWN_SHAREHOLDER_ID, Message.CANT_HAVE_MINIMUM_EXEC_QUANTITY_IN_AUCTION_STATE);
+        assertThat(RejectionReason.messagesOf(RejectionReason.NONE)).isEmpty();
+        assertThat(RejectionReason.values().length).isLessThanOrEqualTo(Long.SIZE);
+    }
+
+    @Test
+    void rejections_do_not_capture_stack_traces() {
+        assertThat(new InvalidRequestException(Message.ORDER_ID_NOT_FOUND).getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void happy_path_validation_allocates_nothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        EnterOrderRq request = validRequest();
+        RequestContext context = new RequestContext();
+        long reasons = 0;
+        for (int i = 0; i < ITERATIONS; i++)
+            reasons |= requestValidator.collectRequestErrors(request, context);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++)
+            reasons |= requestValidator.collectRequestErrors(request, context);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(reasons).isEqualTo(RejectionReason.NONE);
+        assertThat(allocated).isLessThan(64 * 1024);
+    }
+}
@@ -0,0 +1,117 @@
+package ir.ramtung.tinyme.domain;
+
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.domain.service.SecurityEventLoops;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityEventLoopsTest {
+    private SecurityEventLoops eventLoops;
+
+    @BeforeEach
+    void setup() {
+        eventLoops = new SecurityEventLoops(4, 8192);
+        eventLoops.start();
+    }
+
+    @AfterEach
+    void teardown() {
+        eventLoops.stop();
+    }
+
+    @Test
+    void requests_of_one_security_run_in_order_on_a_single_thread() throws InterruptedException {
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        ConcurrentHashMap<String, String> threadByIsin = new ConcurrentHashMap<>();
+        AtomicInteger threadChanges = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            int sequence = i;
+            String isin = i % 2 == 0 ? "ABC" : "XYZ";
+            eventLoops.execute(isin, () -> {
+                String thread = Thread.currentThread().getName();
+                if (!thread.equals(threadByIsin.computeIfAbsent(isin, key -> thread)))
+                    threadChanges.incrementAndGet();
+                if (isin.equals("ABC"))
+                    executed.add(sequence);
+                done.countDown();
+            });
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(threadChanges.get()).isZero();
+        assertThat(executed).isSorted().hasSize(500);
+    }
+
+    @Test
+    void runs_inline_when_not_sharded() {
+        SecurityEventLoops inline = new SecurityEventLoops(0, 1);
+        String caller = Thread.currentThread().getName();
+        List<String> threads = new ArrayList<>();
+        inline.execute("ABC", () -> threads.add(Thread.currentThread().getName()));
+        assertThat(threads).containsExactly(caller);
+    }
+
+    @Test
+    void shared_broker_credit_and_positions_stay_consistent_across_shards() throws InterruptedException {
+        Broker broker = Broker.builder().credit(1_000).build();
+        Shareholder shareholder = Shareholder.builder().build();
+        List<Security> securities = List.of(
+                Security.builder().isin("ABC").build(),
+                Security.builder().isin("DEF").build(),
+                Security.builder().isin("GHI").build(),
+                Security.builder().isin("JKL").build());
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(4000);
+        for (int i = 0; i < 4000; i++) {
+            Security security = securities.get(i % securities.size());
+            eventLoops.execute(security.getIsin(), () -> {
+                if (broker.tryDecreaseCreditBy(1))
+                    granted.incrementAndGet();
+                shareholder.incPosition(security, 1);
+                done.countDown();
+            });
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(granted.get()).isEqualTo(1_000);
+        assertThat(broker.getCredit()).isZero();
+        for (Security security : securities)
+            assertThat(shareholder.getPosition(security)).isEqualTo(1_000);
+    }
+
+    @Test
+    void a_full_shard_makes_the_submitter_wait_and_keeps_order() throws InterruptedException {
+        SecurityEventLoops bounded = new SecurityEventLoops(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        bounded.execute("ABC", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        bounded.execute("ABC", () -> executed.add(1));
+        Thread submitter = new Thread(() -> bounded.execute("ABC", () -> executed.add(2)));
+        submitter.start();
+        submitter.join(200);
+        assertThat(submitter.isAlive()).isTrue();
+        release.countDown();
+        submitter.join(5_000);
+        bounded.stop();
+        assertThat(submitter.isAlive()).isFalse();
+        assertThat(executed).containsExactly(1, 2);
+    }
+}
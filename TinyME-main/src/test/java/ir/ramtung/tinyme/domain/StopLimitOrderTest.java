@@ -257,10 +257,12 @@ class StopLimitOrderTest {
         orderHandler.handleEnterOrder(EnterOrderRq.createUpdateOrderRq(2,"ABC",15, LocalDateTime.now(), SELL,600, 15810,broker.getBrokerId(),shareholder.getShareholderId(),0,0,15820));
         verify(eventPublisher).publish(new OrderUpdatedEvent(2, 15));
         verify(eventPublisher).publish(new OrderActivatedEvent(2, 15));
-        assertThat(security.getLastTradedPrice()).isEqualTo(16000);
-        assertThat(security.getOrderBook().getSellQueue().get(2).getOrderId()).isEqualTo(15);
-        assertThat(broker2.getCredit()).isEqualTo(11_000_000 - 350 *15800);
-        assertThat(broker.getCredit()).isEqualTo(1_000_000 + 350*15800 + 500 *16000);
+        verify(eventPublisher).publish(new OrderActivatedEvent(0, 12));
+        assertThat(security.getLastTradedPrice()).isEqualTo(15810);
+        assertThat(security.getOrderBook().findByOrderIdInActiveQueue(SELL, 15).getQuantity()).isEqualTo(100);
+        assertThat(security.getOrderBook().findOrderInAllQueues(BUY, 12)).isNull();
+        assertThat(broker2.getCredit()).isEqualTo(11_000_000 - 350 *15800 + 300 * (16200 - 15810));
+        assertThat(broker.getCredit()).isEqualTo(1_000_000 + 350*15800 + 500 *16000 + 300 * 15810);
     }
 
     @Test
@@ -0,0 +1,58 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.OrderAcceptedEvent;
+import ir.ramtung.tinyme.messaging.event.OrderExecutedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.annotation.EnableJms;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"eventPublisher.async=true", "eventPublisher.batchSize=8", "eventPublisher.queueCapacity=16"})
+@EnableJms
+@DirtiesContext
+public class AsyncEventPublisherTest {
+    @Autowired
+    JmsTemplate jmsTemplate;
+    @Autowired
+    EventPublisher eventPublisher;
+    @Value("${responseQueue}")
+    private String responseQueue;
+
+    @BeforeEach
+    void emptyResponseQueue() {
+        long receiveTimeout = jmsTemplate.getReceiveTimeout();
+        jmsTemplate.setReceiveTimeout(1000);
+        //noinspection StatementWithEmptyBody
+        while (jmsTemplate.receive(responseQueue) != null) ;
+        jmsTemplate.setReceiveTimeout(receiveTimeout);
+    }
+
+    @Test
+    void batched_events_arrive_in_publishing_order() {
+        List<Event> published = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            published.add(new OrderAcceptedEvent(i, i));
+            published.add(new OrderExecutedEvent(i, i, List.of()));
+        }
+        published.forEach(eventPublisher::publish);
+
+        long receiveTimeout = jmsTemplate.getReceiveTimeout();
+        jmsTemplate.setReceiveTimeout(1000);
+        List<Object> received = new ArrayList<>();
+        for (int i = 0; i < published.size(); i++)
+            received.add(jmsTemplate.receiveAndConvert(responseQueue));
+        jmsTemplate.setReceiveTimeout(receiveTimeout);
+
+        assertEquals(published, received);
+    }
+}
@@ -0,0 +1,209 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.messaging.event.OrderAcceptedEvent;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchingEventSenderTest {
+    private static final long UNCONVERTIBLE = 13;
+
+    private ConnectionFactory connectionFactory;
+    private MessageConverter messageConverter;
+    private List<String> sent;
+    private List<String> pending;
+    private AtomicInteger failingCommits;
+    private CountDownLatch commitGate;
+    private Semaphore commits;
+    private BatchingEventSender sender;
+
+    @BeforeEach
+    void setupJms() throws JMSException {
+        sent = Collections.synchronizedList(new ArrayList<>());
+        pending = new ArrayList<>();
+        failingCommits = new AtomicInteger();
+        commitGate = new CountDownLatch(0);
+        commits = new Semaphore(0);
+        connectionFactory = mock(ConnectionFactory.class);
+        Connection connection = mock(Connection.class);
+        Session session = mock(Session.class);
+        MessageProducer producer = mock(MessageProducer.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(true, Session.SESSION_TRANSACTED)).thenReturn(session);
+        when(session.createQueue("RS")).thenReturn(mock(Queue.class));
+        when(session.createProducer(any())).thenReturn(producer);
+        doAnswer(invocation -> pending.add(((TextMessage) invocation.getArgument(0)).getText()))
+                .when(producer).send(any());
+        doAnswer(invocation -> {
+            commitGate.await();
+            if (failingCommits.getAndDecrement() > 0) {
+                pending.clear();
+                throw new JMSException("broker unavailable");
+            }
+            sent.addAll(pending);
+            pending.clear();
+            sent.add("commit");
+            commits.release();
+            return null;
+        }).when(session).commit();
+
+        messageConverter = mock(MessageConverter.class);
+        when(messageConverter.toMessage(any(), any())).thenAnswer(invocation -> {
+            OrderAcceptedEvent event = invocation.getArgument(0);
+            if (event.getOrderId() == UNCONVERTIBLE)
+                throw new MessageConversionException("cannot convert " + event);
+            TextMessage message = mock(TextMessage.class);
+            when(message.getText()).thenReturn(String.format("%04d", event.getOrderId()));
+            return message;
+        });
+    }
+
+    @AfterEach
+    void stopSender() {
+        if (sender != null)
+            sender.stop();
+    }
+
+    private void awaitCommits(int count) throws InterruptedException {
+        assertThat(commits.tryAcquire(count, 2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void enqueue(int... orderIds) {
+        for (int orderId : orderIds)
+            sender.enqueue(new OrderAcceptedEvent(orderId, orderId));
+    }
+
+    @Test
+    void batch_is_committed_once_it_holds_batch_size_events() throws InterruptedException {
+        sender = new BatchingEventSender(connectionFactory, messageConverter, "RS", 16, 3, 1 << 20, 10_000_000);
+        enqueue(1, 2, 3, 4, 5, 6);
+        sender.start();
+
+        awaitCommits(2);
+        assertThat(sent).containsExactly("0001", "0002", "0003", "commit", "0004", "0005", "0006", "commit");
+    }
+
+    @Test
+    void batch_is_committed_once_it_reaches_batch_bytes() throws InterruptedException {
+        sender = new BatchingEventSender(connectionFactory, messageConverter, "RS", 16, 100, 8, 10_000_000);
+        enqueue(1, 2, 3, 4);
+        sender.start();
+
+        awaitCommits(2);
+        assertThat(sent).containsExactly("0001", "0002", "commit", "0003", "0004", "commit");
+    }
+
+    @Test
+    void partial_batch_is_committed_when_flush_delay_expires() throws InterruptedException {
+        sender = new BatchingEventSender(connectionFactory, messageConverter, "RS", 16, 100, 1 << 20, 50_000);
+        sender.start();
+        enqueue(1);
+
+        awaitCommits(1);
+        assertThat(sent).containsExactly("0001", "commit");
+        enqueue(2);
+        awaitCommits(1);
+        assertThat(sent).containsExactly("0001", "commit", "0002", "commit");
+    }
+
+    @Test
+    void full_queue_blocks_the_publisher_until_the_sender_drains_it() throws InterruptedException {
+        sender = new BatchingEventSender(connectionFactory, messageConverter, "RS", 2, 100, 1 << 20, 1_000);
+        enqueue(1, 2);
+        Thread publisher = new Thread(() -> enqueue(3));
+        publisher.start();
+        publisher.join(200);
+        assertThat(publisher.isAlive()).isTrue();
+
+        sender.start();
+        publisher.join(2_000);
+        assertThat(publisher.isAlive()).isFalse();
+        sender.stop();
+        assertThat(sent).filteredOn(text -> !text.equals("commit")).containsExactly("0001", "0002", "0003");
+    }
+
+    @Test
+    void an_event_that_fails_to_convert_is_dropped_without_stopping_the_sender() throws InterruptedException {
+        sender = new BatchingEventSender(connectionFactory, messageConverter, "RS", 16, 3, 1 << 20, 10_000_000);
+        enqueue(1, 13, 2, 3);
+        sender.start();
+
+        awaitCommits(1);
+        assertThat(sent).containsExactly("0001", "0002", "0003", "commit");
+        enqueue(4, 5, 6);
+        awaitCommits(1);
+        assertThat(sent).endsWith("0004", "0005", "0006", "commit");
+    }
+
+    @Test
+    void a_batch_that_fails_to_commit_is_resent_before_later_events() throws InterruptedException {
+        failingCommits.set(2);
+        sender = new BatchingEventSender(connectionFactory, messageConverter, "RS", 16, 3, 1 << 20, 10_000_000);
+        enqueue(1, 2, 3, 4, 5, 6);
+        sender.start();
+
+        awaitCommits(2);
+        assertThat(sent).containsExactly("0001", "0002", "0003", "commit", "0004", "0005", "0006", "commit");
+    }
+
+    @Test
+    void events_published_while_stopping_go_out_after_the_queued_ones() throws Exception {
+        commitGate = new CountDownLatch(1);
+        JmsTemplate jmsTemplate = mock(JmsTemplate.class);
+        when(jmsTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(jmsTemplate.getMessageConverter()).thenReturn(messageConverter);
+        doAnswer(invocation -> sent.add("sync-" + String.format("%04d", ((OrderAcceptedEvent) invocation.getArgument(1)).getOrderId())))
+                .when(jmsTemplate).convertAndSend(eq("RS"), any(Object.class));
+        EventPublisher publisher = new EventPublisher(jmsTemplate);
+        ReflectionTestUtils.setField(publisher, "responseQueue", "RS");
+        ReflectionTestUtils.setField(publisher, "async", true);
+        ReflectionTestUtils.setField(publisher, "queueCapacity", 16);
+        ReflectionTestUtils.setField(publisher, "batchSize", 2);
+        ReflectionTestUtils.setField(publisher, "batchBytes", 1 << 20);
+        ReflectionTestUtils.setField(publisher, "flushMicros", 1_000L);
+        publisher.start();
+        for (int orderId = 1; orderId <= 4; orderId++)
+            publisher.publish(new OrderAcceptedEvent(orderId, orderId));
+
+        Thread stopper = new Thread(publisher::stop);
+        stopper.start();
+        while (stopper.getState() != Thread.State.TIMED_WAITING)
+            Thread.onSpinWait();
+        Thread latePublisher = new Thread(() -> publisher.publish(new OrderAcceptedEvent(5, 5)));
+        latePublisher.start();
+        latePublisher.join(200);
+        assertThat(latePublisher.isAlive()).isTrue();
+
+        commitGate.countDown();
+        stopper.join(2_000);
+        latePublisher.join(2_000);
+        assertThat(sent).filteredOn(text -> !text.equals("commit"))
+                .containsExactly("0001", "0002", "0003", "0004", "sync-0005");
+    }
+}
@@ -0,0 +1,329 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.benchmark.TradingWorkload;
+import ir.ramtung.tinyme.domain.entity.Broker;
+import ir.ramtung.tinyme.domain.entity.Security;
+import ir.ramtung.tinyme.domain.entity.Shareholder;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.domain.service.AuctionMatcher;
+import ir.ramtung.tinyme.domain.service.ContinuousMatcher;
+import ir.ramtung.tinyme.domain.service.EngineClock;
+import ir.ramtung.tinyme.domain.service.OrderHandler;
+import ir.ramtung.tinyme.messaging.codec.WireCodec;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.event.OrderDeletedEvent;
+import ir.ramtung.tinyme.messaging.event.OrderRejectedEvent;
+import ir.ramtung.tinyme.messaging.journal.InputJournal;
+import ir.ramtung.tinyme.messaging.journal.Journal;
+import ir.ramtung.tinyme.messaging.journal.JournalFlush;
+import ir.ramtung.tinyme.messaging.request.BatchRq;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import ir.ramtung.tinyme.repository.BrokerRepository;
+import ir.ramtung.tinyme.repository.SecurityRepository;
+import ir.ramtung.tinyme.repository.ShareholderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalTest {
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    private Journal journal() {
+        return new Journal(directory, SEGMENT_BYTES, JournalFlush.BATCH, 16);
+    }
+
+    private List<Object> recover(Journal journal) {
+        List<Object> replayed = new ArrayList<>();
+        journal.recover((request, sequence, timestamp) -> replayed.add(request));
+        return replayed;
+    }
+
+    private static void append(Journal journal, List<Object> requests) {
+        for (Object request : requests)
+            journal.append(request, 0, 0);
+    }
+
+    private InputJournal inputJournal(OrderHandler orderHandler) {
+        InputJournal inputJournal = new InputJournal(orderHandler);
+        ReflectionTestUtils.setField(inputJournal, "enabled", true);
+        ReflectionTestUtils.setField(inputJournal, "directory", directory.toString());
+        ReflectionTestUtils.setField(inputJournal, "segmentBytes", SEGMENT_BYTES);
+        ReflectionTestUtils.setField(inputJournal, "flush", JournalFlush.BATCH);
+        ReflectionTestUtils.setField(inputJournal, "batchSize", 16);
+        return inputJournal;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void appended_requests_are_replayed_in_order_across_segments_with_their_stamps() throws Exception {
+        List<Object> requests = new ArrayList<>(TradingWorkload.requests(500, 3, true));
+        requests.add(new BatchRq(TradingWorkload.requests(20, 4, true)));
+        try (Journal journal = journal()) {
+            assertThat(recover(journal)).isEmpty();
+            for (int i = 0; i < requests.size(); i++)
+                journal.append(requests.get(i), 100L + i, 1_000_000L * i);
+            assertThat(journal.lastSequence()).isEqualTo(requests.size());
+        }
+
+        try (Journal journal = journal()) {
+            List<Object> replayed = new ArrayList<>();
+            List<Long> stamps = new ArrayList<>();
+            journal.recover((request, sequence, timestamp) -> {
+                assertThat(timestamp).isEqualTo(1_000_000L * (sequence - 100));
+                replayed.add(request);
+                stamps.add(sequence);
+            });
+            assertThat(replayed).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(requests);
+            assertThat(stamps).hasSize(requests.size()).isSorted().startsWith(100L);
+            assertThat(journal.lastSequence()).isEqualTo(requests.size());
+        }
+        assertThat(segmentCount()).isGreaterThan(1);
+    }
+
+    @Test
+    void replaying_the_journal_rebuilds_the_same_engine_state() {
+        List<Object> requests = TradingWorkload.requests(5_000, 9, true);
+        List<Object> probes = TradingWorkload.requests(5_500, 9, true).subList(5_000, 5_500);
+
+        RequestPipelineTest.RecordingPublisher original = new RequestPipelineTest.RecordingPublisher();
+        OrderHandler originalHandler = TradingWorkload.orderHandler(original);
+        try (Journal journal = new Journal(directory, 1 << 20, JournalFlush.BATCH, 64)) {
+            recover(journal);
+            originalHandler.setRequestLog(journal::append);
+            for (Object request : requests)
+                TradingWorkload.handleDirectly(originalHandler, request);
+            originalHandler.setRequestLog(RequestLog.NONE);
+        }
+
+        RequestPipelineTest.RecordingPublisher recovered = new RequestPipelineTest.RecordingPublisher();
+        OrderHandler recoveredHandler = TradingWorkload.orderHandler(recovered);
+        try (Journal journal = new Journal(directory, 1 << 20, JournalFlush.BATCH, 64)) {
+            journal.recover((request, sequence, timestamp) ->
+                    EngineClock.replay(sequence, timestamp, () -> TradingWorkload.handleDirectly(recoveredHandler, request)));
+        }
+        assertThat(recovered.events).hasSameSizeAs(original.events);
+        for (int i = 0; i < original.events.size(); i++)
+            assertThat(recovered.events.get(i).getTimestamp()).isEqualTo(original.events.get(i).getTimestamp());
+        assertThat(recovered.events).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(original.events);
+        original.events.clear();
+        recovered.events.clear();
+        for (Object probe : probes) {
+            TradingWorkload.handleDirectly(originalHandler, probe);
+            TradingWorkload.handleDirectly(recoveredHandler, probe);
+        }
+
+        assertThat(original.events).isNotEmpty();
+        assertThat(recovered.events)
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time", "timestamp")
+                .containsExactlyElementsOf(original.events);
+    }
+
+    @Test
+    void concurrent_handling_journals_requests_in_stamp_order() throws Exception {
+        List<Object> requests = TradingWorkload.requests(8_000, 11, true);
+        OrderHandler handler = TradingWorkload.orderHandler(new RequestPipelineTest.RecordingPublisher());
+        try (Journal journal = new Journal(directory, 1 << 20, JournalFlush.BATCH, 64)) {
+            recover(journal);
+            handler.setRequestLog(journal::append);
+            List<Thread> consumers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int first = t;
+                consumers.add(new Thread(() -> {
+                    for (int i = first; i < requests.size(); i += 4)
+                        TradingWorkload.handleDirectly(handler, requests.get(i));
+                }));
+            }
+            consumers.forEach(Thread::start);
+            for (Thread consumer : consumers)
+                consumer.join();
+        }
+
+        List<Long> sequences = new ArrayList<>();
+        try (Journal journal = new Journal(directory, 1 << 20, JournalFlush.BATCH, 64)) {
+            long replayed = journal.recover((request, sequence, timestamp) -> sequences.add(sequence));
+            assertThat(replayed).isEqualTo(requests.size());
+        }
+        assertThat(sequences).doesNotHaveDuplicates().isSorted();
+    }
+
+    private static OrderHandler sharedBrokerHandler(Broker broker) {
+        SecurityRepository securityRepository = new SecurityRepository();
+        securityRepository.addSecurity(Security.builder().isin("ABC").build());
+        securityRepository.addSecurity(Security.builder().isin("DEF").build());
+        BrokerRepository brokerRepository = new BrokerRepository();
+        brokerRepository.addBroker(broker);
+        ShareholderRepository shareholderRepository = new ShareholderRepository();
+        shareholderRepository.addShareholder(Shareholder.builder().shareholderId(1).build());
+        return new OrderHandler(securityRepository, brokerRepository, shareholderRepository,
+                new RequestPipelineTest.RecordingPublisher(), new ContinuousMatcher(), new AuctionMatcher());
+    }
+
+    private static List<Object> buysAndDeletes(String isin, long firstId) {
+        List<Object> requests = new ArrayList<>();
+        for (long id = firstId; id < firstId + 300; id++) {
+            if (id % 4 == 0)
+                requests.add(new DeleteOrderRq(id, isin, Side.BUY, id - 1));
+            else
+                requests.add(EnterOrderRq.createNewOrderRq(id, isin, id, LocalDateTime.now(), Side.BUY,
+                        10, 1000, 1, 1, 0, 0, 0));
+        }
+        return requests;
+    }
+
+    private static void handle(OrderHandler handler, Object request, EventSink sink) {
+        if (request instanceof EnterOrderRq enterOrderRq)
+            handler.handleEnterOrder(enterOrderRq, sink);
+        else
+            handler.handleDeleteOrder((DeleteOrderRq) request, sink);
+    }
+
+    @Test
+    void securities_sharing_a_broker_replay_to_the_same_credit_decisions() throws Exception {
+        Broker broker = Broker.builder().brokerId(1).credit(400_000).build();
+        OrderHandler handler = sharedBrokerHandler(broker);
+        List<Event> events = Collections.synchronizedList(new ArrayList<>());
+        try (Journal journal = new Journal(directory, 1 << 20, JournalFlush.BATCH, 64)) {
+            recover(journal);
+            handler.setRequestLog(journal::append);
+            CyclicBarrier start = new CyclicBarrier(2);
+            List<Thread> consumers = new ArrayList<>();
+            for (List<Object> requests : List.of(buysAndDeletes("ABC", 1), buysAndDeletes("DEF", 1_001))) {
+                consumers.add(new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                    requests.forEach(request -> handle(handler, request, events::add));
+                }));
+            }
+            consumers.forEach(Thread::start);
+            for (Thread consumer : consumers)
+                consumer.join();
+        }
+        assertThat(events).hasAtLeastOneElementOfType(OrderRejectedEvent.class);
+
+        Broker recoveredBroker = Broker.builder().brokerId(1).credit(400_000).build();
+        OrderHandler recoveredHandler = sharedBrokerHandler(recoveredBroker);
+        List<Event> recovered = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        try (Journal journal = new Journal(directory, 1 << 20, JournalFlush.BATCH, 64)) {
+            journal.recover((request, sequence, timestamp) -> {
+                sequences.add(sequence);
+                EngineClock.replay(sequence, timestamp, () -> handle(recoveredHandler, request, recovered::add));
+            });
+        }
+        assertThat(sequences).hasSize(600).isSorted();
+        assertThat(recovered).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(events);
+        assertThat(recoveredBroker.getCredit()).isEqualTo(broker.getCredit());
+    }
+
+
+    @Test
+    void a_request_that_fails_on_replay_does_not_stop_startup() {
+        EnterOrderRq first = EnterOrderRq.createNewOrderRq(1, "ABC", 1, LocalDateTime.now(), Side.BUY,
+                10, 1000, TradingWorkload.BROKER_ID, TradingWorkload.SHAREHOLDER_ID, 0, 0, 0);
+        EnterOrderRq second = EnterOrderRq.createNewOrderRq(3, "ABC", 2, LocalDateTime.now(), Side.BUY,
+                10, 1000, TradingWorkload.BROKER_ID, TradingWorkload.SHAREHOLDER_ID, 0, 0, 0);
+        try (Journal journal = journal()) {
+            recover(journal);
+            journal.append(first, 1, 0);
+            journal.append(new ChangeMatchingStateRq("XYZ", MatchingState.AUCTION), 2, 0);
+            journal.append(second, 3, 0);
+        }
+
+        RequestPipelineTest.RecordingPublisher publisher = new RequestPipelineTest.RecordingPublisher();
+        OrderHandler handler = TradingWorkload.orderHandler(publisher);
+        InputJournal inputJournal = inputJournal(handler);
+        inputJournal.start();
+        try {
+            assertThat(inputJournal.isRunning()).isTrue();
+            handler.handleChangeMatchingStateRq(new ChangeMatchingStateRq("XYZ", MatchingState.AUCTION));
+            handler.handleDeleteOrder(new DeleteOrderRq(4, "ABC", Side.BUY, 2));
+        } finally {
+            inputJournal.stop();
+        }
+        assertThat(publisher.events).containsExactly(new OrderDeletedEvent(4, 2));
+
+        try (Journal journal = journal()) {
+            assertThat(recover(journal)).hasSize(4).last().isInstanceOf(DeleteOrderRq.class);
+        }
+    }
+
+    @Test
+    void a_torn_last_record_is_dropped_and_overwritten() throws Exception {
+        List<Object> requests = TradingWorkload.requests(10, 5, false);
+        try (Journal journal = new Journal(directory, SEGMENT_BYTES, JournalFlush.MESSAGE, 1)) {
+            recover(journal);
+            append(journal, requests);
+        }
+        ByteBuffer scratch = ByteBuffer.allocate(SEGMENT_BYTES);
+        long lastRecord = 0;
+        for (Object request : requests.subList(0, 9)) {
+            WireCodec.encode(request, scratch.clear());
+            lastRecord += Journal.RECORD_HEADER_LENGTH + scratch.position();
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(lastRecord + Journal.RECORD_HEADER_LENGTH + 3);
+            int original = file.read();
+            file.seek(lastRecord + Journal.RECORD_HEADER_LENGTH + 3);
+            file.write(original ^ 0xFF);
+        }
+
+        Object replacement = TradingWorkload.requests(20, 6, false).get(15);
+        try (Journal journal = journal()) {
+            assertThat(recover(journal)).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(requests.subList(0, 9));
+            assertThat(journal.append(replacement, 0, 0)).isEqualTo(10);
+        }
+        try (Journal journal = journal()) {
+            List<Object> replayed = recover(journal);
+            assertThat(replayed).hasSize(10);
+            assertThat(replayed.get(9)).usingRecursiveComparison().isEqualTo(replacement);
+        }
+    }
+
+    @Test
+    void checkpoint_discards_journaled_requests_but_keeps_the_sequence() throws Exception {
+        List<Object> requests = TradingWorkload.requests(300, 8, true);
+        try (Journal journal = journal()) {
+            recover(journal);
+            append(journal, requests.subList(0, 290));
+            journal.checkpoint();
+            assertThat(segmentCount()).isEqualTo(1);
+            append(journal, requests.subList(290, 300));
+        }
+
+        try (Journal journal = journal()) {
+            assertThat(recover(journal)).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(requests.subList(290, 300));
+            assertThat(journal.lastSequence()).isEqualTo(300);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.benchmark.TradingWorkload;
+import ir.ramtung.tinyme.domain.service.SecurityEventLoops;
+import ir.ramtung.tinyme.messaging.pipeline.RequestPipeline;
+import ir.ramtung.tinyme.messaging.request.BatchRq;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RequestDispatchTableTest {
+    static class PayloadConverter implements MessageConverter {
+        final Map<Message, Object> payloads = new IdentityHashMap<>();
+
+        Message messageOf(Object payload, String type) throws JMSException {
+            Message message = mock(Message.class);
+            when(message.getStringProperty(MessagingConfig.TYPE_ID_PROPERTY)).thenReturn(type);
+            payloads.put(message, payload);
+            return message;
+        }
+
+        @Override
+        public Message toMessage(Object object, Session session) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object fromMessage(Message message) {
+            return payloads.get(message);
+        }
+    }
+
+    private RequestDispatcher dispatcher(RequestPipelineTest.RecordingPublisher publisher, PayloadConverter converter) {
+        return dispatcher(publisher, converter, 1);
+    }
+
+    private RequestDispatcher dispatcher(RequestPipelineTest.RecordingPublisher publisher, PayloadConverter converter, int consumers) {
+        var orderHandler = TradingWorkload.orderHandler(publisher);
+        return new RequestDispatcher(orderHandler, new SecurityEventLoops(0, 1),
+                new RequestPipeline(orderHandler, publisher, false, 64), converter, "RQ", DispatchMode.TYPED, consumers);
+    }
+
+    @Test
+    void typed_dispatch_handles_mixed_requests_in_arrival_order() throws JMSException {
+        List<Object> requests = TradingWorkload.requests(2_000, 11, true);
+
+        RequestPipelineTest.RecordingPublisher direct = new RequestPipelineTest.RecordingPublisher();
+        var orderHandler = TradingWorkload.orderHandler(direct);
+        for (Object request : requests)
+            TradingWorkload.handleDirectly(orderHandler, request);
+
+        RequestPipelineTest.RecordingPublisher dispatched = new RequestPipelineTest.RecordingPublisher();
+        PayloadConverter converter = new PayloadConverter();
+        RequestDispatcher dispatcher = dispatcher(dispatched, converter);
+        for (Object request : requests)
+            dispatcher.dispatch(converter.messageOf(request, request.getClass().getName()));
+
+        assertThat(dispatched.events)
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time", "timestamp")
+                .containsExactlyElementsOf(direct.events);
+    }
+
+    @Test
+    void messages_of_unknown_type_are_dropped() throws JMSException {
+        RequestPipelineTest.RecordingPublisher publisher = new RequestPipelineTest.RecordingPublisher();
+        PayloadConverter converter = new PayloadConverter();
+        RequestDispatcher dispatcher = dispatcher(publisher, converter);
+
+        dispatcher.dispatch(converter.messageOf("ignored", String.class.getName()));
+        dispatcher.dispatch(converter.messageOf("ignored", null));
+
+        assertThat(publisher.events).isEmpty();
+    }
+
+    @Test
+    void concurrent_consumers_drop_batches_spanning_several_securities() throws JMSException {
+        BatchRq mixed = new BatchRq(TradingWorkload.requests(200, 13, false));
+        assertThat(SecurityGrouping.spansOneSecurity(mixed)).isFalse();
+
+        RequestPipelineTest.RecordingPublisher direct = new RequestPipelineTest.RecordingPublisher();
+        var orderHandler = TradingWorkload.orderHandler(direct);
+        for (Object request : mixed.getRequests())
+            TradingWorkload.handleDirectly(orderHandler, request);
+
+        RequestPipelineTest.RecordingPublisher dispatched = new RequestPipelineTest.RecordingPublisher();
+        PayloadConverter converter = new PayloadConverter();
+        RequestDispatcher dispatcher = dispatcher(dispatched, converter, 4);
+        dispatcher.dispatch(converter.messageOf(mixed, BatchRq.class.getName()));
+        assertThat(dispatched.events).isEmpty();
+
+        for (BatchRq batchRq : SecurityGrouping.split(mixed))
+            dispatcher.dispatch(converter.messageOf(batchRq, BatchRq.class.getName()));
+        assertThat(dispatched.events)
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time", "timestamp")
+                .containsExactlyInAnyOrderElementsOf(direct.events);
+    }
+
+    @Test
+    void journaled_requests_are_appended_before_dispatch_returns_in_every_mode() throws JMSException {
+        List<Object> requests = new ArrayList<>(TradingWorkload.requests(200, 17, true));
+        requests.add(new BatchRq(TradingWorkload.requests(20, 18, false)));
+        for (boolean pipelined : new boolean[] {false, true}) {
+            RequestPipelineTest.RecordingPublisher publisher = new RequestPipelineTest.RecordingPublisher();
+            var orderHandler = TradingWorkload.orderHandler(publisher);
+            List<Object> journaled = new ArrayList<>();
+            orderHandler.setRequestLog((request, sequence, timestamp) -> journaled.add(request));
+            SecurityEventLoops eventLoops = new SecurityEventLoops(pipelined ? 0 : 2, 16);
+            PayloadConverter converter = new PayloadConverter();
+            RequestDispatcher dispatcher = new RequestDispatcher(orderHandler, eventLoops,
+                    new RequestPipeline(orderHandler, publisher, pipelined, 64), converter, "RQ", DispatchMode.TYPED, 1);
+            try {
+                for (Object request : requests) {
+                    int before = journaled.size();
+                    dispatcher.dispatch(converter.messageOf(request, request.getClass().getName()));
+                    if (request instanceof BatchRq batchRq)
+                        assertThat(journaled.subList(before, journaled.size())).containsExactlyElementsOf(batchRq.getRequests());
+                    else
+                        assertThat(journaled.subList(before, journaled.size())).containsExactly(request);
+                }
+            } finally {
+                eventLoops.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ir.ramtung.tinyme.messaging;
+
+import ir.ramtung.tinyme.benchmark.TradingWorkload;
+import ir.ramtung.tinyme.messaging.event.Event;
+import ir.ramtung.tinyme.messaging.pipeline.RequestPipeline;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestPipelineTest {
+    static class RecordingPublisher extends EventPublisher {
+        final List<Event> events = new ArrayList<>();
+
+        RecordingPublisher() {
+            super(null);
+        }
+
+        @Override
+        public void publish(Event event) {
+            events.add(event);
+        }
+    }
+
+    @Test
+    void pipeline_publishes_the_same_events_in_the_same_order_as_direct_handling() {
+        List<Object> requests = TradingWorkload.requests(20_000, 7, true);
+
+        RecordingPublisher direct = new RecordingPublisher();
+        var orderHandler = TradingWorkload.orderHandler(direct);
+        for (Object request : requests)
+            TradingWorkload.handleDirectly(orderHandler, request);
+
+        RecordingPublisher pipelined = new RecordingPublisher();
+        RequestPipeline pipeline = new RequestPipeline(TradingWorkload.orderHandler(pipelined), pipelined, true, 64);
+        pipeline.start();
+        for (Object request : requests) {
+            if (request instanceof EnterOrderRq enterOrderRq)
+                pipeline.submit(enterOrderRq);
+            else if (request instanceof DeleteOrderRq deleteOrderRq)
+                pipeline.submit(deleteOrderRq);
+            else
+                pipeline.submit((ChangeMatchingStateRq) request);
+        }
+        pipeline.stop();
+
+        assertThat(direct.events).hasSizeGreaterThanOrEqualTo(requests.size());
+        assertThat(pipelined.events)
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time", "timestamp")
+                .containsExactlyElementsOf(direct.events);
+    }
+}
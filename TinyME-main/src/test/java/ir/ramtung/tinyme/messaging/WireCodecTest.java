@@ -0,0 +1,167 @@
+package ir.ramtung.tinyme.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.ramtung.tinyme.domain.entity.Side;
+import ir.ramtung.tinyme.messaging.codec.WireCodec;
+import ir.ramtung.tinyme.messaging.codec.WireCodecException;
+import ir.ramtung.tinyme.messaging.codec.WireTemplate;
+import ir.ramtung.tinyme.messaging.event.*;
+import ir.ramtung.tinyme.messaging.request.BatchRq;
+import ir.ramtung.tinyme.messaging.request.ChangeMatchingStateRq;
+import ir.ramtung.tinyme.messaging.request.DeleteOrderRq;
+import ir.ramtung.tinyme.messaging.request.EnterOrderRq;
+import ir.ramtung.tinyme.messaging.request.MatchingState;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WireCodecTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 1, 1, 9, 30, 15, 123_456_789);
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    private Object roundTrip(Object message) {
+        buffer.clear();
+        WireCodec.encode(message, buffer);
+        buffer.flip();
+        Object decoded = WireCodec.decode(buffer);
+        assertThat(buffer.remaining()).isZero();
+        return decoded;
+    }
+
+    @Test
+    void requests_survive_the_round_trip() {
+        EnterOrderRq enterOrderRq = EnterOrderRq.createNewOrderRq(7, "ABC", 11, TIME, Side.SELL, 300, 15450, 2, 3, 100, 50, 0);
+        EnterOrderRq updateOrderRq = EnterOrderRq.createUpdateOrderRq(8, "ABC", 11, null, Side.BUY, 300, 15450, 2, 3, 0, 0, 15000);
+        DeleteOrderRq deleteOrderRq = new DeleteOrderRq(9, "XYZ", Side.BUY, 11, TIME);
+        ChangeMatchingStateRq changeMatchingStateRq = new ChangeMatchingStateRq("ABC", MatchingState.AUCTION);
+
+        assertThat(roundTrip(enterOrderRq)).isEqualTo(enterOrderRq);
+        assertThat(roundTrip(updateOrderRq)).isEqualTo(updateOrderRq);
+        assertThat(roundTrip(deleteOrderRq)).isEqualTo(deleteOrderRq);
+        assertThat(roundTrip(changeMatchingStateRq)).isEqualTo(changeMatchingStateRq);
+    }
+
+    @Test
+    void engine_stamps_are_not_part_of_the_request_layout() {
+        EnterOrderRq enterOrderRq = EnterOrderRq.createNewOrderRq(7, "ABC", 11, TIME, Side.SELL, 300, 15450, 2, 3, 0, 0, 0);
+        enterOrderRq.setSequence(41);
+        enterOrderRq.setTimestamp(123_456_789_000L);
+        EnterOrderRq decoded = (EnterOrderRq) roundTrip(enterOrderRq);
+        assertThat(decoded.getSequence()).isZero();
+        assertThat(decoded.getTimestamp()).isZero();
+    }
+
+    @Test
+    void events_survive_the_round_trip_with_their_timestamps() {
+        List<Event> events = List.of(
+                new OrderAcceptedEvent(1, 2),
+                new OrderUpdatedEvent(1, 2),
+                new OrderDeletedEvent(1, 2),
+                new OrderActivatedEvent(1, 2),
+                new OrderRejectedEvent(1, 2, List.of(Message.INVALID_ORDER_ID, Message.UNKNOWN_BROKER_ID)),
+                new OrderExecutedEvent(1, 2, List.of(new TradeDTO("ABC", 100, 10, 2, 5), new TradeDTO("ABC", 101, 20, 2, 6))),
+                new OpeningPriceEvent(TIME, "ABC", 15450, 300),
+                new SecurityStateChangedEvent(TIME, "ABC", MatchingState.CONTINUOUS),
+                new TradeEvent(TIME, "ABC", 15450, 300, 2, 5));
+        for (Event event : events) {
+            Event decoded = (Event) roundTrip(event);
+            assertThat(decoded).isEqualTo(event);
+            assertThat(decoded.getTimestamp()).isEqualTo(event.getTimestamp());
+        }
+    }
+
+    @Test
+    void batches_keep_their_items_in_order_in_both_formats() throws Exception {
+        BatchRq batchRq = new BatchRq(List.of(
+                EnterOrderRq.createNewOrderRq(1, "ABC", 1, TIME, Side.BUY, 10, 100, 1, 1, 0, 0, 0),
+                new ChangeMatchingStateRq("ABC", MatchingState.AUCTION),
+                new DeleteOrderRq(2, "ABC", Side.BUY, 1, TIME),
+                EnterOrderRq.createUpdateOrderRq(3, "DEF", 4, TIME, Side.SELL, 20, 110, 1, 1, 5, 0, 0)));
+
+        assertThat(roundTrip(batchRq)).isEqualTo(batchRq);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readValue(objectMapper.writeValueAsString(batchRq), BatchRq.class)).isEqualTo(batchRq);
+    }
+
+    @Test
+    void requests_decode_into_a_reused_instance() {
+        EnterOrderRq target = new EnterOrderRq();
+        for (long orderId = 1; orderId <= 3; orderId++) {
+            EnterOrderRq rq = EnterOrderRq.createNewOrderRq(orderId, "DEF", orderId, null, Side.BUY, 10, 100, 1, 1, 0, 0, 0);
+            buffer.clear();
+            WireCodec.encode(rq, buffer);
+            buffer.flip();
+            assertThat(WireCodec.templateOf(buffer)).isEqualTo(WireTemplate.ENTER_ORDER_RQ);
+            assertThat(WireCodec.decode(buffer, target)).isSameAs(target).isEqualTo(rq);
+        }
+    }
+
+    @Test
+    void fixed_blocks_do_not_depend_on_string_lengths() {
+        buffer.clear();
+        WireCodec.encode(new TradeEvent(TIME, "A", 1, 1, 1, 1), buffer);
+        int shortIsin = buffer.position();
+        buffer.clear();
+        WireCodec.encode(new TradeEvent(TIME, "ABCDEFGHIJKL", 1, 1, 1, 1), buffer);
+        assertThat(buffer.position() - shortIsin).isEqualTo(11);
+        assertThat(Short.toUnsignedInt(buffer.getShort(0))).isEqualTo(32);
+    }
+
+    @Test
+    void decoding_rejects_a_mismatched_template() {
+        buffer.clear();
+        WireCodec.encode(new ChangeMatchingStateRq("ABC", MatchingState.AUCTION), buffer);
+        buffer.flip();
+        assertThatThrownBy(() -> WireCodec.decode(buffer, new EnterOrderRq())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void events_carry_a_single_time() {
+        OpeningPriceEvent event = new OpeningPriceEvent(TIME, "ABC", 15450, 300);
+        assertThat(event.getTime()).isEqualTo(TIME);
+        event.setTimestamp(event.getTimestamp() + 1);
+        assertThat(event.getTime()).isEqualTo(TIME.plusNanos(1));
+        assertThat(((OpeningPriceEvent) roundTrip(event)).getTime()).isEqualTo(TIME.plusNanos(1));
+    }
+
+    @Test
+    void decoding_rejects_an_out_of_range_enum_ordinal() {
+        buffer.clear();
+        WireCodec.encode(new ChangeMatchingStateRq("ABC", MatchingState.AUCTION), buffer);
+        buffer.put(WireCodec.HEADER_LENGTH, (byte) MatchingState.values().length);
+        buffer.flip();
+        assertThatThrownBy(() -> WireCodec.decode(buffer)).isInstanceOf(WireCodecException.class);
+    }
+
+    @Test
+    void strings_and_counts_beyond_an_unsigned_short_are_rejected() {
+        String tooLong = "A".repeat(0xFFFF);
+        assertThatThrownBy(() -> WireCodec.encode(new ChangeMatchingStateRq(tooLong, MatchingState.AUCTION), ByteBuffer.allocate(1 << 17)))
+                .isInstanceOf(WireCodecException.class);
+        String longest = "A".repeat(0xFFFE);
+        ByteBuffer large = ByteBuffer.allocate(1 << 17);
+        WireCodec.encode(new ChangeMatchingStateRq(longest, MatchingState.AUCTION), large);
+        large.flip();
+        assertThat(((ChangeMatchingStateRq) WireCodec.decode(large)).getSecurityIsin()).isEqualTo(longest);
+
+        List<String> errors = Collections.nCopies(0x10000, "");
+        assertThatThrownBy(() -> WireCodec.encode(new OrderRejectedEvent(1, 2, errors), ByteBuffer.allocate(1 << 18)))
+                .isInstanceOf(WireCodecException.class);
+    }
+
+    @Test
+    void decoding_rejects_a_string_longer_than_the_message() {
+        buffer.clear();
+        WireCodec.encode(new ChangeMatchingStateRq("ABC", MatchingState.AUCTION), buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+        assertThatThrownBy(() -> WireCodec.decode(buffer)).isInstanceOf(WireCodecException.class);
+    }
+}